@@ -0,0 +1,202 @@
+package com.study.spring.aop;
+
+import com.study.spring.aop.advice.*;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * @ClassName AdviceChain
+ * @Description 一个被增强方法的通知链：创建时按通知类型把每个通知包装成对应的拦截器，之后不可变，可被多个线程同时执行。
+ *              执行时只传递下标，不保存调用状态，前置、后置返回、最终、异常通知不产生任何对象；
+ *              只有环绕通知需要一个 AopAdviceChainInvocation 作为"继续执行"的入口。
+ * @Author liqiang
+ * @Date 2025/10/25 14:20
+ */
+public final class AdviceChain {
+
+    // 没有任何通知的方法共用的空通知链
+    static final AdviceChain EMPTY = new AdviceChain(new ChainedInterceptor[0], null);
+
+    private final ChainedInterceptor[] interceptors;
+
+    // 末端调用目标方法
+    private final MethodInvoker invoker;
+
+    private AdviceChain(ChainedInterceptor[] interceptors, MethodInvoker invoker) {
+        this.interceptors = interceptors;
+        this.invoker = invoker;
+    }
+
+    /**
+     * 由通知实例构建通知链，不是已知通知类型的对象会被忽略
+     */
+    public static AdviceChain of(List<?> advices, MethodInvoker invoker) {
+        List<ChainedInterceptor> interceptors = new ArrayList<>(advices.size());
+        for (Object advice : advices) {
+            ChainedInterceptor interceptor = adapt(advice);
+            if (interceptor != null) {
+                interceptors.add(interceptor);
+            }
+        }
+        return new AdviceChain(interceptors.toArray(new ChainedInterceptor[0]), invoker);
+    }
+
+    static AdviceChain of(ChainedInterceptor[] interceptors, MethodInvoker invoker) {
+        return new AdviceChain(interceptors, invoker);
+    }
+
+    /**
+     * 从下标 index 开始执行通知链，下标到达末尾时调用目标方法
+     */
+    public Object proceed(int index, Object proxy, Object target, Method method, Object[] args) throws Throwable {
+        if (index < this.interceptors.length) {
+            return this.interceptors[index].invoke(this, index, proxy, target, method, args);
+        }
+        return this.invoker.invoke(target, args);
+    }
+
+    public int size() {
+        return this.interceptors.length;
+    }
+
+    /**
+     * 按通知类型包装，判断顺序与原责任链一致：前置、环绕、后置返回、最终、异常
+     */
+    static ChainedInterceptor adapt(Object advice) {
+        if (advice instanceof MethodBeforeAdvice) {
+            return new BeforeInterceptor((MethodBeforeAdvice) advice);
+        } else if (advice instanceof MethodInterceptor) {
+            return new AroundInterceptor((MethodInterceptor) advice);
+        } else if (advice instanceof AfterReturningAdvice) {
+            return new AfterReturningInterceptor((AfterReturningAdvice) advice);
+        } else if (advice instanceof AfterAdvice) {
+            return new AfterInterceptor((AfterAdvice) advice);
+        } else if (advice instanceof ThrowsAdvice) {
+            return new ThrowsInterceptor((ThrowsAdvice) advice);
+        }
+        return null;
+    }
+
+    /**
+     * 原型通知：每次调用时由 provider 获取新的通知实例
+     */
+    static ChainedInterceptor prototype(AdviceProvider provider) {
+        return new PrototypeInterceptor(provider);
+    }
+
+    /**
+     * 通知链中的一个拦截器，执行完自己的增强后通过 chain.proceed(index + 1, ...) 继续
+     */
+    interface ChainedInterceptor {
+
+        Object invoke(AdviceChain chain, int index, Object proxy, Object target, Method method, Object[] args) throws Throwable;
+    }
+
+    private static final class PrototypeInterceptor implements ChainedInterceptor {
+
+        private final AdviceProvider provider;
+
+        PrototypeInterceptor(AdviceProvider provider) {
+            this.provider = provider;
+        }
+
+        @Override
+        public Object invoke(AdviceChain chain, int index, Object proxy, Object target, Method method, Object[] args) throws Throwable {
+            ChainedInterceptor interceptor = adapt(this.provider.getAdvice());
+            if (interceptor == null) {
+                return chain.proceed(index + 1, proxy, target, method, args);
+            }
+            return interceptor.invoke(chain, index, proxy, target, method, args);
+        }
+    }
+
+    private static final class BeforeInterceptor implements ChainedInterceptor {
+
+        private final MethodBeforeAdvice advice;
+
+        BeforeInterceptor(MethodBeforeAdvice advice) {
+            this.advice = advice;
+        }
+
+        @Override
+        public Object invoke(AdviceChain chain, int index, Object proxy, Object target, Method method, Object[] args) throws Throwable {
+            // 执行前置增强
+            this.advice.before(method, args, target);
+            return chain.proceed(index + 1, proxy, target, method, args);
+        }
+    }
+
+    private static final class AroundInterceptor implements ChainedInterceptor {
+
+        private final MethodInterceptor advice;
+
+        AroundInterceptor(MethodInterceptor advice) {
+            this.advice = advice;
+        }
+
+        @Override
+        public Object invoke(AdviceChain chain, int index, Object proxy, Object target, Method method, Object[] args) throws Throwable {
+            // 执行环绕增强。注意这里给入的method 和 对象 是invoke方法和调用链对象
+            return this.advice.invoke(AopAdviceChainInvocation.INVOKE_METHOD, null,
+                    new AopAdviceChainInvocation(chain, index + 1, proxy, target, method, args));
+        }
+    }
+
+    private static final class AfterReturningInterceptor implements ChainedInterceptor {
+
+        private final AfterReturningAdvice advice;
+
+        AfterReturningInterceptor(AfterReturningAdvice advice) {
+            this.advice = advice;
+        }
+
+        @Override
+        public Object invoke(AdviceChain chain, int index, Object proxy, Object target, Method method, Object[] args) throws Throwable {
+            // 先得得到结果，再执行后置增强逻辑
+            Object returnValue = chain.proceed(index + 1, proxy, target, method, args);
+            this.advice.afterReturning(returnValue, method, args, target);
+            return returnValue;
+        }
+    }
+
+    private static final class AfterInterceptor implements ChainedInterceptor {
+
+        private final AfterAdvice advice;
+
+        AfterInterceptor(AfterAdvice advice) {
+            this.advice = advice;
+        }
+
+        @Override
+        public Object invoke(AdviceChain chain, int index, Object proxy, Object target, Method method, Object[] args) throws Throwable {
+            Object returnValue = null;
+            try {
+                returnValue = chain.proceed(index + 1, proxy, target, method, args);
+            } finally {
+                this.advice.after(returnValue, method, args, target);
+            }
+            return returnValue;
+        }
+    }
+
+    private static final class ThrowsInterceptor implements ChainedInterceptor {
+
+        private final ThrowsAdvice advice;
+
+        ThrowsInterceptor(ThrowsAdvice advice) {
+            this.advice = advice;
+        }
+
+        @Override
+        public Object invoke(AdviceChain chain, int index, Object proxy, Object target, Method method, Object[] args) throws Throwable {
+            try {
+                return chain.proceed(index + 1, proxy, target, method, args);
+            } catch (Exception e) {
+                this.advice.afterThrowing(method, args, target, e);
+                throw e;
+            }
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package com.study.spring.aop;
+
+import com.study.spring.aop.beans.factory.BeanFactory;
+
+/**
+ * @InterfaceName AdviceProvider
+ * @Description 原型通知的提供者：每次调用被增强的方法时获取一个通知实例。单例通知在创建代理时就绑定了实例，不需要它
+ * @Author liqiang
+ * @Date 2025-10-30 10:10
+ */
+public interface AdviceProvider {
+
+    Object getAdvice() throws Throwable;
+
+    /**
+     * 每次从 BeanFactory 获取指定名称的通知Bean
+     */
+    static AdviceProvider forBean(BeanFactory beanFactory, String adviceBeanName) {
+        return () -> beanFactory.getBean(adviceBeanName);
+    }
+}
@@ -0,0 +1,145 @@
+package com.study.spring.aop;
+
+import com.study.spring.aop.advisor.Advisor;
+import com.study.spring.aop.advisor.PointcutAdvisor;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.ConcurrentReferenceHashMap;
+import org.springframework.util.ReflectionUtils;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.*;
+
+/**
+ * @ClassName AdvisedMethods
+ * @Description 一个类在一组 Advisor 下的分派表：哪些方法被增强。按方法签名记录，类、父类、接口中同签名的方法只要有一个被切点匹配，
+ *              该签名就算被增强，宁可多走通知链也不会漏掉增强。
+ *              创建代理时确定，未被增强的方法由代理直接调用目标对象，不再经过通知链。
+ *              同一 (类, Advisor列表) 只计算一次，相同分派表的代理可以共用生成的代理类
+ * @Author liqiang
+ * @Date 2025/10/30 15:10
+ */
+public final class AdvisedMethods {
+
+    // (类, Advisor列表) -> 分派表，软引用，内存不足时可回收
+    private static final Map<Key, AdvisedMethods> cache = new ConcurrentReferenceHashMap<>(64);
+
+    // 被增强的方法签名：方法名(参数类型...)
+    private final Set<String> advisedSignatures;
+
+    private AdvisedMethods(Set<String> advisedSignatures) {
+        this.advisedSignatures = advisedSignatures;
+    }
+
+    /**
+     * 获取类在这组 Advisor 下的分派表
+     */
+    public static AdvisedMethods forClass(Class<?> beanClass, List<Advisor> matchAdvisors) {
+        List<Advisor> advisors = matchAdvisors == null ? Collections.emptyList() : new ArrayList<>(matchAdvisors);
+        Key key = new Key(beanClass, advisors);
+        AdvisedMethods advisedMethods = cache.get(key);
+        if (advisedMethods == null) {
+            advisedMethods = compute(beanClass, advisors);
+            AdvisedMethods existing = cache.putIfAbsent(key, advisedMethods);
+            if (existing != null) {
+                advisedMethods = existing;
+            }
+        }
+        return advisedMethods;
+    }
+
+    private static AdvisedMethods compute(Class<?> beanClass, List<Advisor> advisors) {
+        Set<String> signatures = new HashSet<>();
+        List<Method> methods = new ArrayList<>(Arrays.asList(ReflectionUtils.getAllDeclaredMethods(beanClass)));
+        for (Class<?> ifc : ClassUtils.getAllInterfacesForClassAsSet(beanClass)) {
+            methods.addAll(Arrays.asList(ifc.getMethods()));
+        }
+        for (Method method : methods) {
+            int modifiers = method.getModifiers();
+            if (Modifier.isStatic(modifiers) || Modifier.isPrivate(modifiers)) {
+                continue;
+            }
+            String signature = signature(method);
+            if (signatures.contains(signature)) {
+                continue;
+            }
+            for (Advisor advisor : advisors) {
+                if (advisor instanceof PointcutAdvisor && ((PointcutAdvisor) advisor).getPointcut().matchMethod(method, beanClass)) {
+                    signatures.add(signature);
+                    break;
+                }
+            }
+        }
+        return new AdvisedMethods(Collections.unmodifiableSet(signatures));
+    }
+
+    /**
+     * 方法是否被增强
+     */
+    public boolean isAdvised(Method method) {
+        return this.advisedSignatures.contains(signature(method));
+    }
+
+    /**
+     * 被增强的方法个数
+     */
+    public int size() {
+        return this.advisedSignatures.size();
+    }
+
+    private static String signature(Method method) {
+        StringBuilder sb = new StringBuilder(method.getName()).append('(');
+        for (Class<?> parameterType : method.getParameterTypes()) {
+            sb.append(parameterType.getName()).append(',');
+        }
+        return sb.append(')').toString();
+    }
+
+    /**
+     * 按被增强的方法签名比较，签名相同的分派表在生成代理类时等价
+     */
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        return obj instanceof AdvisedMethods && this.advisedSignatures.equals(((AdvisedMethods) obj).advisedSignatures);
+    }
+
+    @Override
+    public int hashCode() {
+        return this.advisedSignatures.hashCode();
+    }
+
+    /**
+     * 分派表缓存的键：类、Advisor列表（Advisor 按实例比较）
+     */
+    private static final class Key {
+
+        private final Class<?> beanClass;
+
+        private final List<Advisor> advisors;
+
+        Key(Class<?> beanClass, List<Advisor> advisors) {
+            this.beanClass = beanClass;
+            this.advisors = advisors;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) obj;
+            return this.beanClass == other.beanClass && this.advisors.equals(other.advisors);
+        }
+
+        @Override
+        public int hashCode() {
+            return this.beanClass.hashCode() * 31 + this.advisors.hashCode();
+        }
+    }
+}
@@ -2,18 +2,25 @@ package com.study.spring.aop;
 
 import com.study.spring.aop.advice.Advice;
 import com.study.spring.aop.advisor.Advisor;
+import com.study.spring.aop.advisor.AdvisorPreFilterIndex;
 import com.study.spring.aop.advisor.PointcutAdvisor;
-import com.study.spring.aop.beans.BeanPostProcessor;
+import com.study.spring.aop.beans.TypePreparingBeanPostProcessor;
 import com.study.spring.aop.beans.aware.BeanFactoryAware;
 import com.study.spring.aop.beans.factory.BeanFactory;
 import com.study.spring.aop.factory.AopProxyFactory;
 import com.study.spring.aop.pointcut.Pointcut;
+import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.collections4.CollectionUtils;
 import org.springframework.util.ClassUtils;
 import org.springframework.util.ReflectionUtils;
 
 import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
 
 /**
  * @ClassName AdvisorAutoProxyCreator
@@ -21,7 +28,8 @@ import java.util.*;
  * @Author liqiang
  * @Date 2025/9/28 16:35
  */
-public class AdvisorAutoProxyCreator implements BeanPostProcessor, BeanFactoryAware {
+@Slf4j
+public class AdvisorAutoProxyCreator implements TypePreparingBeanPostProcessor, BeanFactoryAware {
 
 
     private BeanFactory beanFactory;
@@ -29,6 +37,14 @@ public class AdvisorAutoProxyCreator implements BeanPostProcessor, BeanFactoryAw
     private List<Advisor> advisors;
     //标识是否获取过了所有的Advisors
     private volatile boolean gettedAllAdvisors = false;
+    //所有Advisors的预筛选索引
+    private AdvisorPreFilterIndex advisorIndex;
+    //选择、创建代理的工厂
+    private AopProxyFactory aopProxyFactory = AopProxyFactory.getDefaultAopProxyFactory();
+    //提前计算的匹配结果：Bean的类 -> 匹配的Advisor
+    private final Map<Class<?>, List<Advisor>> preparedAdvisors = new ConcurrentHashMap<>(256);
+    //提前准备使用的线程池，未设置时使用 ForkJoinPool.commonPool()
+    private ForkJoinPool preparationPool;
 
     @Override
     public Object postProcessAfterInitialization(Object bean, String beanName) throws Throwable {
@@ -62,29 +78,49 @@ public class AdvisorAutoProxyCreator implements BeanPostProcessor, BeanFactoryAw
      */
     private List<Advisor> getMatchedAdvisors(Object bean) throws Throwable {
         //第一次执行该方法，先从BeanFactory中得到用户配置的所有切面Advisor
+        this.loadAdvisors();
+
+        //如果没有配置切面
+        if (CollectionUtils.isEmpty(this.advisors)) {
+            return Collections.emptyList();
+        }
+
+        // 提前准备过的类直接使用准备好的结果
+        List<Advisor> prepared = this.preparedAdvisors.get(bean.getClass());
+        if (prepared != null) {
+            return prepared;
+        }
+        return this.matchAdvisors(bean.getClass());
+    }
+
+    /**
+     * 从BeanFactory中得到用户配置的所有切面Advisor，并建立预筛选索引，只执行一次
+     */
+    private void loadAdvisors() throws Throwable {
         if (!gettedAllAdvisors) {
             synchronized (this) {
                 if (!gettedAllAdvisors) {
                     advisors = this.beanFactory.getBeansOfTypeList(Advisor.class);
+                    advisorIndex = new AdvisorPreFilterIndex(CollectionUtils.isEmpty(advisors)
+                            ? Collections.emptyList() : advisors);
                     gettedAllAdvisors = true;
                 }
             }
         }
+    }
 
-        //如果没有配置切面
-        if (CollectionUtils.isEmpty(this.advisors)) {
-            return Collections.emptyList();
-        }
-
+    /**
+     * 计算与指定类匹配的Advisor
+     */
+    private List<Advisor> matchAdvisors(Class<?> beanClass) {
         //有配置切面
         // 得到Bean的类、所有的方法
-        Class<?> beanClass = bean.getClass();
         List<Method> allMethods = this.getAllMethodForClass(beanClass);
 
         // 存放匹配的Advisor的list
         List<Advisor> matchAdvisors = new ArrayList<>();
-        // 遍历Advisor来找匹配的
-        for (Advisor ad : this.advisors) {
+        // 只遍历预筛选通过的Advisor来找匹配的
+        for (Advisor ad : this.advisorIndex.getCandidateAdvisors(beanClass, allMethods)) {
             if (ad instanceof PointcutAdvisor) {
                 if (isPointcutMatchBean((PointcutAdvisor) ad, beanClass, allMethods)) {
                     matchAdvisors.add(ad);
@@ -96,6 +132,63 @@ public class AdvisorAutoProxyCreator implements BeanPostProcessor, BeanFactoryAw
 
 
 
+    /**
+     * 创建Bean之前，在线程池中并行计算所有Bean类匹配的Advisor，并为需要代理的类提前生成代理类。
+     * 之后处理Bean时直接使用计算好的结果，创建代理时使用已生成的代理类
+     */
+    @Override
+    public void prepareBeanTypes(Map<String, Class<?>> beanTypes) throws Throwable {
+        this.loadAdvisors();
+        if (CollectionUtils.isEmpty(this.advisors)) {
+            return;
+        }
+        // 同一个类只准备一次；接口、抽象类（工厂方法的返回类型）无法确定实际的类，跳过
+        Map<Class<?>, String> classes = new LinkedHashMap<>();
+        beanTypes.forEach((beanName, type) -> {
+            if (!Modifier.isAbstract(type.getModifiers()) && !Advisor.class.isAssignableFrom(type)
+                    && !Advice.class.isAssignableFrom(type) && !this.preparedAdvisors.containsKey(type)) {
+                classes.putIfAbsent(type, beanName);
+            }
+        });
+        List<RecursiveAction> tasks = new ArrayList<>(classes.size());
+        classes.forEach((type, beanName) -> tasks.add(new RecursiveAction() {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected void compute() {
+                prepare(type, beanName);
+            }
+        }));
+        ForkJoinPool pool = this.preparationPool != null ? this.preparationPool : ForkJoinPool.commonPool();
+        long start = System.nanoTime();
+        pool.invoke(new RecursiveAction() {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected void compute() {
+                ForkJoinTask.invokeAll(tasks);
+            }
+        });
+        if (log.isDebugEnabled()) {
+            log.debug("提前准备{}个类的自动代理，耗时{}ms", tasks.size(), (System.nanoTime() - start) / 1_000_000);
+        }
+    }
+
+    /**
+     * 计算一个类匹配的Advisor，需要代理时提前生成代理类。失败不影响创建Bean，处理Bean时再按原流程计算
+     */
+    private void prepare(Class<?> beanClass, String beanName) {
+        List<Advisor> matchAdvisors = this.matchAdvisors(beanClass);
+        this.preparedAdvisors.put(beanClass, matchAdvisors);
+        if (!matchAdvisors.isEmpty()) {
+            try {
+                this.aopProxyFactory.prepareProxyClass(beanClass, beanName, matchAdvisors, this.beanFactory);
+            } catch (Throwable e) {
+                log.debug("提前生成{}的代理类失败", beanClass.getName(), e);
+            }
+        }
+    }
+
     /**
      * 获取指定类及其所有接口中声明的所有方法
      *
@@ -154,7 +247,7 @@ public class AdvisorAutoProxyCreator implements BeanPostProcessor, BeanFactoryAw
      */
     private Object createProxy(Object bean, String beanName, List<Advisor> matchAdvisors) throws Throwable {
         // 通过AopProxyFactory工厂去完成选择、和创建代理对象的工作。
-        return AopProxyFactory.getDefaultAopProxyFactory().createAopProxy(bean, beanName, matchAdvisors, beanFactory)
+        return this.aopProxyFactory.createAopProxy(bean, beanName, matchAdvisors, beanFactory)
                 .getProxy();
     }
 
@@ -162,4 +255,23 @@ public class AdvisorAutoProxyCreator implements BeanPostProcessor, BeanFactoryAw
     public void setBeanFactory(BeanFactory bf) {
         this.beanFactory = bf;
     }
+
+    /**
+     * 已提前计算过匹配结果的类
+     */
+    public Set<Class<?>> getPreparedBeanClasses() {
+        return Collections.unmodifiableSet(this.preparedAdvisors.keySet());
+    }
+
+    public void setPreparationPool(ForkJoinPool preparationPool) {
+        this.preparationPool = preparationPool;
+    }
+
+    public AopProxyFactory getAopProxyFactory() {
+        return aopProxyFactory;
+    }
+
+    public void setAopProxyFactory(AopProxyFactory aopProxyFactory) {
+        this.aopProxyFactory = aopProxyFactory;
+    }
 }
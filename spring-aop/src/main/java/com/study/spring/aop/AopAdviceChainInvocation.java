@@ -1,107 +1,86 @@
 package com.study.spring.aop;
 
-import com.study.spring.aop.advice.*;
+import net.sf.cglib.proxy.MethodProxy;
 
 import java.lang.reflect.Method;
 import java.util.List;
 
 /**
  * @ClassName AopAdviceChainInvocation
- * @Description  AopAdviceChainInvocation 类用于实现 AOP 拦截器链的调用逻辑。
- *   该类通过责任链模式依次执行各种类型的通知（advice），包括前置通知、环绕通知、后置返回通知、最终通知和异常通知。
- *   在所有通知执行完成后，最终调用目标方法。
+ * @Description  AopAdviceChainInvocation 是环绕通知拿到的"继续执行"入口：记录通知链和环绕通知之后的下标，
+ *   调用 invoke() 时从该下标继续执行通知链，最终调用目标方法。
+ *   对象不可变，本身不保存执行进度，执行逻辑见 AdviceChain。
  * @Author liqiang
  * @Date 2025/9/29 11:18
  */
 public class AopAdviceChainInvocation {
 
     // 静态获取 invoke 方法的反射对象，用于在环绕通知中传递调用链
-    private static Method invokeMethod;
+    static final Method INVOKE_METHOD;
 
 
     static {
         try {
-            invokeMethod = AopAdviceChainInvocation.class.getDeclaredMethod("invoke", null);
+            INVOKE_METHOD = AopAdviceChainInvocation.class.getDeclaredMethod("invoke");
         } catch (NoSuchMethodException e) {
             throw new RuntimeException(e);
         }
     }
 
-
+    // 通知链
+    private final AdviceChain chain;
+    // 从通知链的哪个下标继续执行
+    private final int index;
     // 代理对象
-    private Object proxy;
+    private final Object proxy;
     // 目标对象
-    private Object target;
+    private final Object target;
     // 被代理的方法
-    private Method method;
+    private final Method method;
     // 方法参数
-    private Object[] args;
-    // 拦截器链（通知列表）
-    private List<Object> advices;
+    private final Object[] args;
 
     public AopAdviceChainInvocation(Object proxy, Object target, Method method, Object[] args, List<Object> advices) {
-        super();
+        this(proxy, target, method, null, args, advices);
+    }
+
+    public AopAdviceChainInvocation(Object proxy, Object target, Method method, MethodProxy methodProxy, Object[] args,
+                                    List<Object> advices) {
+        this(AdviceChain.of(advices, MethodInvoker.forMethod(method, methodProxy)), 0, proxy, target, method, args);
+    }
+
+    AopAdviceChainInvocation(AdviceChain chain, int index, Object proxy, Object target, Method method, Object[] args) {
+        this.chain = chain;
+        this.index = index;
         this.proxy = proxy;
         this.target = target;
         this.method = method;
         this.args = args;
-        this.advices = advices;
     }
 
-    // AOP 链调用 责任链执行记录索引号
-    private int i = 0;
-
-
     /**
-     * 执行拦截器链中的增强逻辑，按照顺序调用各种类型的通知（advice）
-     * 该方法通过递归方式遍历拦截器链，根据不同的通知类型执行相应的增强逻辑
+     * 继续执行通知链中剩余的增强逻辑，最终调用目标方法
      *
      * @return 方法执行的返回值
      * @throws Throwable 方法执行过程中可能抛出的异常
      */
     public Object invoke() throws Throwable {
-        // 当前索引小于通知列表大小时，继续执行通知逻辑
-        if (i < this.advices.size()) {
-            // 获取当前通知并递增索引
-            Object advice = this.advices.get(i++);
-            // 前置通知处理
-            if (advice instanceof MethodBeforeAdvice) {
-                // 执行前置增强
-                ((MethodBeforeAdvice) advice).before(method, args, target);
-                // 环绕通知处理
-            } else if (advice instanceof MethodInterceptor) {
-                // 执行环绕增强和异常处理增强。注意这里给入的method 和 对象 是invoke方法和链对象
-                return ((MethodInterceptor) advice).invoke(invokeMethod, null, this);
-                // 后置返回通知处理
-            } else if (advice instanceof AfterReturningAdvice) {
-                // 当是AfterReturning后置返回通知增强时，先得得到结果，再执行后置增强逻辑
-                Object returnValue = this.invoke();
-                ((AfterReturningAdvice) advice).afterReturning(returnValue, method, args, target);
-                return returnValue;
-                // 最终通知处理
-            } else if (advice instanceof AfterAdvice) {
-                // 当是最终通知
-                Object returnValue = null;
-                try {
-                    returnValue = this.invoke();
-                } finally {
-                    ((AfterAdvice) advice).after(returnValue, method, args, target);
-                }
-                return returnValue;
-                // 异常通知处理
-            } else if (advice instanceof ThrowsAdvice) {
-                try {
-                    return this.invoke();
-                } catch (Exception e) {
-                    ((ThrowsAdvice) advice).afterThrowing(method, args, target, e);
-                    throw e;
-                }
-            }
-        } else {
-            // 执行目标方法
-            return method.invoke(target, args);
-        }
+        return this.chain.proceed(this.index, this.proxy, this.target, this.method, this.args);
+    }
+
+    public Object getProxy() {
+        return proxy;
+    }
+
+    public Object getTarget() {
+        return target;
+    }
+
+    public Method getMethod() {
+        return method;
+    }
 
-        return this.invoke();
+    public Object[] getArgs() {
+        return args;
     }
 }
@@ -3,11 +3,17 @@ package com.study.spring.aop;
 import com.study.spring.aop.advisor.Advisor;
 import com.study.spring.aop.advisor.PointcutAdvisor;
 import com.study.spring.aop.beans.factory.BeanFactory;
+import com.study.spring.aop.exception.AopConfigException;
+import lombok.extern.slf4j.Slf4j;
+import net.sf.cglib.proxy.MethodProxy;
+import org.springframework.objenesis.SpringObjenesis;
+import org.springframework.objenesis.instantiator.ObjectInstantiator;
 import org.springframework.util.CollectionUtils;
 
 import java.lang.reflect.Method;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
 /**
  * @ClassName AopProxyUtils
@@ -15,52 +21,139 @@ import java.util.List;
  * @Author liqiang
  * @Date 2025/9/29 10:45
  */
+@Slf4j
 public class AopProxyUtils {
 
-    public static Object applyAdvices(Object target, Method method, Object[] args, List<Advisor> matchAdvisors,
-                                      Object proxy, BeanFactory beanFactory) throws Throwable {
+    private static final AdviceChain.ChainedInterceptor[] NO_ADVICES = new AdviceChain.ChainedInterceptor[0];
 
-        // 1、获取要对当前方法进行增强的advice
-        List<Object> advices = AopProxyUtils.getShouldApplyAdvices(target.getClass(), method, matchAdvisors, beanFactory);
+    // 不调用构造方法创建代理对象，CGLIB 与 Javassist 代理共用；设置系统属性 spring.objenesis.ignore=true 可关闭
+    private static final SpringObjenesis objenesis = new SpringObjenesis();
+
+    /**
+     * 当前 JVM 是否可以通过 Objenesis 不调用构造方法创建代理对象
+     */
+    public static boolean isObjenesisWorthTrying() {
+        return objenesis.isWorthTrying();
+    }
+
+    /**
+     * 获取代理类的 Objenesis 实例化器，并试创建一个实例，不可用时返回 null
+     */
+    static ObjectInstantiator<?> getInstantiator(Class<?> proxyClass) {
+        if (!objenesis.isWorthTrying()) {
+            return null;
+        }
+        try {
+            ObjectInstantiator<?> instantiator = objenesis.getInstantiatorOf(proxyClass);
+            instantiator.newInstance();
+            return instantiator;
+        } catch (Throwable e) {
+            log.debug("无法通过Objenesis创建{}的代理对象，改为调用构造方法：{}", proxyClass.getSuperclass().getName(), e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * 执行增强
+     *
+     * @param methodProxy      CGLIB 代理的方法代理，用于调用目标方法；JDK 代理为 null
+     * @param boundAdvices     创建代理时绑定的通知，与 matchAdvisors 一一对应，见 {@link #bindAdvices}
+     * @param adviceChainCache 代理自己的通知链缓存：方法 -> 通知链，同一代理的同一方法只计算一次切点匹配
+     */
+    public static Object applyAdvices(Object target, Method method, MethodProxy methodProxy, Object[] args, List<Advisor> matchAdvisors,
+                                      AdviceChain.ChainedInterceptor[] boundAdvices, Object proxy,
+                                      Map<Method, AdviceChain> adviceChainCache) throws Throwable {
+
+        // 1、获取要对当前方法进行增强的通知链
+        AdviceChain chain = adviceChainCache.get(method);
+        if (chain == null) {
+            chain = AopProxyUtils.getShouldApplyAdvices(target.getClass(), method, MethodInvoker.forMethod(method, methodProxy),
+                    matchAdvisors, boundAdvices);
+            AdviceChain existing = adviceChainCache.putIfAbsent(method, chain);
+            if (existing != null) {
+                chain = existing;
+            }
+        }
         //2、如果有增强的advice，责任链增强执行
-        if (CollectionUtils.isEmpty(advices)) {
-            return method.invoke(target, args);
+        if (chain == AdviceChain.EMPTY) {
+            return AopProxyUtils.invokeTarget(target, method, methodProxy, args);
         } else {
-            // 责任链式执行增强
-            AopAdviceChainInvocation chain = new AopAdviceChainInvocation(proxy, target, method, args, advices);
-            return chain.invoke();
+            return chain.proceed(0, proxy, target, method, args);
         }
+    }
 
 
+    /**
+     * 调用目标方法：有 MethodProxy 时通过 CGLIB 生成的 FastClass 按下标直接调用，否则反射调用
+     */
+    static Object invokeTarget(Object target, Method method, MethodProxy methodProxy, Object[] args) throws Throwable {
+        if (methodProxy != null) {
+            return methodProxy.invoke(target, args);
+        }
+        return method.invoke(target, args);
     }
 
+    /**
+     * 创建代理时绑定匹配的Advisor的通知：单例通知直接取出实例并包装成拦截器，之后每次调用直接使用；
+     * 原型通知包装成每次调用时通过 AdviceProvider 获取实例的拦截器
+     *
+     * @param beanName      被代理的Bean名称
+     * @param matchAdvisors 匹配的顾问列表
+     * @param beanFactory   bean工厂，用于获取通知bean实例
+     * @return 与 matchAdvisors 一一对应的拦截器，不是切点顾问或通知不是已知类型的为 null
+     * @throws AopConfigException 获取通知bean失败
+     */
+    static AdviceChain.ChainedInterceptor[] bindAdvices(String beanName, List<Advisor> matchAdvisors, BeanFactory beanFactory) {
+        if (CollectionUtils.isEmpty(matchAdvisors)) {
+            return NO_ADVICES;
+        }
+        AdviceChain.ChainedInterceptor[] boundAdvices = new AdviceChain.ChainedInterceptor[matchAdvisors.size()];
+        for (int i = 0; i < boundAdvices.length; i++) {
+            Advisor advisor = matchAdvisors.get(i);
+            if (advisor instanceof PointcutAdvisor) {
+                String adviceBeanName = advisor.getAdviceBeanName();
+                try {
+                    boundAdvices[i] = beanFactory.isSingleton(adviceBeanName)
+                            ? AdviceChain.adapt(beanFactory.getBean(adviceBeanName))
+                            : AdviceChain.prototype(AdviceProvider.forBean(beanFactory, adviceBeanName));
+                } catch (RuntimeException | Error e) {
+                    throw e;
+                } catch (Throwable e) {
+                    throw new AopConfigException("为bean[" + beanName + "]绑定通知[" + adviceBeanName + "]失败", e);
+                }
+            }
+        }
+        return boundAdvices;
+    }
 
     /**
-     * 获取应该应用到指定方法上的通知列表
+     * 获取应该应用到指定方法上的通知链
      *
      * @param beanClass     目标bean的类对象
      * @param method        目标方法
+     * @param invoker       通知链末端调用目标方法的方式
      * @param matchAdvisors 匹配的顾问列表
-     * @param beanFactory   bean工厂，用于获取通知bean实例
-     * @return 应该应用到该方法上的通知列表，如果没有匹配的通知则返回null
-     * @throws Throwable 获取bean过程中可能抛出的异常
+     * @param boundAdvices  创建代理时绑定的通知，与 matchAdvisors 一一对应
+     * @return 应该应用到该方法上的通知链；没有匹配的通知则返回 AdviceChain.EMPTY
      */
-    private static List<Object> getShouldApplyAdvices(Class<?> beanClass, Method method, List<Advisor> matchAdvisors, BeanFactory beanFactory) throws Throwable {
-        // 如果没有匹配的顾问，则直接返回null
+    static AdviceChain getShouldApplyAdvices(Class<?> beanClass, Method method, MethodInvoker invoker,
+                                             List<Advisor> matchAdvisors, AdviceChain.ChainedInterceptor[] boundAdvices) {
+        // 如果没有匹配的顾问，则直接返回空通知链
         if (CollectionUtils.isEmpty(matchAdvisors)) {
-            return null;
+            return AdviceChain.EMPTY;
         }
-        List<Object> advices = new ArrayList<>();
+        List<AdviceChain.ChainedInterceptor> interceptors = new ArrayList<>();
         // 遍历所有匹配的顾问，筛选出适用于当前方法的通知
-        for (Advisor advisor : matchAdvisors) {
-            if (advisor instanceof PointcutAdvisor) {
-                PointcutAdvisor pointcutAdvisor = (PointcutAdvisor) advisor;
-                // 判断切点是否匹配当前方法
-                if (pointcutAdvisor.getPointcut().matchMethod(method, beanClass)) {
-                    advices.add(beanFactory.getBean(pointcutAdvisor.getAdviceBeanName()));
-                }
+        for (int i = 0; i < boundAdvices.length; i++) {
+            AdviceChain.ChainedInterceptor interceptor = boundAdvices[i];
+            // 判断切点是否匹配当前方法
+            if (interceptor != null && ((PointcutAdvisor) matchAdvisors.get(i)).getPointcut().matchMethod(method, beanClass)) {
+                interceptors.add(interceptor);
             }
         }
-        return advices;
+        if (interceptors.isEmpty()) {
+            return AdviceChain.EMPTY;
+        }
+        return AdviceChain.of(interceptors.toArray(new AdviceChain.ChainedInterceptor[0]), invoker);
     }
 }
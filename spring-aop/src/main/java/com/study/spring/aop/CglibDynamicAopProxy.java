@@ -5,25 +5,56 @@ import com.study.spring.aop.beans.BeanDefinition;
 import com.study.spring.aop.beans.factory.BeanFactory;
 import com.study.spring.aop.beans.factory.DefaultBeanFactory;
 import lombok.extern.slf4j.Slf4j;
+import net.sf.cglib.core.ReflectUtils;
+import net.sf.cglib.proxy.Callback;
+import net.sf.cglib.proxy.CallbackFilter;
+import net.sf.cglib.proxy.Dispatcher;
 import net.sf.cglib.proxy.Enhancer;
+import net.sf.cglib.proxy.Factory;
 import net.sf.cglib.proxy.MethodInterceptor;
 import net.sf.cglib.proxy.MethodProxy;
+import org.springframework.objenesis.instantiator.ObjectInstantiator;
+import org.springframework.util.ConcurrentReferenceHashMap;
 
-import java.lang.reflect.Constructor;
 import java.lang.reflect.Method;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * @ClassName CglibDynamicAopProxy
- * @Description
+ * @Description CGLIB 代理。生成代理类时按分派表（{@link AdvisedMethods}）给每个方法选择回调：
+ *              被增强的方法交给本类拦截执行通知链，未被增强的方法（包括 toString、hashCode 等）交给 Dispatcher，
+ *              由生成的代码直接调用目标对象的方法，不经过 intercept。
+ *              代理对象通过 Objenesis 创建，不调用目标类的构造方法，再设置回调；JVM 不支持时退回调用构造方法创建
  * @Author liqiang
  * @Date 2025/9/29 10:46
  */
 @Slf4j
 public class CglibDynamicAopProxy implements AopProxy, MethodInterceptor {
 
-    // CGLIB
-    private static Enhancer enhancer = new Enhancer();
+    // 代理类实现的接口
+    private static final Class<?>[] PROXY_INTERFACES = CglibDynamicAopProxy.class.getInterfaces();
+
+    // 回调类型，下标与 AdvisedMethodFilter 的返回值对应
+    private static final Class<?>[] CALLBACK_TYPES = {MethodInterceptor.class, Dispatcher.class};
+
+    private static final int ADVISED = 0;
+
+    private static final int UNADVISED = 1;
+
+    // 创建代理类模板实例时使用的回调，直接调用父类方法
+    private static final MethodInterceptor TEMPLATE_CALLBACK = (obj, method, args, methodProxy) -> methodProxy.invokeSuper(obj, args);
+
+    // 模板实例没有目标对象，父类构造方法中调用未被增强的方法时放弃创建模板
+    private static final Dispatcher TEMPLATE_DISPATCHER = () -> {
+        throw new IllegalStateException("代理类模板实例没有目标对象");
+    };
+
+    // 已生成的代理类：(目标类, 接口, 类加载器, 分派表) -> 代理类，软引用，内存不足时可回收
+    private static final Map<ProxyClassKey, ProxyClass> proxyClassCache = new ConcurrentReferenceHashMap<>(64);
 
     // 被代理的Bean名称
     private String beanName;
@@ -37,6 +68,12 @@ public class CglibDynamicAopProxy implements AopProxy, MethodInterceptor {
     // BeanFactory
     private BeanFactory beanFactory;
 
+    // 创建代理时绑定的通知，与 matchAdvisors 一一对应
+    private AdviceChain.ChainedInterceptor[] boundAdvices;
+
+    // 方法 -> 通知链，未被增强的方法为空通知链
+    private final Map<Method, AdviceChain> adviceChainCache = new ConcurrentHashMap<>(32);
+
     public CglibDynamicAopProxy(String beanName, Object target, List<Advisor> matchAdvisors, BeanFactory beanFactory) {
         super();
         this.beanName = beanName;
@@ -57,24 +94,54 @@ public class CglibDynamicAopProxy implements AopProxy, MethodInterceptor {
         if (log.isDebugEnabled()) {
             log.debug("为{}创建cglib代理。", target);
         }
-        Class<?> superClass = this.target.getClass();
-        enhancer.setSuperclass(superClass);
-        enhancer.setInterfaces(this.getClass().getInterfaces());
-        enhancer.setCallback(this);
-
-        Constructor< ?> constructor = null;
-        try {
-            constructor = superClass.getConstructor();
-        } catch (NoSuchMethodException e) {
-        }
-        if (constructor != null) {
-            return enhancer.create();
+        this.boundAdvices = AopProxyUtils.bindAdvices(beanName, matchAdvisors, beanFactory);
+        ProxyClass proxyClass = getProxyClass(this.target.getClass(), AdvisedMethods.forClass(this.target.getClass(), this.matchAdvisors),
+                classLoader);
+        Object target = this.target;
+        Callback[] callbacks = {this, (Dispatcher) () -> target};
+        if (proxyClass.instantiator != null) {
+            // 不调用构造方法，目标对象构造一次，代理对象只是转发调用的外壳
+            return proxyClass.newInstance(callbacks);
+        } else if (proxyClass.template != null) {
+            // 已生成过的代理类，由模板实例直接创建新的代理对象
+            return proxyClass.template.newInstance(callbacks);
+        } else if (proxyClass.hasNoArgConstructor) {
+            return proxyClass.newInstance(new Class<?>[0], new Object[0], callbacks);
         } else {
             BeanDefinition bd = ((DefaultBeanFactory) beanFactory).getBeanDefinition(beanName);
-            return enhancer.create(bd.getConstructor().getParameterTypes(), bd.getConstructorArgumentRealValues());
+            return proxyClass.newInstance(bd.getConstructor().getParameterTypes(), bd.getConstructorArgumentRealValues(), callbacks);
         }
     }
 
+    /**
+     * 按匹配的Advisor提前生成目标类的代理类
+     */
+    public static void prepareProxyClass(Class<?> superClass, List<Advisor> matchAdvisors, ClassLoader classLoader) {
+        getProxyClass(superClass, AdvisedMethods.forClass(superClass, matchAdvisors), classLoader);
+    }
+
+    /**
+     * 获取代理类，同一 (目标类, 接口, 类加载器, 分派表) 只生成一次。每次生成使用新的 Enhancer，并行创建代理时互不影响
+     */
+    private static ProxyClass getProxyClass(Class<?> superClass, AdvisedMethods advisedMethods, ClassLoader classLoader) {
+        AdvisedMethodFilter filter = new AdvisedMethodFilter(advisedMethods);
+        ProxyClassKey key = new ProxyClassKey(superClass, PROXY_INTERFACES, classLoader, filter);
+        ProxyClass proxyClass = proxyClassCache.get(key);
+        if (proxyClass == null) {
+            Enhancer enhancer = new Enhancer();
+            enhancer.setSuperclass(superClass);
+            enhancer.setInterfaces(PROXY_INTERFACES);
+            enhancer.setClassLoader(classLoader);
+            enhancer.setCallbackTypes(CALLBACK_TYPES);
+            enhancer.setCallbackFilter(filter);
+            proxyClass = new ProxyClass(enhancer.createClass());
+            ProxyClass existing = proxyClassCache.putIfAbsent(key, proxyClass);
+            if (existing != null) {
+                proxyClass = existing;
+            }
+        }
+        return proxyClass;
+    }
 
     /**
      * 拦截代理对象的方法调用，应用AOP通知
@@ -88,6 +155,134 @@ public class CglibDynamicAopProxy implements AopProxy, MethodInterceptor {
      */
     @Override
     public Object intercept(Object proxy, Method method, Object[] args, MethodProxy methodProxy) throws Throwable {
-        return AopProxyUtils.applyAdvices(target, method, args, matchAdvisors, proxy, beanFactory);
+        return AopProxyUtils.applyAdvices(target, method, methodProxy, args, matchAdvisors, boundAdvices, proxy, adviceChainCache);
+    }
+
+    /**
+     * 按分派表选择回调：被增强的方法交给拦截器，其余交给 Dispatcher 直接调用目标对象。
+     * CGLIB 也以它作为代理类缓存键的一部分，按分派表比较
+     */
+    private static final class AdvisedMethodFilter implements CallbackFilter {
+
+        private final AdvisedMethods advisedMethods;
+
+        AdvisedMethodFilter(AdvisedMethods advisedMethods) {
+            this.advisedMethods = advisedMethods;
+        }
+
+        @Override
+        public int accept(Method method) {
+            return this.advisedMethods.isAdvised(method) ? ADVISED : UNADVISED;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            return this == obj || (obj instanceof AdvisedMethodFilter && this.advisedMethods.equals(((AdvisedMethodFilter) obj).advisedMethods));
+        }
+
+        @Override
+        public int hashCode() {
+            return this.advisedMethods.hashCode();
+        }
+    }
+
+    /**
+     * 代理类缓存的键：目标类、接口、类加载器、回调过滤器
+     */
+    private static final class ProxyClassKey {
+
+        private final Class<?> superClass;
+
+        private final Class<?>[] interfaces;
+
+        private final ClassLoader classLoader;
+
+        private final AdvisedMethodFilter filter;
+
+        private final int hashCode;
+
+        ProxyClassKey(Class<?> superClass, Class<?>[] interfaces, ClassLoader classLoader, AdvisedMethodFilter filter) {
+            this.superClass = superClass;
+            this.interfaces = interfaces;
+            this.classLoader = classLoader;
+            this.filter = filter;
+            this.hashCode = Objects.hash(superClass, Arrays.hashCode(interfaces), classLoader, filter);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof ProxyClassKey)) {
+                return false;
+            }
+            ProxyClassKey other = (ProxyClassKey) obj;
+            return this.superClass == other.superClass && this.classLoader == other.classLoader
+                    && Arrays.equals(this.interfaces, other.interfaces) && this.filter.equals(other.filter);
+        }
+
+        @Override
+        public int hashCode() {
+            return this.hashCode;
+        }
+    }
+
+    /**
+     * 生成的代理类。优先通过 Objenesis 创建代理对象，不调用构造方法；Objenesis 不可用时，
+     * 目标类有公共无参构造方法则创建一个模板实例，之后通过 Factory.newInstance 创建代理对象，
+     * 否则每次按Bean定义的构造方法创建。代理对象的回调依次为：本类的拦截器、返回目标对象的 Dispatcher
+     */
+    private static final class ProxyClass {
+
+        private final Class<?> type;
+
+        private final ObjectInstantiator<?> instantiator;
+
+        private final Factory template;
+
+        private final boolean hasNoArgConstructor;
+
+        ProxyClass(Class<?> type) {
+            this.type = type;
+            this.instantiator = AopProxyUtils.getInstantiator(type);
+            Factory factory = null;
+            boolean hasNoArgConstructor = false;
+            if (this.instantiator == null) {
+                try {
+                    type.getSuperclass().getConstructor();
+                    hasNoArgConstructor = true;
+                    factory = (Factory) this.newInstance(new Class<?>[0], new Object[0], new Callback[]{TEMPLATE_CALLBACK, TEMPLATE_DISPATCHER});
+                } catch (NoSuchMethodException e) {
+                    // 没有公共无参构造方法
+                } catch (RuntimeException e) {
+                    // 父类构造方法调用了未被增强的方法，不使用模板，每次调用构造方法创建
+                    log.debug("无法创建{}的代理类模板实例：{}", type.getSuperclass().getName(), e.getMessage());
+                }
+            }
+            this.template = factory;
+            this.hasNoArgConstructor = hasNoArgConstructor;
+        }
+
+        /**
+         * 不调用构造方法创建代理对象，再设置回调
+         */
+        Object newInstance(Callback[] callbacks) {
+            Factory proxy = (Factory) this.instantiator.newInstance();
+            proxy.setCallbacks(callbacks);
+            return proxy;
+        }
+
+        /**
+         * 调用构造方法创建代理对象，回调通过线程本地变量传给生成的代理类，并行创建互不影响
+         */
+        Object newInstance(Class<?>[] argumentTypes, Object[] arguments, Callback[] callbacks) {
+            Enhancer.registerCallbacks(this.type, callbacks);
+            try {
+                return ReflectUtils.newInstance(this.type, argumentTypes, arguments);
+            } finally {
+                Enhancer.registerCallbacks(this.type, null);
+            }
+        }
     }
 }
@@ -0,0 +1,501 @@
+package com.study.spring.aop;
+
+import com.study.spring.aop.advisor.Advisor;
+import com.study.spring.aop.beans.BeanDefinition;
+import com.study.spring.aop.beans.factory.BeanFactory;
+import com.study.spring.aop.beans.factory.DefaultBeanFactory;
+import javassist.*;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.objenesis.instantiator.ObjectInstantiator;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.ConcurrentReferenceHashMap;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * @ClassName JavassistAopProxy
+ * @Description 用 Javassist 为被增强的类生成代理类：目标类可继承时生成子类，final 类生成接口实现类。
+ *              代理类的每个方法按下标取出该方法的通知链，没有通知时直接调用目标对象的方法；
+ *              同时生成一个 MethodInvoker 实现类，通知链末端按下标直接调用目标方法，全程没有反射。
+ *              例如 ABean.doSomthing() 生成的方法体为：
+ *              <pre>
+ *              public void doSomthing() {
+ *                  JavassistAopProxy h = this.$$handler;
+ *                  if (h == null) { super.doSomthing(); return; }  // 父类构造方法中调用时
+ *                  AdviceChain c = h.getChain(0);
+ *                  if (c == null) { ((ABean) this.$$target).doSomthing(); return; }
+ *                  c.proceed(0, this, this.$$target, h.getMethod(0), $args);
+ *              }
+ *              </pre>
+ *              子类方式的代理对象优先通过 Objenesis 创建，不调用目标类的构造方法，再通过生成的 $$bind 方法设置 handler 和 target；
+ *              JVM 不支持时退回调用构造方法创建
+ * @Author liqiang
+ * @Date 2025/10/26 10:15
+ */
+@Slf4j
+public class JavassistAopProxy implements AopProxy {
+
+    private static final AtomicInteger CLASS_COUNTER = new AtomicInteger();
+
+    // 生成的代理类：(目标类, 类加载器) -> 代理类信息，软引用，内存不足时可回收
+    private static final Map<ProxyClassKey, ProxyClassInfo> proxyClassCache = new ConcurrentReferenceHashMap<>(64);
+
+    // 被代理的Bean名称
+    private final String beanName;
+
+    // 被代理的Bean实例
+    private final Object target;
+
+    // 匹配的Advisor
+    private final List<Advisor> matchAdvisors;
+
+    // BeanFactory
+    private final BeanFactory beanFactory;
+
+    private ProxyClassInfo classInfo;
+
+    // 创建代理时绑定的通知，与 matchAdvisors 一一对应
+    private AdviceChain.ChainedInterceptor[] boundAdvices;
+
+    // 方法下标 -> 通知链，第一次调用时计算
+    private AdviceChain[] chains;
+
+    public JavassistAopProxy(String beanName, Object target, List<Advisor> matchAdvisors, BeanFactory beanFactory) {
+        this.beanName = beanName;
+        this.target = target;
+        this.matchAdvisors = matchAdvisors;
+        this.beanFactory = beanFactory;
+    }
+
+    @Override
+    public Object getProxy() {
+        return this.getProxy(this.target.getClass().getClassLoader());
+    }
+
+    @Override
+    public Object getProxy(ClassLoader classLoader) {
+        if (log.isDebugEnabled()) {
+            log.debug("为{}创建javassist代理。", target);
+        }
+        Class<?> targetClass = this.target.getClass();
+        ProxyClassInfo info = getProxyClassInfo(targetClass, classLoader);
+        this.classInfo = info;
+        this.chains = new AdviceChain[info.methods.length];
+        this.boundAdvices = AopProxyUtils.bindAdvices(this.beanName, this.matchAdvisors, this.beanFactory);
+        try {
+            return this.newProxyInstance(info);
+        } catch (Throwable e) {
+            throw new IllegalStateException("创建javassist代理失败：" + targetClass.getName(), e);
+        }
+    }
+
+    /**
+     * 提前生成目标类的代理类
+     */
+    public static void prepareProxyClass(Class<?> targetClass, ClassLoader classLoader) {
+        getProxyClassInfo(targetClass, classLoader);
+    }
+
+    /**
+     * 获取代理类，同一 (目标类, 类加载器) 只生成一次
+     */
+    private static ProxyClassInfo getProxyClassInfo(Class<?> targetClass, ClassLoader classLoader) {
+        ProxyClassKey key = new ProxyClassKey(targetClass, classLoader);
+        ProxyClassInfo info = proxyClassCache.get(key);
+        if (info == null) {
+            info = generateProxyClass(targetClass, classLoader);
+            ProxyClassInfo existing = proxyClassCache.putIfAbsent(key, info);
+            if (existing != null) {
+                info = existing;
+            }
+        }
+        return info;
+    }
+
+    private Object newProxyInstance(ProxyClassInfo info) throws Exception {
+        if (info.interfaceBased) {
+            return info.proxyClass.getConstructor(JavassistAopProxy.class, Object.class).newInstance(this, this.target);
+        }
+        if (info.instantiator != null) {
+            // 不调用目标类的构造方法，代理对象的字段只有 handler 和 target 会被用到
+            ProxyBinding proxy = (ProxyBinding) info.instantiator.newInstance();
+            proxy.$$bind(this, this.target);
+            return proxy;
+        }
+        Class<?>[] parameterTypes = new Class<?>[0];
+        Object[] args = new Object[0];
+        if (!hasPublicNoArgConstructor(info.targetClass)) {
+            // 没有无参构造方法时，使用Bean定义确定的构造方法及本次创建使用的参数
+            BeanDefinition bd = this.beanFactory instanceof DefaultBeanFactory
+                    ? ((DefaultBeanFactory) this.beanFactory).getBeanDefinition(this.beanName) : null;
+            if (bd == null || bd.getConstructor() == null || bd.getConstructorArgumentRealValues() == null) {
+                throw new IllegalStateException("Objenesis 不可用且 " + info.targetClass.getName() + " 没有可用于创建代理对象的构造方法及参数");
+            }
+            parameterTypes = bd.getConstructor().getParameterTypes();
+            args = bd.getConstructorArgumentRealValues();
+        }
+        Class<?>[] proxyParameterTypes = new Class<?>[parameterTypes.length + 2];
+        proxyParameterTypes[0] = JavassistAopProxy.class;
+        proxyParameterTypes[1] = Object.class;
+        System.arraycopy(parameterTypes, 0, proxyParameterTypes, 2, parameterTypes.length);
+        Object[] proxyArgs = new Object[proxyParameterTypes.length];
+        proxyArgs[0] = this;
+        proxyArgs[1] = this.target;
+        System.arraycopy(args, 0, proxyArgs, 2, args.length);
+        return info.proxyClass.getConstructor(proxyParameterTypes).newInstance(proxyArgs);
+    }
+
+    /**
+     * 获取第 index 个方法的通知链，没有匹配的通知时返回 null。由生成的代理类调用
+     */
+    public AdviceChain getChain(int index) {
+        AdviceChain chain = this.chains[index];
+        if (chain == null) {
+            chain = AopProxyUtils.getShouldApplyAdvices(this.classInfo.targetClass, this.classInfo.methods[index],
+                    this.classInfo.invokers[index], this.matchAdvisors, this.boundAdvices);
+            // AdviceChain 不可变，并发时重复计算无害
+            this.chains[index] = chain;
+        }
+        return chain == AdviceChain.EMPTY ? null : chain;
+    }
+
+    /**
+     * 获取第 index 个方法，由生成的代理类调用
+     */
+    public Method getMethod(int index) {
+        return this.classInfo.methods[index];
+    }
+
+    private static boolean hasPublicNoArgConstructor(Class<?> clazz) {
+        try {
+            clazz.getConstructor();
+            return true;
+        } catch (NoSuchMethodException e) {
+            return false;
+        }
+    }
+
+    /**
+     * 生成代理类及其 MethodInvoker 实现类
+     */
+    private static ProxyClassInfo generateProxyClass(Class<?> targetClass, ClassLoader requestedClassLoader) {
+        boolean interfaceBased = Modifier.isFinal(targetClass.getModifiers());
+        Class<?>[] interfaces = ClassUtils.getAllInterfacesForClass(targetClass);
+        if (interfaceBased && interfaces.length == 0) {
+            throw new IllegalStateException("无法为没有实现接口的final类创建javassist代理：" + targetClass.getName());
+        }
+        if (!Modifier.isPublic(targetClass.getModifiers())) {
+            throw new IllegalStateException("javassist代理只支持public类：" + targetClass.getName());
+        }
+        Method[] methods = collectProxyMethods(targetClass, interfaceBased, interfaces);
+        ClassLoader classLoader = determineClassLoader(targetClass, requestedClassLoader);
+        int id = CLASS_COUNTER.incrementAndGet();
+        String proxyClassName = targetClass.getName() + "$$JavassistProxy$$" + id;
+        String invokerClassName = targetClass.getName() + "$$JavassistInvoker$$" + id;
+
+        // ClassPool 不是线程安全的
+        synchronized (JavassistAopProxy.class) {
+            try {
+                ClassPool pool = new ClassPool(true);
+                pool.appendClassPath(new LoaderClassPath(classLoader));
+
+                CtClass invokerClass = pool.makeClass(invokerClassName);
+                invokerClass.addInterface(pool.get(MethodInvoker.class.getName()));
+                invokerClass.addField(CtField.make("private final int index;", invokerClass));
+                invokerClass.addConstructor(CtNewConstructor.make(
+                        "public " + simpleName(invokerClassName) + "(int index) { this.index = index; }", invokerClass));
+                invokerClass.addMethod(CtNewMethod.make(generateInvokerMethod(targetClass, methods), invokerClass));
+
+                CtClass proxyClass = pool.makeClass(proxyClassName);
+                if (interfaceBased) {
+                    for (Class<?> ifc : interfaces) {
+                        proxyClass.addInterface(pool.get(ifc.getName()));
+                    }
+                } else {
+                    proxyClass.setSuperclass(pool.get(targetClass.getName()));
+                }
+                // Objenesis 创建的代理对象不经过构造方法，字段由 $$bind 设置，不能是 final
+                proxyClass.addField(CtField.make("private " + JavassistAopProxy.class.getName() + " $$handler;", proxyClass));
+                proxyClass.addField(CtField.make("private Object $$target;", proxyClass));
+                addConstructors(pool, proxyClass, targetClass, interfaceBased);
+                if (!interfaceBased) {
+                    addBindMethod(pool, proxyClass);
+                }
+                for (int i = 0; i < methods.length; i++) {
+                    addProxyMethod(pool, proxyClass, targetClass, methods[i], i, interfaceBased);
+                }
+
+                Class<?> invokerType = invokerClass.toClass(classLoader, JavassistAopProxy.class.getProtectionDomain());
+                Class<?> proxyType = proxyClass.toClass(classLoader, JavassistAopProxy.class.getProtectionDomain());
+                invokerClass.detach();
+                proxyClass.detach();
+
+                MethodInvoker[] invokers = new MethodInvoker[methods.length];
+                Constructor<?> invokerConstructor = invokerType.getConstructor(int.class);
+                for (int i = 0; i < methods.length; i++) {
+                    invokers[i] = (MethodInvoker) invokerConstructor.newInstance(i);
+                }
+                ObjectInstantiator<?> instantiator = interfaceBased ? null : AopProxyUtils.getInstantiator(proxyType);
+                return new ProxyClassInfo(targetClass, proxyType, interfaceBased, methods, invokers, instantiator);
+            } catch (Exception e) {
+                throw new IllegalStateException("生成javassist代理类失败：" + targetClass.getName(), e);
+            }
+        }
+    }
+
+    /**
+     * 需要代理的方法：子类方式为所有可覆盖的public方法，接口方式为接口方法及 equals/hashCode/toString
+     */
+    private static Method[] collectProxyMethods(Class<?> targetClass, boolean interfaceBased, Class<?>[] interfaces) {
+        Map<String, Method> methods = new LinkedHashMap<>();
+        List<Method> candidates = new ArrayList<>();
+        if (interfaceBased) {
+            for (Class<?> ifc : interfaces) {
+                candidates.addAll(Arrays.asList(ifc.getMethods()));
+            }
+            candidates.addAll(Arrays.asList(Object.class.getMethods()));
+        } else {
+            candidates.addAll(Arrays.asList(targetClass.getMethods()));
+        }
+        for (Method method : candidates) {
+            int modifiers = method.getModifiers();
+            if (Modifier.isStatic(modifiers) || Modifier.isFinal(modifiers) || method.isBridge() || method.isSynthetic()) {
+                continue;
+            }
+            methods.putIfAbsent(method.getName() + Arrays.toString(method.getParameterTypes()), method);
+        }
+        return methods.values().toArray(new Method[0]);
+    }
+
+    /**
+     * 子类方式：为父类的每个 public/protected 构造方法生成一个构造方法，参数前加上 handler 和 target；
+     * 接口方式：只有 (handler, target) 构造方法
+     */
+    private static void addConstructors(ClassPool pool, CtClass proxyClass, Class<?> targetClass, boolean interfaceBased)
+            throws NotFoundException, CannotCompileException {
+        List<Class<?>[]> superParameterTypes = new ArrayList<>();
+        if (interfaceBased) {
+            superParameterTypes.add(null);
+        } else {
+            for (Constructor<?> constructor : targetClass.getDeclaredConstructors()) {
+                int modifiers = constructor.getModifiers();
+                if (Modifier.isPublic(modifiers) || Modifier.isProtected(modifiers)) {
+                    superParameterTypes.add(constructor.getParameterTypes());
+                }
+            }
+        }
+        for (Class<?>[] parameterTypes : superParameterTypes) {
+            int superCount = parameterTypes == null ? 0 : parameterTypes.length;
+            CtClass[] ctParameterTypes = new CtClass[superCount + 2];
+            ctParameterTypes[0] = pool.get(JavassistAopProxy.class.getName());
+            ctParameterTypes[1] = pool.get(Object.class.getName());
+            StringBuilder body = new StringBuilder("{ ");
+            if (parameterTypes != null) {
+                body.append("super(");
+                for (int i = 0; i < superCount; i++) {
+                    ctParameterTypes[i + 2] = pool.get(sourceName(parameterTypes[i]));
+                    body.append(i > 0 ? ", " : "").append('$').append(i + 3);
+                }
+                body.append("); ");
+            }
+            body.append("this.$$handler = $1; this.$$target = $2; }");
+            CtConstructor constructor = new CtConstructor(ctParameterTypes, proxyClass);
+            constructor.setModifiers(javassist.Modifier.PUBLIC);
+            constructor.setBody(body.toString());
+            proxyClass.addConstructor(constructor);
+        }
+    }
+
+    /**
+     * 子类方式：实现 ProxyBinding，Objenesis 创建代理对象后设置 handler 和 target
+     */
+    private static void addBindMethod(ClassPool pool, CtClass proxyClass) throws NotFoundException, CannotCompileException {
+        proxyClass.addInterface(pool.get(ProxyBinding.class.getName()));
+        CtMethod bind = new CtMethod(CtClass.voidType, "$$bind",
+                new CtClass[]{pool.get(JavassistAopProxy.class.getName()), pool.get(Object.class.getName())}, proxyClass);
+        bind.setModifiers(javassist.Modifier.PUBLIC);
+        bind.setBody("{ this.$$handler = $1; this.$$target = $2; }");
+        proxyClass.addMethod(bind);
+    }
+
+    private static void addProxyMethod(ClassPool pool, CtClass proxyClass, Class<?> targetClass, Method method, int index,
+                                       boolean interfaceBased) throws NotFoundException, CannotCompileException {
+        Class<?>[] parameterTypes = method.getParameterTypes();
+        CtClass[] ctParameterTypes = new CtClass[parameterTypes.length];
+        for (int i = 0; i < parameterTypes.length; i++) {
+            ctParameterTypes[i] = pool.get(sourceName(parameterTypes[i]));
+        }
+        CtMethod ctMethod = new CtMethod(pool.get(sourceName(method.getReturnType())), method.getName(), ctParameterTypes, proxyClass);
+        ctMethod.setModifiers(javassist.Modifier.PUBLIC);
+
+        boolean isVoid = method.getReturnType() == void.class;
+        String name = method.getName();
+        String directCall = "((" + sourceName(castType(targetClass, method)) + ") this.$$target)." + name + "($$)";
+        String chainCall = "c.proceed(0, this, this.$$target, h.getMethod(" + index + "), $args)";
+        StringBuilder body = new StringBuilder("{ ");
+        body.append(JavassistAopProxy.class.getName()).append(" h = this.$$handler; ");
+        if (!interfaceBased) {
+            // 父类构造方法中调用被覆盖的方法时，代理尚未初始化，直接执行父类方法
+            body.append("if (h == null) { ").append(returnStatement(isVoid, "super." + name + "($$)")).append(" } ");
+        }
+        body.append(AdviceChain.class.getName()).append(" c = h.getChain(").append(index).append("); ");
+        body.append("if (c == null) { ").append(returnStatement(isVoid, directCall)).append(" } ");
+        if (isVoid) {
+            body.append(chainCall).append("; }");
+        } else {
+            body.append("return ($r) ").append(chainCall).append("; }");
+        }
+        ctMethod.setBody(body.toString());
+        proxyClass.addMethod(ctMethod);
+    }
+
+    private static String returnStatement(boolean isVoid, String call) {
+        return isVoid ? call + "; return;" : "return " + call + ";";
+    }
+
+    /**
+     * 调用目标方法时转换成的类型：声明方法的类是 public 时用它，否则用目标类
+     */
+    private static Class<?> castType(Class<?> targetClass, Method method) {
+        return Modifier.isPublic(method.getDeclaringClass().getModifiers()) ? method.getDeclaringClass() : targetClass;
+    }
+
+    /**
+     * MethodInvoker 的实现：按下标直接调用目标方法。Javassist 编译器不支持自动装箱、拆箱，需要显式转换
+     */
+    private static String generateInvokerMethod(Class<?> targetClass, Method[] methods) {
+        StringBuilder body = new StringBuilder("public Object invoke(Object target, Object[] args) throws Throwable { switch (this.index) { ");
+        for (int i = 0; i < methods.length; i++) {
+            Method method = methods[i];
+            StringBuilder call = new StringBuilder("((").append(sourceName(castType(targetClass, method))).append(") target).")
+                    .append(method.getName()).append('(');
+            Class<?>[] parameterTypes = method.getParameterTypes();
+            for (int j = 0; j < parameterTypes.length; j++) {
+                call.append(j > 0 ? ", " : "").append(unboxArgument(parameterTypes[j], "args[" + j + "]"));
+            }
+            call.append(')');
+            Class<?> returnType = method.getReturnType();
+            body.append("case ").append(i).append(": ");
+            if (returnType == void.class) {
+                body.append(call).append("; return null; ");
+            } else if (returnType.isPrimitive()) {
+                body.append("return ").append(sourceName(ClassUtils.resolvePrimitiveIfNecessary(returnType)))
+                        .append(".valueOf(").append(call).append("); ");
+            } else {
+                body.append("return ").append(call).append("; ");
+            }
+        }
+        return body.append("default: throw new IllegalStateException(\"未知的方法下标：\" + this.index); } }").toString();
+    }
+
+    private static String unboxArgument(Class<?> parameterType, String argument) {
+        if (!parameterType.isPrimitive()) {
+            return "(" + sourceName(parameterType) + ") " + argument;
+        }
+        return "((" + sourceName(ClassUtils.resolvePrimitiveIfNecessary(parameterType)) + ") " + argument + ")."
+                + parameterType.getName() + "Value()";
+    }
+
+    private static String sourceName(Class<?> type) {
+        if (type.isArray()) {
+            return sourceName(type.getComponentType()) + "[]";
+        }
+        return type.getName();
+    }
+
+    private static String simpleName(String className) {
+        return className.substring(className.lastIndexOf('.') + 1);
+    }
+
+    /**
+     * 生成的类需要同时看得到目标类和 JavassistAopProxy、AdviceChain
+     */
+    private static ClassLoader determineClassLoader(Class<?> targetClass, ClassLoader requested) {
+        for (ClassLoader candidate : new ClassLoader[]{requested, targetClass.getClassLoader(), JavassistAopProxy.class.getClassLoader()}) {
+            if (candidate != null && isVisible(targetClass, candidate) && isVisible(JavassistAopProxy.class, candidate)) {
+                return candidate;
+            }
+        }
+        throw new IllegalStateException(targetClass.getName() + " 与 " + JavassistAopProxy.class.getName() + " 不在同一个可见的类加载器中");
+    }
+
+    private static boolean isVisible(Class<?> type, ClassLoader classLoader) {
+        try {
+            return Class.forName(type.getName(), false, classLoader) == type;
+        } catch (ClassNotFoundException e) {
+            return false;
+        }
+    }
+
+    /**
+     * 子类方式生成的代理类实现的接口，不经过构造方法创建代理对象后设置 handler 和 target。由生成的代理类实现
+     */
+    public interface ProxyBinding {
+
+        void $$bind(JavassistAopProxy handler, Object target);
+    }
+
+    /**
+     * 代理类缓存的键：目标类、类加载器
+     */
+    private static final class ProxyClassKey {
+
+        private final Class<?> targetClass;
+
+        private final ClassLoader classLoader;
+
+        ProxyClassKey(Class<?> targetClass, ClassLoader classLoader) {
+            this.targetClass = targetClass;
+            this.classLoader = classLoader;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof ProxyClassKey)) {
+                return false;
+            }
+            ProxyClassKey other = (ProxyClassKey) obj;
+            return this.targetClass == other.targetClass && this.classLoader == other.classLoader;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(this.targetClass, this.classLoader);
+        }
+    }
+
+    /**
+     * 生成的代理类，以及下标对应的方法、直接调用目标方法的 MethodInvoker、子类方式的 Objenesis 实例化器（不可用时为 null）
+     */
+    private static final class ProxyClassInfo {
+
+        private final Class<?> targetClass;
+
+        private final Class<?> proxyClass;
+
+        private final boolean interfaceBased;
+
+        private final Method[] methods;
+
+        private final MethodInvoker[] invokers;
+
+        private final ObjectInstantiator<?> instantiator;
+
+        ProxyClassInfo(Class<?> targetClass, Class<?> proxyClass, boolean interfaceBased, Method[] methods, MethodInvoker[] invokers,
+                       ObjectInstantiator<?> instantiator) {
+            this.targetClass = targetClass;
+            this.proxyClass = proxyClass;
+            this.interfaceBased = interfaceBased;
+            this.methods = methods;
+            this.invokers = invokers;
+            this.instantiator = instantiator;
+        }
+    }
+}
@@ -3,21 +3,35 @@ package com.study.spring.aop;
 import com.study.spring.aop.advisor.Advisor;
 import com.study.spring.aop.beans.factory.BeanFactory;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.ConcurrentReferenceHashMap;
 
 import java.lang.reflect.InvocationHandler;
 import java.lang.reflect.Method;
 import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * @ClassName JdkDynamicAopProxy
- * @Description
+ * @Description JDK 动态代理。创建代理时为代理接口的所有方法及 equals、hashCode、toString 建好分派表，
+ *              每个方法对应通知链及调用目标方法的 MethodInvoker，未被增强的方法直接调用目标方法，调用时不再做切点匹配。
+ *              目标方法通过 MethodHandle 调用（每个接口方法解析一次，所有代理共用），不经过 Method.invoke，
+ *              目标方法抛出的异常原样抛出，不会被包装成 InvocationTargetException
  * @Author liqiang
  * @Date 2025/9/29 10:41
  */
 @Slf4j
 public class JdkDynamicAopProxy implements AopProxy, InvocationHandler {
 
+    // 接口方法 -> 调用目标方法的 MethodHandle，软引用，内存不足时可回收
+    private static final Map<Method, MethodInvoker> invokerCache = new ConcurrentReferenceHashMap<>(256);
+
     // 被代理的Bean名称
     private String beanName;
 
@@ -30,6 +44,15 @@ public class JdkDynamicAopProxy implements AopProxy, InvocationHandler {
     // BeanFactory
     private BeanFactory beanFactory;
 
+    // 创建代理时绑定的通知，与 matchAdvisors 一一对应
+    private AdviceChain.ChainedInterceptor[] boundAdvices;
+
+    // 创建代理时建好的分派表，之后只读
+    private Map<Method, MethodDispatch> dispatchTable = Collections.emptyMap();
+
+    // 代理类传入的方法对象 -> 分派。代理类每次传入同一个方法对象，按引用即可命中，不需要 Method.equals
+    private final Map<Method, MethodDispatch> dispatchCache = new ConcurrentHashMap<>(32);
+
     public JdkDynamicAopProxy(String beanName, Object target, List<Advisor> matchAdvisors, BeanFactory beanFactory) {
         super();
         this.beanName = beanName;
@@ -41,7 +64,30 @@ public class JdkDynamicAopProxy implements AopProxy, InvocationHandler {
 
     @Override
     public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
-        return AopProxyUtils.applyAdvices(target, method, args, matchAdvisors, proxy, beanFactory);
+        MethodDispatch dispatch = this.dispatchCache.get(method);
+        if (dispatch == null) {
+            dispatch = this.getDispatch(method);
+        }
+        if (dispatch.chain == null) {
+            return dispatch.invoker.invoke(target, args);
+        }
+        return dispatch.chain.proceed(0, proxy, target, method, args);
+    }
+
+    /**
+     * 方法第一次调用时从分派表取出，不在分派表中的方法（一般不会出现）再计算
+     */
+    private MethodDispatch getDispatch(Method method) {
+        return this.dispatchCache.computeIfAbsent(method, m -> {
+            MethodDispatch dispatch = this.dispatchTable.get(m);
+            return dispatch != null ? dispatch : this.createDispatch(target.getClass(), m);
+        });
+    }
+
+    private MethodDispatch createDispatch(Class<?> targetClass, Method method) {
+        MethodInvoker invoker = invokerCache.computeIfAbsent(method, MethodInvoker::forMethodHandle);
+        AdviceChain chain = AopProxyUtils.getShouldApplyAdvices(targetClass, method, invoker, matchAdvisors, boundAdvices);
+        return new MethodDispatch(chain == AdviceChain.EMPTY ? null : chain, invoker);
     }
 
     @Override
@@ -54,8 +100,47 @@ public class JdkDynamicAopProxy implements AopProxy, InvocationHandler {
         if (log.isDebugEnabled()) {
             log.debug("为{}创建代理。", target);
         }
-        return Proxy.newProxyInstance(classLoader, target.getClass().getInterfaces(), this);
+        this.boundAdvices = AopProxyUtils.bindAdvices(beanName, matchAdvisors, beanFactory);
+        // 包括父类实现的接口
+        Class<?>[] interfaces = ClassUtils.getAllInterfacesForClass(target.getClass(), classLoader);
+        this.dispatchTable = this.buildDispatchTable(interfaces);
+        return Proxy.newProxyInstance(classLoader, interfaces, this);
     }
 
+    /**
+     * 为代理接口的所有方法及 Object 的 equals、hashCode、toString 建分派表。通知已在创建代理时绑定，这里只做切点匹配（结果由切点缓存）
+     */
+    private Map<Method, MethodDispatch> buildDispatchTable(Class<?>[] interfaces) {
+        Class<?> targetClass = target.getClass();
+        Map<Method, MethodDispatch> table = new HashMap<>(32);
+        List<Method> methods = new ArrayList<>();
+        for (Class<?> ifc : interfaces) {
+            methods.addAll(Arrays.asList(ifc.getMethods()));
+        }
+        for (Method method : Object.class.getMethods()) {
+            String name = method.getName();
+            if (name.equals("equals") || name.equals("hashCode") || name.equals("toString")) {
+                methods.add(method);
+            }
+        }
+        for (Method method : methods) {
+            table.put(method, this.createDispatch(targetClass, method));
+        }
+        return table;
+    }
+
+    /**
+     * 一个方法的分派：通知链（未被增强时为 null）、调用目标方法的方式
+     */
+    private static final class MethodDispatch {
 
+        private final AdviceChain chain;
+
+        private final MethodInvoker invoker;
+
+        MethodDispatch(AdviceChain chain, MethodInvoker invoker) {
+            this.chain = chain;
+            this.invoker = invoker;
+        }
+    }
 }
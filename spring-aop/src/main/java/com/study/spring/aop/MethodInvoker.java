@@ -0,0 +1,56 @@
+package com.study.spring.aop;
+
+import net.sf.cglib.proxy.MethodProxy;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+
+/**
+ * @InterfaceName MethodInvoker
+ * @Description 通知链末端调用目标方法的方式，每个被增强的方法确定一次，之后每次调用直接使用
+ * @Author liqiang
+ * @Date 2025-10-25 14:10
+ */
+public interface MethodInvoker {
+
+    Object invoke(Object target, Object[] args) throws Throwable;
+
+    /**
+     * 有 MethodProxy（CGLIB 代理）时通过它调用，否则反射调用
+     */
+    static MethodInvoker forMethod(Method method, MethodProxy methodProxy) {
+        if (methodProxy != null) {
+            return methodProxy::invoke;
+        }
+        return method::invoke;
+    }
+
+    /**
+     * 把方法解析成 MethodHandle，参数数组展开后调用，目标方法抛出的异常原样抛出。
+     * 方法不能通过 MethodHandle 访问时退回反射调用，并解开 InvocationTargetException
+     */
+    static MethodInvoker forMethodHandle(Method method) {
+        try {
+            if (!Modifier.isPublic(method.getModifiers()) || !Modifier.isPublic(method.getDeclaringClass().getModifiers())) {
+                method.setAccessible(true);
+            }
+            int arity = method.getParameterCount() + 1;
+            MethodHandle invoker = MethodHandles.lookup().unreflect(method)
+                    .asType(MethodType.genericMethodType(arity))
+                    .asSpreader(Object[].class, arity - 1);
+            return (target, args) -> invoker.invokeExact(target, args);
+        } catch (IllegalAccessException | RuntimeException e) {
+            return (target, args) -> {
+                try {
+                    return method.invoke(target, args);
+                } catch (InvocationTargetException ex) {
+                    throw ex.getTargetException();
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package com.study.spring.aop.advice;
+
+import com.study.spring.aop.AopAdviceChainInvocation;
+import com.study.spring.aop.exception.AopConfigException;
+import lombok.extern.slf4j.Slf4j;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * @ClassName AsyncAdvice
+ * @Description 异步执行通知：把被增强方法的执行（通知链中在它之后的通知及目标方法）交给执行器，调用线程立即返回。
+ *              方法返回 void 时不关心结果，异常只记录日志；返回 Future、CompletionStage 或 CompletableFuture 时，
+ *              返回一个 CompletableFuture，在目标方法返回的 Future 完成时以同样的结果完成。其他返回类型不能异步执行。
+ *              执行器一般是通过构造参数注入的执行器Bean，见 {@link AsyncExecutors}；未指定时使用 ForkJoinPool.commonPool()
+ * @Author liqiang
+ * @Date 2025/10/31 16:30
+ */
+@Slf4j
+public class AsyncAdvice implements MethodInterceptor {
+
+    private final Executor executor;
+
+    public AsyncAdvice() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    public AsyncAdvice(Executor executor) {
+        this.executor = executor;
+    }
+
+    /**
+     * 方法的返回类型能否异步执行：只能是 void、Future、CompletionStage 或 CompletableFuture，
+     * Object 等其他可以接收 CompletableFuture 的类型不算
+     */
+    public static boolean isAsyncReturnType(Class<?> returnType) {
+        return returnType == void.class || returnType == Future.class || returnType == CompletionStage.class
+                || returnType == CompletableFuture.class;
+    }
+
+    /**
+     * 作为环绕通知执行时，method 和 target 是通知链的 invoke 方法和"继续执行"入口，被增强的方法从入口中获取
+     */
+    @Override
+    public Object invoke(Method method, Object[] args, Object target) throws Throwable {
+        AopAdviceChainInvocation invocation = (AopAdviceChainInvocation) target;
+        Method advisedMethod = invocation.getMethod();
+        Class<?> returnType = advisedMethod.getReturnType();
+        if (!isAsyncReturnType(returnType)) {
+            throw new AopConfigException("异步执行的方法只能返回 void 或 Future：" + advisedMethod);
+        }
+        if (returnType == void.class) {
+            this.executor.execute(() -> {
+                try {
+                    invocation.invoke();
+                } catch (Throwable e) {
+                    log.error("异步执行{}失败", advisedMethod, e);
+                }
+            });
+            return null;
+        }
+        CompletableFuture<Object> result = new CompletableFuture<>();
+        this.executor.execute(() -> {
+            try {
+                complete(result, invocation.invoke());
+            } catch (Throwable e) {
+                result.completeExceptionally(e);
+            }
+        });
+        return result;
+    }
+
+    /**
+     * 用目标方法返回的 Future 完成返回给调用方的 CompletableFuture
+     */
+    private static void complete(CompletableFuture<Object> result, Object returnValue) throws InterruptedException {
+        if (returnValue instanceof CompletionStage) {
+            ((CompletionStage<?>) returnValue).whenComplete((value, e) -> {
+                if (e == null) {
+                    result.complete(value);
+                } else {
+                    result.completeExceptionally(e instanceof CompletionException && e.getCause() != null ? e.getCause() : e);
+                }
+            });
+        } else if (returnValue instanceof Future) {
+            try {
+                result.complete(((Future<?>) returnValue).get());
+            } catch (ExecutionException e) {
+                result.completeExceptionally(e.getCause());
+            }
+        } else {
+            result.complete(returnValue);
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.study.spring.aop.advice;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * @ClassName AsyncExecutors
+ * @Description 异步通知常用的执行器，一般作为 @Bean 工厂方法的返回值注册成执行器Bean，再由 @Async("Bean名称") 引用：
+ *              有界线程池（队列满时由调用线程执行，起到限流作用）、工作窃取线程池、虚拟线程执行器。
+ *              项目按 Java 8 编译，虚拟线程执行器通过反射创建，运行在不支持虚拟线程的 JDK 上时退回为每个任务一个线程的线程池
+ * @Author liqiang
+ * @Date 2025/10/31 16:10
+ */
+@Slf4j
+public final class AsyncExecutors {
+
+    // JDK 21+ 的 Executors.newVirtualThreadPerTaskExecutor()，不支持时为 null
+    private static final Method VIRTUAL_THREAD_FACTORY_METHOD = findVirtualThreadFactoryMethod();
+
+    private AsyncExecutors() {
+    }
+
+    /**
+     * 有界线程池：固定 poolSize 个线程，空闲 60 秒后回收，队列最多 queueCapacity 个任务，满了由调用线程执行
+     */
+    public static ExecutorService bounded(String threadNamePrefix, int poolSize, int queueCapacity) {
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(poolSize, poolSize, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), new NamedThreadFactory(threadNamePrefix), new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    /**
+     * 工作窃取线程池，适合计算密集、会再拆分子任务的方法
+     */
+    public static ExecutorService workStealing(int parallelism) {
+        return Executors.newWorkStealingPool(parallelism);
+    }
+
+    /**
+     * 虚拟线程执行器，每个任务一个虚拟线程，适合大量阻塞 IO 的方法。JDK 不支持时每个任务一个平台线程
+     */
+    public static ExecutorService virtualThreads(String threadNamePrefix) {
+        if (VIRTUAL_THREAD_FACTORY_METHOD != null) {
+            try {
+                return (ExecutorService) VIRTUAL_THREAD_FACTORY_METHOD.invoke(null);
+            } catch (ReflectiveOperationException e) {
+                log.warn("创建虚拟线程执行器失败，改用平台线程：{}", e.toString());
+            }
+        }
+        return Executors.newCachedThreadPool(new NamedThreadFactory(threadNamePrefix));
+    }
+
+    /**
+     * 当前 JDK 是否支持虚拟线程
+     */
+    public static boolean isVirtualThreadsSupported() {
+        return VIRTUAL_THREAD_FACTORY_METHOD != null;
+    }
+
+    private static Method findVirtualThreadFactoryMethod() {
+        try {
+            return Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+        } catch (NoSuchMethodException e) {
+            return null;
+        }
+    }
+
+    /**
+     * 按前缀加序号命名的守护线程，不会阻止 JVM 退出
+     */
+    private static final class NamedThreadFactory implements ThreadFactory {
+
+        private final String prefix;
+
+        private final AtomicInteger counter = new AtomicInteger();
+
+        NamedThreadFactory(String prefix) {
+            this.prefix = prefix;
+        }
+
+        @Override
+        public Thread newThread(Runnable task) {
+            Thread thread = new Thread(task, this.prefix + this.counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
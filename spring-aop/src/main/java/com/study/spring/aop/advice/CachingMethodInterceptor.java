@@ -0,0 +1,412 @@
+package com.study.spring.aop.advice;
+
+import com.study.spring.aop.AopAdviceChainInvocation;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.Method;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * @ClassName CachingMethodInterceptor
+ * @Description 缓存通知：以目标对象、被增强的方法加参数为键缓存方法的返回值（包括 null），相同参数再次调用时直接返回，不再执行目标方法。
+ *              作为普通的环绕通知使用，由 AspectJPointcutAdvisor 的切点选择要缓存的方法，只适合幂等的方法；
+ *              返回 void 的方法不缓存，抛出异常时不缓存。
+ *              <p>
+ *              每个方法一个缓存区域，各自最多缓存 maximumSize 个结果。目标对象按引用作为键的一部分：
+ *              JDK 代理拿到的是接口方法，同一接口（或同一类）的不同Bean不能共用结果；
+ *              原型Bean的目标对象只被它的缓存条目引用，随条目淘汰、过期释放，区域个数不随Bean个数增长。
+ *              读取不加锁，只在条目上记录访问时间；
+ *              写入后超过上限时由一个线程淘汰最久未访问的条目（近似 LRU），一次淘汰到上限的 90%，分摊排序的开销。
+ *              设置了 TTL 时，写入超过 TTL 的条目读取时视为未命中并删除，淘汰时也一并清除。
+ *              同一个键并发未命中时只有先放入条目的线程执行目标方法，其他线程等待它的结果（计为命中）；
+ *              执行抛出异常时删除条目，等待的线程收到同样的异常。同一线程递归调用同一个键时直接执行，不等待自己。
+ *              <p>
+ *              每个区域统计命中、未命中、淘汰、过期次数，见 {@link #getStats()}
+ * @Author liqiang
+ * @Date 2025/11/01 10:20
+ */
+public class CachingMethodInterceptor implements MethodInterceptor {
+
+    private static final int DEFAULT_MAXIMUM_SIZE = 1000;
+
+    // 每个区域的缓存上限
+    private final int maximumSize;
+
+    // 写入后的存活时间（纳秒），0 表示不过期
+    private final long ttlNanos;
+
+    // 方法 -> 缓存区域
+    private final Map<Method, CacheRegion> regions = new ConcurrentHashMap<>(32);
+
+    public CachingMethodInterceptor() {
+        this(DEFAULT_MAXIMUM_SIZE, 0L);
+    }
+
+    public CachingMethodInterceptor(int maximumSize) {
+        this(maximumSize, 0L);
+    }
+
+    /**
+     * @param maximumSize 每个方法最多缓存的结果个数
+     * @param ttlMillis   写入后的存活时间（毫秒），小于等于 0 时不过期
+     */
+    public CachingMethodInterceptor(int maximumSize, long ttlMillis) {
+        if (maximumSize <= 0) {
+            throw new IllegalArgumentException("缓存上限必须大于0：" + maximumSize);
+        }
+        this.maximumSize = maximumSize;
+        this.ttlNanos = ttlMillis > 0 ? TimeUnit.MILLISECONDS.toNanos(ttlMillis) : 0L;
+    }
+
+    /**
+     * 作为环绕通知执行时，method 和 target 是通知链的 invoke 方法和"继续执行"入口，被增强的方法和参数从入口中获取
+     */
+    @Override
+    public Object invoke(Method method, Object[] args, Object target) throws Throwable {
+        AopAdviceChainInvocation invocation = (AopAdviceChainInvocation) target;
+        Method advisedMethod = invocation.getMethod();
+        if (advisedMethod.getReturnType() == void.class) {
+            return invocation.invoke();
+        }
+        CacheRegion region = this.regions.get(advisedMethod);
+        if (region == null) {
+            region = this.regions.computeIfAbsent(advisedMethod, m -> new CacheRegion());
+        }
+        return region.get(new ArgumentsKey(invocation.getTarget(), invocation.getArgs()), invocation);
+    }
+
+    /**
+     * 各方法缓存区域的统计
+     */
+    public Map<Method, CacheStats> getStats() {
+        Map<Method, CacheStats> stats = new HashMap<>(this.regions.size());
+        this.regions.forEach((method, region) -> stats.put(method, region.stats()));
+        return stats;
+    }
+
+    /**
+     * 方法缓存区域的统计，方法还没有被调用过时各项为 0。JDK 代理的方法是接口方法
+     */
+    public CacheStats getStats(Method method) {
+        CacheRegion region = this.regions.get(method);
+        return region == null ? new CacheStats(0, 0, 0, 0, 0) : region.stats();
+    }
+
+    /**
+     * 清空所有缓存，统计不清零
+     */
+    public void clear() {
+        this.regions.values().forEach(region -> region.entries.clear());
+    }
+
+    /**
+     * 一个方法的缓存区域
+     */
+    private final class CacheRegion {
+
+        private final ConcurrentHashMap<ArgumentsKey, CacheEntry> entries = new ConcurrentHashMap<>(16);
+
+        // 同一时间只有一个线程淘汰，其他写入线程不等待
+        private final ReentrantLock evictionLock = new ReentrantLock();
+
+        private final LongAdder hits = new LongAdder();
+
+        private final LongAdder misses = new LongAdder();
+
+        private final LongAdder evictions = new LongAdder();
+
+        private final LongAdder expirations = new LongAdder();
+
+        /**
+         * 读取不加锁，命中时记录访问时间并返回（或等待）结果，过期的条目删除后按未命中处理。
+         * 未命中时先放入未完成的条目占位，放入成功的线程执行目标方法，其他线程等待它完成
+         */
+        Object get(ArgumentsKey key, AopAdviceChainInvocation invocation) throws Throwable {
+            CacheEntry pending = null;
+            while (true) {
+                CacheEntry entry = this.entries.get(key);
+                if (entry != null) {
+                    long now = System.nanoTime();
+                    if (!isExpired(entry, now)) {
+                        if (entry.owner == Thread.currentThread()) {
+                            // 目标方法递归调用同一个键，等待自己会死锁
+                            return invocation.invoke();
+                        }
+                        entry.accessTime = now;
+                        this.hits.increment();
+                        return entry.await();
+                    }
+                    if (this.entries.remove(key, entry)) {
+                        this.expirations.increment();
+                    }
+                    continue;
+                }
+                if (pending == null) {
+                    pending = new CacheEntry(Thread.currentThread());
+                }
+                // 数组参数可能被调用方修改，写入时深复制
+                if (this.entries.putIfAbsent(key.copy(), pending) == null) {
+                    break;
+                }
+            }
+            this.misses.increment();
+            Object value;
+            try {
+                value = invocation.invoke();
+            } catch (Throwable e) {
+                this.entries.remove(key, pending);
+                pending.fail(e);
+                throw e;
+            }
+            pending.complete(value, System.nanoTime());
+            if (this.entries.size() > maximumSize) {
+                this.evict();
+            }
+            return value;
+        }
+
+        /**
+         * 先清除过期的条目，仍超过上限时按访问时间从早到晚淘汰，直到上限的 90%
+         */
+        private void evict() {
+            if (!this.evictionLock.tryLock()) {
+                return;
+            }
+            try {
+                long now = System.nanoTime();
+                List<EvictionCandidate> candidates = new ArrayList<>(this.entries.size());
+                for (Map.Entry<ArgumentsKey, CacheEntry> e : this.entries.entrySet()) {
+                    CacheEntry entry = e.getValue();
+                    if (!entry.result.isDone()) {
+                        // 正在执行的条目不淘汰
+                        continue;
+                    }
+                    if (isExpired(entry, now)) {
+                        if (this.entries.remove(e.getKey(), entry)) {
+                            this.expirations.increment();
+                        }
+                    } else {
+                        candidates.add(new EvictionCandidate(e.getKey(), entry));
+                    }
+                }
+                int excess = this.entries.size() - (maximumSize - maximumSize / 10);
+                if (excess <= 0) {
+                    return;
+                }
+                candidates.sort(Comparator.comparingLong(candidate -> candidate.accessTime));
+                for (int i = 0; i < candidates.size() && excess > 0; i++) {
+                    EvictionCandidate candidate = candidates.get(i);
+                    if (this.entries.remove(candidate.key, candidate.entry)) {
+                        this.evictions.increment();
+                        excess--;
+                    }
+                }
+            } finally {
+                this.evictionLock.unlock();
+            }
+        }
+
+        CacheStats stats() {
+            return new CacheStats(this.hits.sum(), this.misses.sum(), this.evictions.sum(), this.expirations.sum(), this.entries.size());
+        }
+    }
+
+    /**
+     * 正在执行的条目不过期
+     */
+    private boolean isExpired(CacheEntry entry, long now) {
+        return this.ttlNanos > 0 && entry.owner == null && now - entry.writeTime >= this.ttlNanos;
+    }
+
+    /**
+     * 缓存的结果。创建时未完成，由执行目标方法的线程完成，其他线程等待
+     */
+    private static final class CacheEntry {
+
+        private final CompletableFuture<Object> result = new CompletableFuture<>();
+
+        // 执行目标方法的线程，完成后置为 null
+        private volatile Thread owner;
+
+        private volatile long writeTime;
+
+        // 最后访问时间，读取时不加锁更新
+        private volatile long accessTime;
+
+        CacheEntry(Thread owner) {
+            this.owner = owner;
+            this.accessTime = System.nanoTime();
+        }
+
+        void complete(Object value, long writeTime) {
+            this.writeTime = writeTime;
+            this.accessTime = writeTime;
+            this.owner = null;
+            this.result.complete(value);
+        }
+
+        void fail(Throwable e) {
+            this.owner = null;
+            this.result.completeExceptionally(e);
+        }
+
+        /**
+         * 获取结果，未完成时等待；目标方法抛出的异常原样抛出
+         */
+        Object await() throws Throwable {
+            try {
+                return this.result.get();
+            } catch (ExecutionException e) {
+                throw e.getCause();
+            }
+        }
+    }
+
+    /**
+     * 淘汰时的候选条目，访问时间取快照，排序过程中不会变化
+     */
+    private static final class EvictionCandidate {
+
+        private final ArgumentsKey key;
+
+        private final CacheEntry entry;
+
+        private final long accessTime;
+
+        EvictionCandidate(ArgumentsKey key, CacheEntry entry) {
+            this.key = key;
+            this.entry = entry;
+            this.accessTime = entry.accessTime;
+        }
+    }
+
+    /**
+     * 缓存键：目标对象加方法参数。目标对象按引用比较，不调用它的 equals/hashCode；参数按数组内容比较。
+     * 写入时参数数组及其中的数组参数（包括多维数组）深复制，
+     * 其他参数按引用保存，调用方修改它们的内容后可能查不到或查错，应只缓存参数不可变的方法
+     */
+    private static final class ArgumentsKey {
+
+        private static final Object[] NO_ARGS = new Object[0];
+
+        private final Object target;
+
+        private final Object[] args;
+
+        private final int hashCode;
+
+        ArgumentsKey(Object target, Object[] args) {
+            this.target = target;
+            this.args = args == null ? NO_ARGS : args;
+            this.hashCode = 31 * System.identityHashCode(target) + Arrays.deepHashCode(this.args);
+        }
+
+        ArgumentsKey copy() {
+            return this.args.length == 0 ? this : new ArgumentsKey(this.target, deepCopy(this.args));
+        }
+
+        /**
+         * 复制数组，元素是数组时递归复制，基本类型数组直接 clone
+         */
+        private static Object[] deepCopy(Object[] array) {
+            Object[] copy = array.clone();
+            for (int i = 0; i < copy.length; i++) {
+                Object element = copy[i];
+                if (element instanceof Object[]) {
+                    copy[i] = deepCopy((Object[]) element);
+                } else if (element != null && element.getClass().isArray()) {
+                    copy[i] = cloneArray(element);
+                }
+            }
+            return copy;
+        }
+
+        private static Object cloneArray(Object array) {
+            int length = Array.getLength(array);
+            Object copy = Array.newInstance(array.getClass().getComponentType(), length);
+            System.arraycopy(array, 0, copy, 0, length);
+            return copy;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof ArgumentsKey)) {
+                return false;
+            }
+            ArgumentsKey other = (ArgumentsKey) obj;
+            return this.target == other.target && Arrays.deepEquals(this.args, other.args);
+        }
+
+        @Override
+        public int hashCode() {
+            return this.hashCode;
+        }
+    }
+
+    /**
+     * 一个缓存区域的统计快照
+     */
+    public static final class CacheStats {
+
+        private final long hits;
+
+        private final long misses;
+
+        private final long evictions;
+
+        private final long expirations;
+
+        private final int size;
+
+        CacheStats(long hits, long misses, long evictions, long expirations, int size) {
+            this.hits = hits;
+            this.misses = misses;
+            this.evictions = evictions;
+            this.expirations = expirations;
+            this.size = size;
+        }
+
+        public long getHits() {
+            return hits;
+        }
+
+        public long getMisses() {
+            return misses;
+        }
+
+        public long getEvictions() {
+            return evictions;
+        }
+
+        public long getExpirations() {
+            return expirations;
+        }
+
+        public int getSize() {
+            return size;
+        }
+
+        /**
+         * 命中率，没有调用过时为 0
+         */
+        public double getHitRate() {
+            long requests = this.hits + this.misses;
+            return requests == 0 ? 0.0 : (double) this.hits / requests;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("hits=%d, misses=%d, hitRate=%.2f%%, evictions=%d, expirations=%d, size=%d",
+                    this.hits, this.misses, this.getHitRate() * 100, this.evictions, this.expirations, this.size);
+        }
+    }
+}
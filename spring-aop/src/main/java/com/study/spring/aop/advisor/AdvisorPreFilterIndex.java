@@ -0,0 +1,209 @@
+package com.study.spring.aop.advisor;
+
+import com.study.spring.aop.pointcut.AspectJExpressionPointcut;
+import org.springframework.util.ClassUtils;
+
+import java.lang.reflect.Method;
+import java.util.*;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * @ClassName AdvisorPreFilterIndex
+ * @Description Advisor 预筛选索引：对所有 Advisor 只建一次，从 execution 表达式中静态取出类型、包、方法名前缀，
+ *              Bean 只需与预筛选通过的 Advisor 做完整的切点匹配。
+ *              例如 execution(* com.study.service..*.find*(..)) 只作为 com.study.service 及其子包中的类、且有 find 开头方法的 Bean 的候选；
+ *              取不出这些信息的表达式（组合表达式、其他切点类型等）对所有 Bean 都是候选。
+ *              类型、包按 Bean 的类、父类及所有接口判断，因为 execution 也匹配父类型中声明的方法
+ * @Author liqiang
+ * @Date 2025/10/28 14:30
+ */
+public class AdvisorPreFilterIndex {
+
+    private static final Pattern EXECUTION = Pattern.compile("^execution\\s*\\((.*)\\)$", Pattern.DOTALL);
+
+    // 完整类名（内部类用 . 分隔） -> Advisor
+    private final Map<String, List<Entry>> byTypeName = new HashMap<>();
+
+    // 包名 -> 只匹配该包中的类的 Advisor（pkg.*）
+    private final Map<String, List<Entry>> byPackage = new HashMap<>();
+
+    // 包名 -> 匹配该包及子包中的类的 Advisor（pkg..*）
+    private final Map<String, List<Entry>> byPackageTree = new HashMap<>();
+
+    // 类型不限的 Advisor
+    private final List<Entry> anyType = new ArrayList<>();
+
+    private final int size;
+
+    public AdvisorPreFilterIndex(List<Advisor> advisors) {
+        this.size = advisors.size();
+        for (int i = 0; i < advisors.size(); i++) {
+            this.index(advisors.get(i), i);
+        }
+    }
+
+    /**
+     * 获取预筛选通过的 Advisor，保持原有顺序
+     *
+     * @param beanClass Bean的类
+     * @param methods   Bean的类及接口中的方法
+     */
+    public List<Advisor> getCandidateAdvisors(Class<?> beanClass, Collection<Method> methods) {
+        if (this.size == 0) {
+            return Collections.emptyList();
+        }
+        List<Entry> entries = new ArrayList<>(this.anyType);
+        // 类型所在的包；内部类再加上外部类的完整类名（表达式中内部类也用 . 分隔）
+        Set<String> packages = new HashSet<>();
+        for (Class<?> type : getTypeHierarchy(beanClass)) {
+            String typeName = typeName(type);
+            addAll(entries, this.byTypeName.get(typeName));
+            packages.add(ClassUtils.getPackageName(type));
+            packages.add(parentPackage(typeName));
+        }
+        for (String packageName : packages) {
+            addAll(entries, this.byPackage.get(packageName));
+            // 包及所有上级包
+            for (String pkg = packageName; !pkg.isEmpty(); pkg = parentPackage(pkg)) {
+                addAll(entries, this.byPackageTree.get(pkg));
+            }
+        }
+
+        NavigableSet<String> methodNames = null;
+        BitSet seen = new BitSet(this.size);
+        List<Entry> candidates = new ArrayList<>();
+        for (Entry entry : entries) {
+            if (seen.get(entry.order)) {
+                continue;
+            }
+            seen.set(entry.order);
+            if (!entry.methodNamePrefix.isEmpty()) {
+                if (methodNames == null) {
+                    methodNames = new TreeSet<>();
+                    for (Method method : methods) {
+                        methodNames.add(method.getName());
+                    }
+                }
+                String name = methodNames.ceiling(entry.methodNamePrefix);
+                if (name == null || !name.startsWith(entry.methodNamePrefix)) {
+                    continue;
+                }
+            }
+            candidates.add(entry);
+        }
+
+        candidates.sort(Comparator.comparingInt(e -> e.order));
+        List<Advisor> result = new ArrayList<>(candidates.size());
+        for (Entry entry : candidates) {
+            result.add(entry.advisor);
+        }
+        return result;
+    }
+
+    private void index(Advisor advisor, int order) {
+        String expression = null;
+        if (advisor instanceof PointcutAdvisor && ((PointcutAdvisor) advisor).getPointcut() instanceof AspectJExpressionPointcut) {
+            expression = ((AspectJExpressionPointcut) ((PointcutAdvisor) advisor).getPointcut()).getExpression();
+        }
+        Matcher matcher = expression == null ? null : EXECUTION.matcher(expression.trim());
+        if (matcher == null || !matcher.matches() || expression.contains("&&") || expression.contains("||") || expression.contains("!")) {
+            this.anyType.add(new Entry(advisor, order, ""));
+            return;
+        }
+        String body = matcher.group(1);
+        int paramsStart = body.indexOf('(');
+        String head = paramsStart < 0 ? null : body.substring(0, paramsStart).trim();
+        if (head == null || head.indexOf('@') >= 0 || head.indexOf(')') >= 0) {
+            this.anyType.add(new Entry(advisor, order, ""));
+            return;
+        }
+        // 返回类型之后的 "声明类型.方法名"
+        String declaringAndName = head.substring(head.lastIndexOf(' ') + 1);
+        int dot = declaringAndName.lastIndexOf('.');
+        String typePattern = dot < 0 ? "*" : declaringAndName.substring(0, dot);
+        String namePattern = declaringAndName.substring(dot + 1);
+        int star = namePattern.indexOf('*');
+        Entry entry = new Entry(advisor, order, star < 0 ? namePattern : namePattern.substring(0, star));
+
+        if (typePattern.endsWith("+")) {
+            // 子类型：按类层次判断，与类型名相同
+            typePattern = typePattern.substring(0, typePattern.length() - 1);
+        }
+        if (typePattern.endsWith(".")) {
+            // com.study..find*(..)：包及子包中的类型
+            add(this.byPackageTree, trimDots(typePattern), entry);
+        } else if (typePattern.endsWith("..*") && isPlainName(typePattern.substring(0, typePattern.length() - 3))) {
+            add(this.byPackageTree, typePattern.substring(0, typePattern.length() - 3), entry);
+        } else if (typePattern.endsWith(".*") && isPlainName(typePattern.substring(0, typePattern.length() - 2))) {
+            add(this.byPackage, typePattern.substring(0, typePattern.length() - 2), entry);
+        } else if (isPlainName(typePattern)) {
+            add(this.byTypeName, typePattern, entry);
+        } else {
+            this.anyType.add(entry);
+        }
+    }
+
+    /**
+     * 没有通配符的名称
+     */
+    private static boolean isPlainName(String name) {
+        return !name.isEmpty() && name.indexOf('*') < 0 && !name.contains("..");
+    }
+
+    private static String trimDots(String name) {
+        int end = name.length();
+        while (end > 0 && name.charAt(end - 1) == '.') {
+            end--;
+        }
+        return name.substring(0, end);
+    }
+
+    private static String parentPackage(String packageName) {
+        int dot = packageName.lastIndexOf('.');
+        return dot < 0 ? "" : packageName.substring(0, dot);
+    }
+
+    private static String typeName(Class<?> type) {
+        return type.getName().replace('$', '.');
+    }
+
+    /**
+     * 类、所有父类、所有接口
+     */
+    private static Set<Class<?>> getTypeHierarchy(Class<?> beanClass) {
+        Set<Class<?>> types = new LinkedHashSet<>();
+        for (Class<?> type = beanClass; type != null; type = type.getSuperclass()) {
+            types.add(type);
+        }
+        types.addAll(ClassUtils.getAllInterfacesForClassAsSet(beanClass));
+        return types;
+    }
+
+    private static void add(Map<String, List<Entry>> index, String key, Entry entry) {
+        index.computeIfAbsent(key, k -> new ArrayList<>()).add(entry);
+    }
+
+    private static void addAll(List<Entry> entries, List<Entry> toAdd) {
+        if (toAdd != null) {
+            entries.addAll(toAdd);
+        }
+    }
+
+    private static final class Entry {
+
+        private final Advisor advisor;
+
+        // 在 Advisor 列表中的下标
+        private final int order;
+
+        // 方法名前缀，空串表示不限
+        private final String methodNamePrefix;
+
+        Entry(Advisor advisor, int order, String methodNamePrefix) {
+            this.advisor = advisor;
+            this.order = order;
+            this.methodNamePrefix = methodNamePrefix;
+        }
+    }
+}
@@ -64,6 +64,11 @@ public interface BeanDefinition {
      */
     boolean isPrimary();
 
+    /**
+     * 创建AOP代理时是否代理目标类（生成子类），而不是只代理接口
+     */
+    boolean isProxyTargetClass();
+
 
     /**
      * 验证bean定义的合法性
@@ -112,4 +117,11 @@ public interface BeanDefinition {
     public Object[] getConstructorArgumentRealValues();
 
     public void setConstructorArgumentRealValues(Object[] values);
+
+    /**
+     * 解析好的Bean类型（工厂方法的返回值类型等），未解析时为 null
+     */
+    public Class<?> getResolvedType();
+
+    public void setResolvedType(Class<?> resolvedType);
 }
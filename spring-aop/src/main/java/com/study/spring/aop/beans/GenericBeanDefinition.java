@@ -33,6 +33,8 @@ public class GenericBeanDefinition implements BeanDefinition {
 
     private boolean primary;
 
+    private boolean proxyTargetClass;
+
     private Constructor<?> constructor;
 
     private Method factoryMethod;
@@ -43,6 +45,8 @@ public class GenericBeanDefinition implements BeanDefinition {
 
     private ThreadLocal<Object[]> realConstructorArgumentValues = new ThreadLocal<>();
 
+    private volatile Class<?> resolvedType;
+
     @Override
     public Class<?> getBeanClass() {
         return this.beanClass;
@@ -60,7 +64,7 @@ public class GenericBeanDefinition implements BeanDefinition {
 
     @Override
     public boolean isPrototype() {
-        return SCOPE_SINGLETON.equals(this.scope);
+        return SCOPE_PROTOTYPE.equals(this.scope);
     }
 
     @Override
@@ -88,6 +92,11 @@ public class GenericBeanDefinition implements BeanDefinition {
         return this.primary;
     }
 
+    @Override
+    public boolean isProxyTargetClass() {
+        return this.proxyTargetClass;
+    }
+
     @Override
     public List<?> getConstructorArgumentValues() {
         return constructorArgumentValues;
@@ -137,6 +146,16 @@ public class GenericBeanDefinition implements BeanDefinition {
         realConstructorArgumentValues.set(values);
     }
 
+    @Override
+    public Class<?> getResolvedType() {
+        return resolvedType;
+    }
+
+    @Override
+    public void setResolvedType(Class<?> resolvedType) {
+        this.resolvedType = resolvedType;
+    }
+
 
     @Override
     public int hashCode() {
@@ -0,0 +1,20 @@
+package com.study.spring.aop.beans;
+
+import java.util.Map;
+
+/**
+ * @ClassName TypePreparingBeanPostProcessor
+ * @Description 可以在创建Bean之前，按所有Bean的类型提前做准备工作的 BeanPostProcessor，
+ *              例如自动代理提前计算每个类匹配的Advisor、生成代理类，之后处理每个Bean时直接使用准备好的结果
+ * @Author liqiang
+ * @Date 2025/10/29 10:10
+ */
+public interface TypePreparingBeanPostProcessor extends BeanPostProcessor {
+
+    /**
+     * 类型映射注册完成、预实例化单例之前调用
+     *
+     * @param beanTypes Bean名称 -> Bean的类型
+     */
+    void prepareBeanTypes(Map<String, Class<?>> beanTypes) throws Throwable;
+}
@@ -3,6 +3,7 @@ package com.study.spring.aop.beans.factory;
 
 import com.study.spring.aop.beans.BeanPostProcessor;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 
@@ -16,6 +17,24 @@ public interface BeanFactory {
 
     Object getBean(String beanName) throws Throwable;
 
+    /**
+     * 批量获取Bean：原型Bean一次创建 count 个实例，单例Bean返回 count 个同一实例
+     */
+    default List<Object> getBeans(String beanName, int count) throws Throwable {
+        List<Object> beans = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            beans.add(this.getBean(beanName));
+        }
+        return beans;
+    }
+
+    /**
+     * 是否为单例Bean，可以是别名
+     *
+     * @throws Exception 没有该名称的Bean定义
+     */
+    boolean isSingleton(String beanName) throws Exception;
+
     <T> T getBean(Class<T> type) throws Throwable;
 
     <T> Map<String,T> getBeansOfType(Class<T> type)throws Throwable;
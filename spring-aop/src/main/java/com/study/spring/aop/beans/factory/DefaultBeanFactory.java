@@ -3,22 +3,24 @@ package com.study.spring.aop.beans.factory;
 import com.study.spring.aop.beans.BeanDefinition;
 import com.study.spring.aop.beans.BeanPostProcessor;
 import com.study.spring.aop.beans.BeanReference;
-import com.study.spring.aop.beans.PropertyValue;
+import com.study.spring.aop.beans.TypePreparingBeanPostProcessor;
 import com.study.spring.aop.beans.aware.BeanFactoryAware;
+import com.study.spring.aop.beans.instantiation.InstantiationStrategy;
+import com.study.spring.aop.beans.instantiation.ReflectiveInstantiationStrategy;
 import com.study.spring.aop.beans.registry.BeanDefinitionRegistry;
 import com.study.spring.aop.exception.BeanDefinitionRegistryException;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.collections4.CollectionUtils;
 import org.apache.commons.lang3.StringUtils;
+import org.springframework.util.ClassUtils;
 
 import java.io.Closeable;
 import java.io.IOException;
 import java.lang.reflect.Constructor;
-import java.lang.reflect.Field;
-import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * @ClassName DefaultBeanFactory
@@ -35,18 +37,57 @@ public class DefaultBeanFactory implements BeanFactory, BeanDefinitionRegistry,
     // 单例 Bean 缓存：Bean 名称 -> Bean 实例（仅缓存单例 Bean）
     private Map<String, Object> singletonBeanMap = new ConcurrentHashMap<>(256);
 
-    // 类型映射表：Class 类型 -> 对应的 Bean 名称集合
+    // 类型映射表：Class 类型 -> 对应的 Bean 名称集合，注册Bean定义时增量维护
     private Map<Class<?>, Set<String>> typeMap = new ConcurrentHashMap<>(256);
 
+    // 类型层次缓存：Class 类型 -> 该类型本身、父类（不含 Object）及所有接口
+    private final Map<Class<?>, Class<?>[]> typeHierarchyCache = new ConcurrentHashMap<>(256);
+
+    // 暂时无法确定类型的Bean（工厂Bean尚未注册）：工厂Bean名称 -> 依赖它的Bean名称
+    private final Map<String, Set<String>> pendingTypeRegistrations = new ConcurrentHashMap<>();
+
     // 别名映射表：别名 -> 原始名称
     protected final Map<String, String> aliasMap = new ConcurrentHashMap<>(256);
 
+    // 别名解析结果：别名 -> 沿别名链解析到的最终Bean名称，getBean(别名) 只需一次Map读取
+    private final Map<String, String> canonicalNames = new ConcurrentHashMap<>(256);
+
+    // 反向别名索引：名称 -> 直接指向它的别名
+    private final Map<String, Set<String>> aliasIndex = new ConcurrentHashMap<>(256);
+
     // 正在创建的 Bean 集合
     private ThreadLocal<Set<String>> buildingBeansRecordor = new ThreadLocal<>();
 
     // 提前曝光的 Bean 缓存：Bean 名称 -> Bean 实例（仅缓存单例 Bean）
     private ThreadLocal<Map<String, Object>> earlyExposeBuildingBeans = new ThreadLocal<>();
 
+    // 单例创建锁：Bean 名称 -> 该 Bean 专属的创建锁，创建单例时只阻塞在同名 Bean 上
+    private final Map<String, ReentrantLock> singletonCreationLocks = new ConcurrentHashMap<>(256);
+
+    // 正在创建单例的线程：Bean 名称 -> 持有其创建锁的线程
+    private final Map<String, Thread> singletonCreationOwners = new ConcurrentHashMap<>(256);
+
+    // 等待单例创建的线程：线程 -> 其正在等待的 Bean 名称（用于检测跨线程的循环等待）
+    private final Map<Thread, String> singletonCreationWaiters = new ConcurrentHashMap<>();
+
+    // 跨线程可见的提前曝光单例：Bean 名称 -> 尚未完成属性注入的单例实例
+    private final Map<String, Object> earlySingletonObjects = new ConcurrentHashMap<>(16);
+
+    // 实例化策略：通过构造方法/工厂方法创建实例的方式，默认反射调用
+    private volatile InstantiationStrategy instantiationStrategy = new ReflectiveInstantiationStrategy();
+
+    // 注入计划缓存：Bean 名称 -> 属性字段、初始化/销毁方法的句柄
+    private final Map<String, InjectionMetadata> injectionMetadataCache = new ConcurrentHashMap<>(256);
+
+    // 按类型获取Bean的解析结果缓存：类型 -> 目标Bean名称或歧义错误，Bean定义或类型映射变化时清空
+    private final Map<Class<?>, TypeResolution> typeResolutionCache = new ConcurrentHashMap<>(256);
+
+    // 原型Bean的创建配方：Bean 名称 -> 第一次创建后固化的创建过程
+    private final Map<String, PrototypeCreationRecipe> prototypeRecipes = new ConcurrentHashMap<>(64);
+
+    // Bean 创建耗时统计
+    private final StartupMetrics startupMetrics = new StartupMetrics();
+
     // Bean 处理器
     private List<BeanPostProcessor> beanPostProcessors = Collections.synchronizedList(new ArrayList<>());
 
@@ -54,6 +95,8 @@ public class DefaultBeanFactory implements BeanFactory, BeanDefinitionRegistry,
     @Override
     public void registerBeanPostProcessor(BeanPostProcessor bpp) {
         this.beanPostProcessors.add(bpp);
+        // 配方中固化了 BeanPostProcessor，需要重新生成
+        this.prototypeRecipes.clear();
         if (bpp instanceof BeanFactoryAware) {
             ((BeanFactoryAware) bpp).setBeanFactory(this);
         }
@@ -76,78 +119,188 @@ public class DefaultBeanFactory implements BeanFactory, BeanDefinitionRegistry,
         }
 
         this.beanDefinitionMap.put(beanName, beanDefinition);
+        // 增量维护类型映射
+        this.registerTypeMap(beanName);
+        if (!this.typeResolutionCache.isEmpty()) {
+            this.typeResolutionCache.clear();
+        }
     }
 
+    /**
+     * 注册所有Bean的类型映射。注册Bean定义时已增量维护，这里只需处理之前因工厂Bean未注册而无法确定类型的Bean
+     */
     public void registerTypeMap() throws BeanDefinitionRegistryException, NoSuchMethodException {
+        for (String factoryBeanName : new ArrayList<>(this.pendingTypeRegistrations.keySet())) {
+            Set<String> beanNames = this.pendingTypeRegistrations.remove(factoryBeanName);
+            if (beanNames == null) {
+                continue;
+            }
+            for (String beanName : beanNames) {
+                Class<?> type = this.getType(beanName);
+                if (type == null) {
+                    throw new BeanDefinitionRegistryException("名字为[" + beanName + "] 的bean的工厂bean[" + factoryBeanName + "]不存在");
+                }
+                this.registerTypeMap(beanName, type);
+            }
+        }
+        this.typeResolutionCache.clear();
+    }
+
+    /**
+     * 把所有Bean的类型交给 TypePreparingBeanPostProcessor 提前准备，在 registerTypeMap() 之后、创建Bean之前调用
+     */
+    public void prepareBeanTypes() throws Throwable {
+        List<TypePreparingBeanPostProcessor> preparers = new ArrayList<>();
+        for (BeanPostProcessor bpp : this.beanPostProcessors.toArray(new BeanPostProcessor[0])) {
+            if (bpp instanceof TypePreparingBeanPostProcessor) {
+                preparers.add((TypePreparingBeanPostProcessor) bpp);
+            }
+        }
+        if (preparers.isEmpty()) {
+            return;
+        }
+        Map<String, Class<?>> beanTypes = new LinkedHashMap<>(this.beanDefinitionMap.size() * 2);
         for (String beanName : this.beanDefinitionMap.keySet()) {
             Class<?> type = this.getType(beanName);
-            //映射本类
-            this.registerTypeMap(beanName, type);
-            //父类
-            this.registerSuperClassTypeMap(beanName, type);
-            //接口
-            this.registerInterfaceTypeMap(beanName, type);
+            if (type != null) {
+                beanTypes.put(beanName, type);
+            }
+        }
+        for (TypePreparingBeanPostProcessor preparer : preparers) {
+            preparer.prepareBeanTypes(Collections.unmodifiableMap(beanTypes));
         }
     }
 
     /**
-     * 注册类型映射
+     * 注册Bean定义时登记类型映射，类型暂时无法确定的（工厂Bean还未注册）等工厂Bean注册后再登记
      */
-    private void registerTypeMap(String beanName, Class<?> type) {
-        Set<String> names2type = this.typeMap.computeIfAbsent(type, k -> new HashSet<>());
-        names2type.add(beanName);
+    private void registerTypeMap(String beanName) {
+        Class<?> type = null;
+        try {
+            type = this.getType(beanName);
+        } catch (NoSuchMethodException e) {
+            // 留到 registerTypeMap() 时再报错
+            log.debug("暂时无法确定bean[{}]的类型", beanName, e);
+        }
+        if (type == null) {
+            BeanDefinition bd = this.getBeanDefinition(beanName);
+            String factoryBeanName = StringUtils.isNotBlank(bd.getFactoryBeanName()) ? resolveBeanName(bd.getFactoryBeanName()) : beanName;
+            this.pendingTypeRegistrations.computeIfAbsent(factoryBeanName, k -> ConcurrentHashMap.newKeySet()).add(beanName);
+            return;
+        }
+        this.registerTypeMap(beanName, type);
+
+        // 以该Bean为工厂Bean的Bean现在可以确定类型了
+        Set<String> dependents = this.pendingTypeRegistrations.remove(beanName);
+        if (dependents != null) {
+            for (String dependent : dependents) {
+                this.registerTypeMap(dependent);
+            }
+        }
     }
 
     /**
-     * 注册父类映射
+     * 注册类型映射：本类、父类及接口
      */
-    private void registerSuperClassTypeMap(String beanName, Class<?> type) {
-        Class<?> superClass = type.getSuperclass();
-        if (superClass != null && !superClass.equals(Object.class)) {
-            this.registerTypeMap(beanName, superClass);
-            //递归找父类
-            this.registerSuperClassTypeMap(beanName, superClass);
-            //找父类实现的接口注册
-            this.registerInterfaceTypeMap(beanName, superClass);
+    private void registerTypeMap(String beanName, Class<?> type) {
+        for (Class<?> t : this.getTypeHierarchy(type)) {
+            this.typeMap.computeIfAbsent(t, k -> ConcurrentHashMap.newKeySet()).add(beanName);
         }
-
     }
 
     /**
-     * 注册接口映射
+     * 获取类型层次：本类、父类（不含 Object）及父类实现的接口、所有父接口，每个类只计算一次
      */
-    private void registerInterfaceTypeMap(String beanName, Class<?> type) {
-        Class<?>[] interfaces = type.getInterfaces();
-        for (Class<?> anInterface : interfaces) {
-            //注册接口
-            this.registerTypeMap(beanName, anInterface);
-            //递归找父接口
-            this.registerInterfaceTypeMap(beanName, anInterface);
+    private Class<?>[] getTypeHierarchy(Class<?> type) {
+        Class<?>[] hierarchy = this.typeHierarchyCache.get(type);
+        if (hierarchy == null) {
+            Set<Class<?>> types = new LinkedHashSet<>();
+            types.add(type);
+            for (Class<?> c = type; c != null; c = c.getSuperclass()) {
+                if (c != type && !c.equals(Object.class)) {
+                    types.add(c);
+                }
+                collectInterfaces(c, types);
+            }
+            hierarchy = types.toArray(new Class<?>[0]);
+            this.typeHierarchyCache.put(type, hierarchy);
+        }
+        return hierarchy;
+    }
+
+    private static void collectInterfaces(Class<?> type, Set<Class<?>> types) {
+        for (Class<?> anInterface : type.getInterfaces()) {
+            //注册接口，递归找父接口
+            if (types.add(anInterface)) {
+                collectInterfaces(anInterface, types);
+            }
         }
     }
 
 
     @Override
     public Class<?> getType(String name) throws NoSuchMethodException {
-        BeanDefinition bd = this.getBeanDefinition(name);
-        Class<?> type = bd.getBeanClass();
+        BeanDefinition bd = this.getBeanDefinition(resolveBeanName(name));
+        if (bd == null) {
+            return null;
+        }
+        Class<?> type = bd.getResolvedType();
+        if (type != null) {
+            return type;
+        }
+        type = bd.getBeanClass();
         if (type != null) {
             if (StringUtils.isBlank(bd.getFactoryMethodName())) {
                 // 构造方法来构造对象的，Type就是beanClass,不需做什么。
             } else {
                 // 静态工厂方法方式的，反射获得Method,再获取Method的返回值类型
-                type = type.getDeclaredMethod(bd.getFactoryMethodName(),null).getReturnType();
+                type = this.getFactoryMethodReturnType(bd, type);
             }
         } else {
             // 工厂bean方式来构造对象的
             // 获得工厂Bean的Class
             type = this.getType(bd.getFactoryBeanName());
+            if (type == null) {
+                return null;
+            }
             // 再获得工厂方法的返回值类型
-            type = type.getDeclaredMethod(bd.getFactoryMethodName(),null).getReturnType();
+            type = this.getFactoryMethodReturnType(bd, type);
         }
+        bd.setResolvedType(type);
         return type;
     }
 
+    /**
+     * 工厂方法的返回值类型：已确定工厂方法的直接取，否则按方法名和参数个数查找
+     */
+    private Class<?> getFactoryMethodReturnType(BeanDefinition bd, Class<?> factoryClass) throws NoSuchMethodException {
+        if (bd.getFactoryMethod() != null) {
+            return bd.getFactoryMethod().getReturnType();
+        }
+        int argumentCount = CollectionUtils.isEmpty(bd.getConstructorArgumentValues()) ? 0 : bd.getConstructorArgumentValues().size();
+        for (Method m : factoryClass.getMethods()) {
+            if (m.getName().equals(bd.getFactoryMethodName()) && m.getParameterCount() == argumentCount) {
+                return m.getReturnType();
+            }
+        }
+        for (Class<?> c = factoryClass; c != null; c = c.getSuperclass()) {
+            for (Method m : c.getDeclaredMethods()) {
+                if (m.getName().equals(bd.getFactoryMethodName()) && m.getParameterCount() == argumentCount) {
+                    return m.getReturnType();
+                }
+            }
+        }
+        throw new NoSuchMethodException(factoryClass.getName() + "." + bd.getFactoryMethodName() + "，参数个数：" + argumentCount);
+    }
+
+    /**
+     * 获取类型映射表中该类型对应的Bean名称，没有时返回空集合
+     */
+    protected Set<String> getBeanNamesForType(Class<?> type) {
+        Set<String> names = this.typeMap.get(type);
+        return names != null ? names : Collections.emptySet();
+    }
+
     @Override
     public BeanDefinition getBeanDefinition(String beanName) {
         return this.beanDefinitionMap.get(beanName);
@@ -158,6 +311,11 @@ public class DefaultBeanFactory implements BeanFactory, BeanDefinitionRegistry,
         return this.beanDefinitionMap.containsKey(beanName);
     }
 
+    @Override
+    public String[] getBeanDefinitionNames() {
+        return this.beanDefinitionMap.keySet().toArray(new String[0]);
+    }
+
 
     @Override
     public Object getBean(String beanName) throws Throwable {
@@ -165,6 +323,16 @@ public class DefaultBeanFactory implements BeanFactory, BeanDefinitionRegistry,
     }
 
 
+    @Override
+    public boolean isSingleton(String name) throws Exception {
+        String beanName = resolveBeanName(name);
+        BeanDefinition beanDefinition = this.getBeanDefinition(beanName);
+        if (beanDefinition == null) {
+            throw new Exception("未找到名称为 '" + beanName + "' 的Bean定义");
+        }
+        return beanDefinition.isSingleton();
+    }
+
     @Override
     public <T> T getBean(Class<T> type) throws Throwable {
 		/*
@@ -175,42 +343,60 @@ public class DefaultBeanFactory implements BeanFactory, BeanDefinitionRegistry,
 		4 如果primary没有，或大于1个，抛出异常
 		5 返回Primary的实例
 		 */
-        Set<String> names = this.typeMap.get(type);
-        if(names != null) {
-            if(names.size() == 1){
-                return (T)this.getBean(names.iterator().next());
-            }
-            else {
-                //找Primary
-                BeanDefinition bd = null;
-                String primaryName = null;
-                StringBuilder nameStrings = new StringBuilder();
-                for(String name : names){
-                    bd = this.getBeanDefinition(name);
-                    if(bd != null && bd.isPrimary()) {
-                        if(primaryName != null){
-                            String mess = type + " 类型的Bean存储多个Primary[" + primaryName + "," + name + "]";
-                            log.error(mess);
-                            throw new Exception(mess);
-                        }
-                        else {
-                            primaryName = name;
-                        }
-                    }
-                    nameStrings.append(" " + name);
-                }
+        TypeResolution resolution = this.typeResolutionCache.get(type);
+        if (resolution != null && resolution.singleton != null) {
+            return (T) resolution.singleton;
+        }
+        if (resolution == null) {
+            resolution = this.resolveType(type);
+            this.typeResolutionCache.put(type, resolution);
+        }
+        if (resolution.errorMessage != null) {
+            log.error(resolution.errorMessage);
+            throw new Exception(resolution.errorMessage);
+        }
+        if (resolution.beanName == null) {
+            return null;
+        }
+        T bean = (T) this.getBean(resolution.beanName);
+        // 单例创建完成后直接缓存实例，之后按类型获取只需一次Map读取
+        if (bean != null && bean == this.singletonBeanMap.get(resolution.beanName)) {
+            resolution.singleton = bean;
+        }
+        return bean;
+    }
 
-                if(primaryName != null){
-                    return (T)this.getBean(primaryName);
-                }
-                else {
-                    String mess = type + " 类型的Bean存在多个[" + nameStrings + "] 但无法确定Primary";
-                    log.error(mess);
-                    throw new Exception(mess);
+    /**
+     * 解析该类型对应的Bean名称：只有一个直接返回，否则找Primary的，结果缓存在 typeResolutionCache 中
+     */
+    private TypeResolution resolveType(Class<?> type) {
+        Set<String> names = this.typeMap.get(type);
+        if (names == null) {
+            return TypeResolution.NONE;
+        }
+        if (names.size() == 1) {
+            return new TypeResolution(names.iterator().next(), null);
+        }
+        //找Primary
+        BeanDefinition bd = null;
+        String primaryName = null;
+        StringBuilder nameStrings = new StringBuilder();
+        for (String name : names) {
+            bd = this.getBeanDefinition(name);
+            if (bd != null && bd.isPrimary()) {
+                if (primaryName != null) {
+                    return new TypeResolution(null, type + " 类型的Bean存储多个Primary[" + primaryName + "," + name + "]");
+                } else {
+                    primaryName = name;
                 }
             }
+            nameStrings.append(" " + name);
         }
-        return null;
+
+        if (primaryName != null) {
+            return new TypeResolution(primaryName, null);
+        }
+        return new TypeResolution(null, type + " 类型的Bean存在多个[" + nameStrings + "] 但无法确定Primary");
     }
 
 
@@ -257,6 +443,12 @@ public class DefaultBeanFactory implements BeanFactory, BeanDefinitionRegistry,
             return instance;
         }
 
+        PrototypeCreationRecipe recipe = this.prototypeRecipes.get(beanName);
+        if (recipe != null && !recipe.hasReferences()) {
+            // 没有引用其他Bean的原型不会产生循环依赖，直接按配方创建
+            return this.createPrototype(recipe);
+        }
+
         instance = this.getFromEarlyExposeBuildingBeans(beanName);
        // 这是属性依赖时的循环引用，返回提前暴露的实例
         if (instance != null) {
@@ -270,7 +462,30 @@ public class DefaultBeanFactory implements BeanFactory, BeanDefinitionRegistry,
             throw new Exception("未找到名称为 '" + beanName + "' 的Bean定义");
         }
 
-        // 检测循环依赖
+        Set<String> buildingBeans = this.markBuilding(beanName);
+        try {
+            if (beanDefinition.isSingleton()) {
+                // 单例只锁住自己这一个Bean，其他线程创建或读取无关的单例不受影响
+                instance = this.getOrCreateSingleton(beanName, beanDefinition);
+            } else if (recipe != null) {
+                instance = this.createPrototype(recipe);
+            } else {
+                instance = doCreateInstance(beanName, beanDefinition);
+                this.compilePrototypeRecipe(beanName, beanDefinition);
+            }
+        } finally {
+            // 创建好实例后（或创建失败），移除创建中记录
+            buildingBeans.remove(beanName);
+        }
+        return instance;
+    }
+
+    /**
+     * 记录正在创建的Bean，并检测循环依赖
+     *
+     * @return 当前线程正在创建的Bean集合，创建完成后需从中移除该Bean
+     */
+    private Set<String> markBuilding(String beanName) throws Exception {
         Set<String> buildingBeans = this.buildingBeansRecordor.get();
         if (buildingBeans == null) {
             buildingBeans = new HashSet<>();
@@ -284,27 +499,206 @@ public class DefaultBeanFactory implements BeanFactory, BeanDefinitionRegistry,
 
         // 记录正在创建的Bean
         buildingBeans.add(beanName);
+        return buildingBeans;
+    }
 
-        //如果等于 null
-        if (beanDefinition.isSingleton()) {
-            //加锁
-            synchronized (this.singletonBeanMap) {
-                instance =  this.singletonBeanMap.get(beanName);
-                // 第二次检查
-                if (instance == null) {
-                    instance = doCreateInstance(beanName, beanDefinition);
-                    this.singletonBeanMap.put(beanName, instance);
+    @Override
+    public List<Object> getBeans(String name, int count) throws Throwable {
+        if (count < 0) {
+            throw new IllegalArgumentException("count不能小于0：" + count);
+        }
+        String beanName = resolveBeanName(name);
+        List<Object> beans = new ArrayList<>(count);
+        BeanDefinition beanDefinition = this.getBeanDefinition(beanName);
+        if (count == 0 || beanDefinition == null || beanDefinition.isSingleton()) {
+            for (int i = 0; i < count; i++) {
+                beans.add(this.getBean(beanName));
+            }
+            return beans;
+        }
+
+        PrototypeCreationRecipe recipe = this.prototypeRecipes.get(beanName);
+        if (recipe == null) {
+            // 第一个实例走完整的创建流程，同时生成配方
+            beans.add(this.getBean(beanName));
+            recipe = this.prototypeRecipes.get(beanName);
+            if (recipe == null) {
+                for (int i = 1; i < count; i++) {
+                    beans.add(this.getBean(beanName));
                 }
+                return beans;
+            }
+        }
+
+        // 整批只记录一次正在创建的Bean
+        Set<String> buildingBeans = recipe.hasReferences() ? this.markBuilding(beanName) : null;
+        try {
+            while (beans.size() < count) {
+                beans.add(this.createPrototype(recipe));
+            }
+        } finally {
+            if (buildingBeans != null) {
+                buildingBeans.remove(beanName);
+            }
+        }
+        return beans;
+    }
+
+    /**
+     * 第一次创建原型实例后，把创建过程固化为配方
+     */
+    private void compilePrototypeRecipe(String beanName, BeanDefinition beanDefinition) {
+        InjectionMetadata metadata = this.injectionMetadataCache.get(beanName);
+        if (metadata == null) {
+            return;
+        }
+        PrototypeCreationRecipe recipe = new PrototypeCreationRecipe(beanName, beanDefinition, metadata,
+                this.beanPostProcessors.toArray(new BeanPostProcessor[0]));
+        if (recipe.isResolved() && this.beanDefinitionMap.get(beanName) == beanDefinition) {
+            this.prototypeRecipes.putIfAbsent(beanName, recipe);
+        }
+    }
+
+    /**
+     * 按配方创建原型实例：与 doCreateInstance 的步骤相同，省去了构造方法判定、注入计划查找
+     */
+    private Object createPrototype(PrototypeCreationRecipe recipe) throws Throwable {
+        BeanDefinition beanDefinition = recipe.getBeanDefinition();
+        BeanPostProcessor[] bpps = recipe.getBeanPostProcessors();
+
+        Object[] args = recipe.getConstantArguments();
+        if (args == null && recipe.getArgumentDefinitions() != null) {
+            Object[] definitions = recipe.getArgumentDefinitions();
+            args = new Object[definitions.length];
+            for (int i = 0; i < definitions.length; i++) {
+                args[i] = this.getOneArgumentRealValue(definitions[i]);
+            }
+        }
+
+        Object instance;
+        if (recipe.getConstructor() != null) {
+            if (bpps.length > 0) {
+                // 缓存构造参数，创建代理时需要
+                beanDefinition.setConstructorArgumentRealValues(args);
             }
+            instance = this.instantiationStrategy.instantiate(recipe.getConstructor(), args);
+        } else if (recipe.getFactoryBeanName() == null) {
+            instance = this.instantiationStrategy.instantiate(recipe.getFactoryMethod(), null, args);
         } else {
-            instance = doCreateInstance(beanName, beanDefinition);
+            instance = this.instantiationStrategy.instantiate(recipe.getFactoryMethod(),
+                    this.doGetBean(recipe.getFactoryBeanName()), args);
         }
 
-        // 创建好实例后，移除创建中记录
-        buildingBeans.remove(beanName);
+        String beanName = recipe.getBeanName();
+        InjectionMetadata metadata = recipe.getInjectionMetadata();
+        if (!metadata.matches(beanDefinition, instance.getClass())) {
+            metadata = this.findInjectionMetadata(beanName, beanDefinition, instance.getClass());
+        }
+        if (recipe.hasReferences()) {
+            //提前暴露正在创建的Bean
+            this.doEarlyExposeBuildingBeans(beanName, beanDefinition, instance);
+            try {
+                this.setPropertyDIValues(metadata, instance);
+            } finally {
+                this.removeEarlyExposeBuildingBeans(beanName, instance);
+            }
+        } else {
+            this.setPropertyDIValues(metadata, instance);
+        }
+
+        for (BeanPostProcessor bpp : bpps) {
+            instance = bpp.postProcessBeforeInitialization(instance, beanName);
+        }
+        this.doInit(beanName, beanDefinition, metadata, instance);
+        for (BeanPostProcessor bpp : bpps) {
+            instance = bpp.postProcessAfterInitialization(instance, beanName);
+        }
         return instance;
     }
 
+    /**
+     * 获取或创建单例：每个Bean名称一把创建锁，已创建好的单例直接从 singletonBeanMap 读取，不需要加锁。
+     * <p>
+     * 不同线程按不同顺序创建相互依赖的单例时（A线程持有X等待Y，B线程持有Y等待X），
+     * 等待方会识别出这个循环等待：若对方已经提前曝光了该单例（属性循环依赖），直接使用提前曝光的实例；
+     * 否则（构造参数循环依赖）抛出异常，而不是死锁。
+     */
+    private Object getOrCreateSingleton(String beanName, BeanDefinition beanDefinition) throws Throwable {
+        ReentrantLock lock = this.singletonCreationLocks.computeIfAbsent(beanName, k -> new ReentrantLock());
+        if (!lock.tryLock()) {
+            // 其他线程正在创建该单例，等待它创建完成。等待时间单独记录，不算作正在创建的Bean的阶段耗时
+            long waitStart = System.nanoTime();
+            Object earlySingleton;
+            try {
+                earlySingleton = this.awaitSingletonCreation(beanName, lock);
+            } finally {
+                this.startupMetrics.recordLockWait(System.nanoTime() - waitStart);
+            }
+            if (earlySingleton != null) {
+                return earlySingleton;
+            }
+        }
+        try {
+            Object instance = this.singletonBeanMap.get(beanName);
+            // 第二次检查
+            if (instance == null) {
+                this.singletonCreationOwners.put(beanName, Thread.currentThread());
+                try {
+                    instance = doCreateInstance(beanName, beanDefinition);
+                    this.singletonBeanMap.put(beanName, instance);
+                } finally {
+                    this.singletonCreationOwners.remove(beanName);
+                }
+            }
+            return instance;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 等待其他线程创建单例。
+     *
+     * @return 获得创建锁时返回 null；检测到跨线程循环等待时返回对方提前曝光的实例
+     */
+    private Object awaitSingletonCreation(String beanName, ReentrantLock lock) throws Throwable {
+        Thread current = Thread.currentThread();
+        this.singletonCreationWaiters.put(current, beanName);
+        try {
+            if (this.isSingletonCreationDeadlock(beanName, current)) {
+                Object earlySingleton = this.earlySingletonObjects.get(beanName);
+                if (earlySingleton != null) {
+                    return earlySingleton;
+                }
+                throw new Exception(beanName + " 循环依赖！正在被线程[" + this.singletonCreationOwners.get(beanName)
+                        + "]创建，同时该线程在等待线程[" + current.getName() + "]创建的Bean");
+            }
+            lock.lockInterruptibly();
+            return null;
+        } finally {
+            this.singletonCreationWaiters.remove(current);
+        }
+    }
+
+    /**
+     * 沿着 "等待的Bean -> 创建该Bean的线程 -> 该线程等待的Bean" 查找，判断是否最终回到当前线程
+     */
+    private boolean isSingletonCreationDeadlock(String beanName, Thread current) {
+        Set<Thread> visited = new HashSet<>();
+        Thread owner = this.singletonCreationOwners.get(beanName);
+        while (owner != null && visited.add(owner)) {
+            if (owner == current) {
+                return true;
+            }
+            String waitingFor = this.singletonCreationWaiters.get(owner);
+            if (waitingFor == null) {
+                return false;
+            }
+            owner = this.singletonCreationOwners.get(waitingFor);
+        }
+        return false;
+    }
+
     private Object getFromEarlyExposeBuildingBeans(String beanName) {
         Map<String, Object> earlyExposeBuildingBeansMap = earlyExposeBuildingBeans.get();
         return earlyExposeBuildingBeansMap == null ? null : earlyExposeBuildingBeansMap.get(beanName);
@@ -314,37 +708,50 @@ public class DefaultBeanFactory implements BeanFactory, BeanDefinitionRegistry,
      * 实例化对象
      */
     private Object doCreateInstance(String beanName, BeanDefinition beanDefinition) throws Throwable {
-        Class<?> type = beanDefinition.getBeanClass();
-        Object instance = null;
-        if (type != null) {
-            if (StringUtils.isBlank(beanDefinition.getFactoryBeanName())) {
-                // 构造方法方式来构造对象
-                instance = this.createInstanceByConstructor(beanDefinition);
+        StartupMetrics.Recorder recorder = this.startupMetrics.begin(beanName);
+        try {
+            Class<?> type = beanDefinition.getBeanClass();
+            Object instance = null;
+            if (type != null) {
+                if (StringUtils.isBlank(beanDefinition.getFactoryMethodName())) {
+                    // 构造方法方式来构造对象
+                    instance = this.createInstanceByConstructor(beanDefinition);
+                } else {
+                    // 静态工厂bean方式来构造对象
+                    instance = this.createInstanceByStaticFactoryMethod(beanDefinition);
+                }
             } else {
-                // 静态工厂bean方式来构造对象
-                instance = this.createInstanceByStaticFactoryMethod(beanDefinition);
+                // 实例工厂bean方式来构造对象
+                instance = this.createInstanceByFactoryBean(beanDefinition);
             }
-        } else {
-            // 实例工厂bean方式来构造对象
-            instance = this.createInstanceByFactoryBean(beanDefinition);
-        }
-        //提前暴露正在创建的Bean
-        this.doEarlyExposeBuildingBeans(beanName, instance);
-
-        // 给入属性依赖
-        this.setPropertyDIValues(beanDefinition, instance);
-
-        // 移除正在创建的Bean
-        this.removeEarlyExposeBuildingBeans(beanName, instance);
-
-        // 执行BeanPostProcessor 应用bean初始化前的处理
-        instance = this.applyPostProcessBeforeInitialization(instance, beanName);
-        // 执行初始化方法
-        this.doInit(beanDefinition, instance);
-        // 执行BeanPostProcessor 应用bean初始化后的处理
-        instance = this.applyPostProcessAfterInitialization(instance, beanName);
+            recorder.mark(StartupMetrics.Phase.INSTANTIATE);
+            //提前暴露正在创建的Bean
+            this.doEarlyExposeBuildingBeans(beanName, beanDefinition, instance);
+
+            InjectionMetadata metadata = this.findInjectionMetadata(beanName, beanDefinition, instance.getClass());
+            try {
+                // 给入属性依赖
+                this.setPropertyDIValues(metadata, instance);
+            } finally {
+                // 移除正在创建的Bean
+                this.removeEarlyExposeBuildingBeans(beanName, instance);
+            }
+            recorder.mark(StartupMetrics.Phase.PROPERTY_DI);
+
+            // 执行BeanPostProcessor 应用bean初始化前的处理
+            instance = this.applyPostProcessBeforeInitialization(instance, beanName);
+            recorder.mark(StartupMetrics.Phase.BEFORE_INITIALIZATION);
+            // 执行初始化方法，BeanPostProcessor 可能替换了实例
+            this.doInit(beanName, beanDefinition, metadata, instance);
+            recorder.mark(StartupMetrics.Phase.INIT_METHOD);
+            // 执行BeanPostProcessor 应用bean初始化后的处理
+            instance = this.applyPostProcessAfterInitialization(instance, beanName);
+            recorder.mark(StartupMetrics.Phase.AFTER_INITIALIZATION);
 
-        return instance;
+            return instance;
+        } finally {
+            recorder.end();
+        }
     }
 
     /**
@@ -356,7 +763,7 @@ public class DefaultBeanFactory implements BeanFactory, BeanDefinitionRegistry,
      */
     private Object applyPostProcessAfterInitialization(Object bean, String beanName) throws Throwable {
         for (BeanPostProcessor bpp : this.beanPostProcessors) {
-            bean = bpp.postProcessBeforeInitialization(bean, beanName);
+            bean = bpp.postProcessAfterInitialization(bean, beanName);
         }
         return bean;
     }
@@ -369,7 +776,7 @@ public class DefaultBeanFactory implements BeanFactory, BeanDefinitionRegistry,
      */
     private Object applyPostProcessBeforeInitialization(Object bean, String beanName) throws Throwable {
         for (BeanPostProcessor bpp : this.beanPostProcessors) {
-            bean = bpp.postProcessAfterInitialization(bean, beanName);
+            bean = bpp.postProcessBeforeInitialization(bean, beanName);
         }
         return bean;
     }
@@ -377,7 +784,7 @@ public class DefaultBeanFactory implements BeanFactory, BeanDefinitionRegistry,
     /**
      * 提前暴露正在创建的Bean
      */
-    private void doEarlyExposeBuildingBeans(String beanName, Object instance) {
+    private void doEarlyExposeBuildingBeans(String beanName, BeanDefinition beanDefinition, Object instance) {
         // 从线程本地变量中获取提前暴露的Bean映射表
         Map<String, Object> earlyExposeBuildingBeansMap = earlyExposeBuildingBeans.get();
         // 如果映射表为空，则创建新的HashMap并设置到线程本地变量中
@@ -387,34 +794,34 @@ public class DefaultBeanFactory implements BeanFactory, BeanDefinitionRegistry,
         }
         // 将Bean名称和实例存入映射表中
         earlyExposeBuildingBeansMap.put(beanName, instance);
+        // 单例同时对其他线程曝光，供跨线程循环等待时使用
+        if (beanDefinition.isSingleton()) {
+            this.earlySingletonObjects.put(beanName, instance);
+        }
     }
 
     /**
-     * 为Bean实例设置属性依赖注入值
-     *
-     * @param beanDefinition Bean定义信息，包含属性值配置
-     * @param instance       Bean实例对象，需要被注入属性值
-     * @throws Exception 当反射操作失败时抛出异常
+     * 获取Bean的注入计划，同一定义的实例复用，仅在第一次创建实例（或实例类型变化）时反射查找
      */
-    private void setPropertyDIValues(BeanDefinition beanDefinition, Object instance) throws Throwable {
-        // 如果没有属性值配置，则直接返回
-        if (CollectionUtils.isEmpty(beanDefinition.getPropertyValues())) {
-            return;
+    private InjectionMetadata findInjectionMetadata(String beanName, BeanDefinition beanDefinition, Class<?> clazz) throws Exception {
+        InjectionMetadata metadata = this.injectionMetadataCache.get(beanName);
+        if (metadata == null || !metadata.matches(beanDefinition, clazz)) {
+            metadata = InjectionMetadata.forBean(beanDefinition, clazz);
+            this.injectionMetadataCache.put(beanName, metadata);
         }
-        // 遍历所有属性值配置，依次进行依赖注入
-        for (PropertyValue pv : beanDefinition.getPropertyValues()) {
-            // 跳过属性名为空的配置
-            if (StringUtils.isBlank(pv.getName())) {
-                continue;
-            }
-            Class<?> clazz = instance.getClass();
-            // 获取属性对应的字段对象
-            Field p = clazz.getDeclaredField(pv.getName());
-            //暴力访问  private
-            p.setAccessible(true);
-            // 设置属性值，支持依赖注入
-            p.set(instance, this.getOneArgumentRealValue(pv.getValue()));
+        return metadata;
+    }
 
+    /**
+     * 为Bean实例设置属性依赖注入值
+     *
+     * @param metadata Bean的注入计划，包含各属性字段的 setter 句柄
+     * @param instance Bean实例对象，需要被注入属性值
+     */
+    private void setPropertyDIValues(InjectionMetadata metadata, Object instance) throws Throwable {
+        // 依次进行依赖注入，支持依赖注入
+        for (InjectionMetadata.InjectedProperty property : metadata.getInjectedProperties()) {
+            property.inject(instance, this.getOneArgumentRealValue(property.getPropertyValue().getValue()));
         }
     }
 
@@ -423,6 +830,7 @@ public class DefaultBeanFactory implements BeanFactory, BeanDefinitionRegistry,
      */
     private void removeEarlyExposeBuildingBeans(String beanName, Object instance) {
         earlyExposeBuildingBeans.get().remove(beanName);
+        this.earlySingletonObjects.remove(beanName);
     }
 
 
@@ -441,7 +849,7 @@ public class DefaultBeanFactory implements BeanFactory, BeanDefinitionRegistry,
         //缓存构造参数，供后面需要这些参数地方使用
         beanDefinition.setConstructorArgumentRealValues(args);
         // 2 判定该调用哪个构造方法来创建实例
-        return this.determineConstructor(beanDefinition, args).newInstance(args);
+        return this.instantiationStrategy.instantiate(this.determineConstructor(beanDefinition, args), args);
 
     }
 
@@ -521,30 +929,29 @@ public class DefaultBeanFactory implements BeanFactory, BeanDefinitionRegistry,
              2 获得所有的构造方法，遍历，通过参数数量过滤，再比对形参类型与实参类型。
          */
 
-        //没有参数，则用无参构造方法
-        if (args == null) {
-            return bd.getBeanClass().getConstructor(null);
-        }
-
         Constructor<?> ct = null;
-        // 和Spring源码保持一致对原型进行缓存避免多次重复查找，
-        // 对于原型bean,从第二次开始获取bean实例时，可直接获得第一次缓存的构造方法。
+        // 和Spring源码保持一致对构造方法进行缓存避免多次重复查找，
+        // 从第二次开始获取bean实例时，可直接获得第一次缓存的构造方法。
         ct = bd.getConstructor();
         if (ct != null) {
             return ct;
         }
 
-        //1、根据参数类型进行精确匹配查找
-        Class[] paramTypes = new Class[args.length];
-        int j = 0;
-        for (Object p : args) {
-            paramTypes[j++] = p.getClass();
+        //没有参数，则用无参构造方法
+        if (args == null) {
+            ct = bd.getBeanClass().getConstructor(null);
+            bd.setConstructor(ct);
+            return ct;
         }
 
-        try {
-            ct = bd.getBeanClass().getConstructor(paramTypes);
-        } catch (Exception e) {
-            // 这个异常不需要处理
+        //1、根据参数类型进行精确匹配查找，有 null 参数时无法确定类型，直接走第2步
+        Class<?>[] paramTypes = getArgumentTypes(args);
+        if (paramTypes != null) {
+            try {
+                ct = bd.getBeanClass().getConstructor(paramTypes);
+            } catch (Exception e) {
+                // 这个异常不需要处理
+            }
         }
 
         if (ct == null) {
@@ -552,11 +959,12 @@ public class DefaultBeanFactory implements BeanFactory, BeanDefinitionRegistry,
             //  判断逻辑：先判断参数数量，再依次比对形参类型与实参类型
             outer:
             for (Constructor<?> c : bd.getBeanClass().getConstructors()) {
+                Class<?>[] parameterTypes = c.getParameterTypes();
                 //通过参数数量过滤
-                if (paramTypes.length == args.length) {
-                    //再依次比对形参类型与实参类型是否匹配
-                    for (int i = 0; i < paramTypes.length; i++) {
-                        if (!paramTypes[i].isAssignableFrom(args[i].getClass())) {
+                if (parameterTypes.length == args.length) {
+                    //再依次比对形参类型与实参类型是否匹配（基本类型形参可接收其包装类型实参）
+                    for (int i = 0; i < parameterTypes.length; i++) {
+                        if (!ClassUtils.isAssignableValue(parameterTypes[i], args[i])) {
                             //参数类型不可赋值（不匹配），跳到外层循环，继续下一个
                             continue outer;
                         }
@@ -567,17 +975,29 @@ public class DefaultBeanFactory implements BeanFactory, BeanDefinitionRegistry,
             }
         }
         if (ct != null) {
-            // 对于原型bean,可以缓存找到的构造方法，方便下次构造实例对象。在BeanDefinition中获取设置所用构造方法的方法。
+            // 缓存找到的构造方法，方便下次构造实例对象（单例的代理对象也需要用它来创建）。
             // 同时在上面增加从beanDefinition中获取的逻辑。
-            if (bd.isPrototype()) {
-                bd.setConstructor(ct);
-            }
+            bd.setConstructor(ct);
             return ct;
         } else {
             throw new Exception("不存在对应的构造方法！" + bd);
         }
     }
 
+    /**
+     * 实参的类型，有 null 实参时返回 null
+     */
+    private static Class<?>[] getArgumentTypes(Object[] args) {
+        Class<?>[] types = new Class[args.length];
+        for (int i = 0; i < args.length; i++) {
+            if (args[i] == null) {
+                return null;
+            }
+            types[i] = args[i].getClass();
+        }
+        return types;
+    }
+
     /**
      * 通过静态工厂方法来创建实例
      */
@@ -589,7 +1009,7 @@ public class DefaultBeanFactory implements BeanFactory, BeanDefinitionRegistry,
         // 确定要调用的工厂方法
         Method method = this.determineFactoryMethod(beanDefinition, argumentValues, beanClass);
         // 调用静态工厂方法创建实例
-        return method.invoke(beanClass, argumentValues);
+        return this.instantiationStrategy.instantiate(method, null, argumentValues);
     }
 
     /**
@@ -603,7 +1023,7 @@ public class DefaultBeanFactory implements BeanFactory, BeanDefinitionRegistry,
         Method method = this.determineFactoryMethod(beanDefinition, constructorArgumentValues, this.getType(beanDefinition.getFactoryBeanName()));
         //执行该工厂方法创建并返回Bean实例
         Object factoryBean = this.doGetBean(beanDefinition.getFactoryBeanName());
-        return method.invoke(factoryBean, constructorArgumentValues);
+        return this.instantiationStrategy.instantiate(method, factoryBean, constructorArgumentValues);
     }
 
     /**
@@ -625,27 +1045,27 @@ public class DefaultBeanFactory implements BeanFactory, BeanDefinitionRegistry,
         * */
         String methodName = bd.getFactoryMethodName();
 
-        if (args == null) {
-            return type.getMethod(methodName, null);
-        }
-
         Method method = null;
-        //对于原型bean，从第二次开始火哦去bean实例时，可以直接获得第一次缓存的构造方法。
+        //从第二次开始获取bean实例时，可以直接获得第一次缓存的工厂方法。
         method = bd.getFactoryMethod();
         if (method != null) {
             return method;
         }
 
-        //1、根据参数类型进行精确匹配查找
-        Class<?>[] paramTypes = new Class[args.length];
-        for (int i = 0; i < args.length; i++) {
-            paramTypes[i] = args[i].getClass();
+        if (args == null) {
+            method = type.getMethod(methodName, null);
+            bd.setFactoryMethod(method);
+            return method;
         }
 
-        try {
-            method = type.getMethod(methodName, paramTypes);
-        } catch (Exception e) {
-            // 这个异常不需要处理
+        //1、根据参数类型进行精确匹配查找
+        Class<?>[] paramTypes = getArgumentTypes(args);
+        if (paramTypes != null) {
+            try {
+                method = type.getMethod(methodName, paramTypes);
+            } catch (Exception e) {
+                // 这个异常不需要处理
+            }
         }
 
         //同名的工厂方法可能很多，需要通过参数去确认具体是哪个工厂方法
@@ -662,7 +1082,7 @@ public class DefaultBeanFactory implements BeanFactory, BeanDefinitionRegistry,
                 Class<?>[] paramterTypes = m.getParameterTypes();
                 if (paramterTypes.length == args.length) {
                     for (int i = 0; i < paramterTypes.length; i++) {
-                        if (!paramterTypes[i].isAssignableFrom(args[i].getClass())) {
+                        if (!ClassUtils.isAssignableValue(paramterTypes[i], args[i])) {
                             continue outer;
                         }
                     }
@@ -674,11 +1094,9 @@ public class DefaultBeanFactory implements BeanFactory, BeanDefinitionRegistry,
         }
 
         if (method != null) {
-            // 对于原型bean,可以缓存找到的方法，方便下次构造实例对象。在BeanDefinfition中获取设置所用方法的方法。
+            // 缓存找到的方法，方便下次构造实例对象。在BeanDefinfition中获取设置所用方法的方法。
             // 同时在上面增加从beanDefinition中获取的逻辑。
-            if (bd.isPrototype()) {
-                bd.setFactoryMethod(method);
-            }
+            bd.setFactoryMethod(method);
             return method;
         } else {
             throw new Exception("不存在对应的构造方法！" + bd);
@@ -688,18 +1106,19 @@ public class DefaultBeanFactory implements BeanFactory, BeanDefinitionRegistry,
     /**
      * 初始化
      */
-    private void doInit(BeanDefinition beanDefinition, Object instance) throws Exception {
+    private void doInit(String beanName, BeanDefinition beanDefinition, InjectionMetadata metadata, Object instance) throws Throwable {
         // 执行初始化方法
         if (StringUtils.isNotBlank(beanDefinition.getInitMethodName())) {
-            Method m = instance.getClass().getMethod(beanDefinition.getInitMethodName(), null);
-            // 添加以下代码来绕过访问检查
-            m.setAccessible(true);
-            m.invoke(instance, null);
+            if (!metadata.matches(beanDefinition, instance.getClass())) {
+                metadata = this.findInjectionMetadata(beanName, beanDefinition, instance.getClass());
+            }
+            metadata.invokeInitMethod(instance);
         }
     }
 
     @Override
     public void close() throws IOException {
+        this.startupMetrics.shutdown();
 
         // 执行单例实例的销毁方法
         for (Map.Entry<String, BeanDefinition> entry : this.beanDefinitionMap.entrySet()) {
@@ -709,14 +1128,14 @@ public class DefaultBeanFactory implements BeanFactory, BeanDefinitionRegistry,
             // 单例且定义销毁方法
             if (beanDefinition.isSingleton() && StringUtils.isNotBlank(beanDefinition.getDestroyMethodName())) {
                 Object instance = this.singletonBeanMap.get(beanName);
+                // 未创建过的单例无需销毁
+                if (instance == null) {
+                    continue;
+                }
                 try {
-                    Method method = instance.getClass().getMethod(beanDefinition.getDestroyMethodName(), null);
-                    method.setAccessible(true);
-                    method.invoke(instance, null);
+                    this.findInjectionMetadata(beanName, beanDefinition, instance.getClass()).invokeDestroyMethod(instance);
                     log.info("执行bean[" + beanName + "] " + beanDefinition + " 的 销毁方法成功！");
-                } catch (NoSuchMethodException | SecurityException | IllegalAccessException |
-                         IllegalArgumentException
-                         | InvocationTargetException e1) {
+                } catch (Throwable e1) {
                     log.error("执行bean[" + beanName + "] " + beanDefinition + " 的 销毁方法异常！", e1);
                 }
             }
@@ -734,17 +1153,75 @@ public class DefaultBeanFactory implements BeanFactory, BeanDefinitionRegistry,
         if (name.equals(alias)) {
             throw new IllegalArgumentException("Name and alias cannot be the same");
         }
-        // 检查要注册别名的bean是否存在
-        if (!beanDefinitionMap.containsKey(name)) {
-            throw new RuntimeException("No bean named '" + name + "' is defined");
+        // 别名的修改较少，加锁保证别名链和反向索引一致；读取不加锁
+        synchronized (this.aliasMap) {
+            // 检查要注册别名的bean是否存在，也可以是已注册的别名（别名链）
+            if (!beanDefinitionMap.containsKey(name) && !aliasMap.containsKey(name)) {
+                throw new RuntimeException("No bean named '" + name + "' is defined");
+            }
+            if (beanDefinitionMap.containsKey(alias)) {
+                throw new IllegalArgumentException("Alias '" + alias + "' is already used as a bean name");
+            }
+            // 检测别名链的循环：从 name 沿别名链向上不能回到 alias
+            for (String n = name; n != null; n = aliasMap.get(n)) {
+                if (n.equals(alias)) {
+                    throw new IllegalArgumentException("Circular alias reference: '" + alias + "' -> '" + name + "'");
+                }
+            }
+            // 别名重新指向其他名称时，先从原名称的反向索引中移除
+            String previous = aliasMap.put(alias, name);
+            if (previous != null) {
+                this.removeFromAliasIndex(previous, alias);
+            }
+            this.aliasIndex.computeIfAbsent(name, k -> new LinkedHashSet<>()).add(alias);
+            // 该别名及以它为目标的别名链都解析到新的Bean名称
+            this.updateCanonicalNames(alias, this.canonicalNames.getOrDefault(name, name));
         }
-        // 将别名和对应的原始名称存入别名映射表
-        aliasMap.put(alias, name);
     }
 
     @Override
     public void removeAlias(String alias) {
-        aliasMap.remove(alias);
+        synchronized (this.aliasMap) {
+            String name = aliasMap.remove(alias);
+            if (name == null) {
+                return;
+            }
+            this.removeFromAliasIndex(name, alias);
+            this.canonicalNames.remove(alias);
+            // 以它为目标的别名链断开，解析到被移除的别名本身
+            Set<String> chained = this.aliasIndex.get(alias);
+            if (chained != null) {
+                for (String a : chained) {
+                    this.updateCanonicalNames(a, alias);
+                }
+            }
+        }
+    }
+
+    private void removeFromAliasIndex(String name, String alias) {
+        Set<String> aliases = this.aliasIndex.get(name);
+        if (aliases != null) {
+            aliases.remove(alias);
+            if (aliases.isEmpty()) {
+                this.aliasIndex.remove(name);
+            }
+        }
+    }
+
+    /**
+     * 更新别名及以它为目标的所有别名的解析结果
+     */
+    private void updateCanonicalNames(String alias, String canonicalName) {
+        Deque<String> pending = new ArrayDeque<>();
+        pending.push(alias);
+        while (!pending.isEmpty()) {
+            String a = pending.pop();
+            this.canonicalNames.put(a, canonicalName);
+            Set<String> chained = this.aliasIndex.get(a);
+            if (chained != null) {
+                chained.forEach(pending::push);
+            }
+        }
     }
 
     @Override
@@ -752,34 +1229,91 @@ public class DefaultBeanFactory implements BeanFactory, BeanDefinitionRegistry,
         return aliasMap.containsKey(name);
     }
 
+    /**
+     * 沿别名链解析到的原始Bean名称，不是别名时返回 null
+     */
     @Override
     public String getOriginalName(String name) {
-        return aliasMap.get(name);
+        return canonicalNames.get(name);
     }
 
 
     /**
-     * 根据给定的名称获取所有对应的别名
+     * 根据给定的名称获取所有对应的别名，包括别名链上间接指向它的别名
      *
      * @param name 需要查找别名的名称
      * @return 包含所有别名的字符串数组，如果没有找到则返回空数组
      */
     @Override
     public String[] getAliases(String name) {
-        // 从别名映射中筛选出值等于指定名称的条目，提取键作为别名并转换为数组
-        return aliasMap.entrySet().stream()
-                .filter(entry -> entry.getValue().equals(name))
-                .map(Map.Entry::getKey)
-                .toArray(String[]::new);
+        synchronized (this.aliasMap) {
+            List<String> aliases = new ArrayList<>();
+            Deque<String> pending = new ArrayDeque<>();
+            pending.push(name);
+            while (!pending.isEmpty()) {
+                Set<String> direct = this.aliasIndex.get(pending.pop());
+                if (direct != null) {
+                    for (String alias : direct) {
+                        aliases.add(alias);
+                        pending.push(alias);
+                    }
+                }
+            }
+            return aliases.toArray(new String[0]);
+        }
     }
 
     /**
      * 解析 Bean 名称（处理别名）
      */
-    private String resolveBeanName(String name) {
-        String originalName = getOriginalName(name);
+    protected String resolveBeanName(String name) {
+        String originalName = canonicalNames.get(name);
         return originalName != null ? originalName : name;
     }
 
+    public InstantiationStrategy getInstantiationStrategy() {
+        return instantiationStrategy;
+    }
 
-}
\ No newline at end of file
+    /**
+     * 设置实例化策略，可选 ReflectiveInstantiationStrategy、JavassistInstantiationStrategy、LambdaMetafactoryInstantiationStrategy
+     */
+    public void setInstantiationStrategy(InstantiationStrategy instantiationStrategy) {
+        this.instantiationStrategy = instantiationStrategy;
+    }
+
+    /**
+     * Bean 创建耗时统计，可按耗时排序查询各Bean各阶段的墙钟时间和CPU时间
+     */
+    public StartupMetrics getStartupMetrics() {
+        return startupMetrics;
+    }
+
+    /**
+     * 设置慢Bean阈值（毫秒），单个Bean创建超过阈值时打印创建线程的堆栈，小于等于0时关闭
+     */
+    public void setSlowBeanThresholdMillis(long slowBeanThresholdMillis) {
+        this.startupMetrics.setSlowBeanThresholdMillis(slowBeanThresholdMillis);
+    }
+
+    /**
+     * 按类型获取Bean的解析结果：目标Bean名称，或无法确定时的错误信息
+     */
+    private static final class TypeResolution {
+
+        // 该类型没有对应的Bean
+        static final TypeResolution NONE = new TypeResolution(null, null);
+
+        final String beanName;
+
+        final String errorMessage;
+
+        // 目标Bean是单例且已创建时的实例
+        volatile Object singleton;
+
+        TypeResolution(String beanName, String errorMessage) {
+            this.beanName = beanName;
+            this.errorMessage = errorMessage;
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package com.study.spring.aop.beans.factory;
+
+import com.study.spring.aop.beans.BeanDefinition;
+import com.study.spring.aop.beans.PropertyValue;
+import org.apache.commons.collections4.CollectionUtils;
+import org.apache.commons.lang3.StringUtils;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * @ClassName InjectionMetadata
+ * @Description Bean 的注入计划：属性字段的 setter 句柄、初始化方法和销毁方法的句柄。
+ *              按 Bean 定义和实例类型构建一次，之后该定义的所有实例复用，创建实例时不再有反射查找。
+ * @Author liqiang
+ * @Date 2025/10/21 16:10
+ */
+public class InjectionMetadata {
+
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+
+    // (Object, Object)void
+    private static final MethodType SETTER_TYPE = MethodType.methodType(void.class, Object.class, Object.class);
+
+    // (Object)void
+    private static final MethodType CALLBACK_TYPE = MethodType.methodType(void.class, Object.class);
+
+    // 构建时的实例类型
+    private final Class<?> targetClass;
+
+    // 构建时的属性依赖定义，定义被替换后需要重新构建
+    private final List<PropertyValue> propertyValues;
+
+    private final List<InjectedProperty> injectedProperties;
+
+    private final MethodHandle initMethod;
+
+    private final MethodHandle destroyMethod;
+
+    private InjectionMetadata(Class<?> targetClass, List<PropertyValue> propertyValues, List<InjectedProperty> injectedProperties,
+                              MethodHandle initMethod, MethodHandle destroyMethod) {
+        this.targetClass = targetClass;
+        this.propertyValues = propertyValues;
+        this.injectedProperties = injectedProperties;
+        this.initMethod = initMethod;
+        this.destroyMethod = destroyMethod;
+    }
+
+    /**
+     * 为 Bean 定义及其实例类型构建注入计划
+     */
+    public static InjectionMetadata forBean(BeanDefinition beanDefinition, Class<?> targetClass) throws Exception {
+        List<InjectedProperty> injectedProperties = Collections.emptyList();
+        if (CollectionUtils.isNotEmpty(beanDefinition.getPropertyValues())) {
+            injectedProperties = new ArrayList<>(beanDefinition.getPropertyValues().size());
+            for (PropertyValue pv : beanDefinition.getPropertyValues()) {
+                // 跳过属性名为空的配置
+                if (StringUtils.isBlank(pv.getName())) {
+                    continue;
+                }
+                Field field = findField(targetClass, pv.getName());
+                //暴力访问  private
+                field.setAccessible(true);
+                MethodHandle setter = LOOKUP.unreflectSetter(field).asType(SETTER_TYPE);
+                injectedProperties.add(new InjectedProperty(setter, pv));
+            }
+        }
+        return new InjectionMetadata(targetClass, beanDefinition.getPropertyValues(), injectedProperties,
+                findCallback(targetClass, beanDefinition.getInitMethodName()),
+                findCallback(targetClass, beanDefinition.getDestroyMethodName()));
+    }
+
+    /**
+     * 查找字段，包括父类中声明的字段
+     */
+    private static Field findField(Class<?> clazz, String name) throws NoSuchFieldException {
+        for (Class<?> c = clazz; c != null && c != Object.class; c = c.getSuperclass()) {
+            try {
+                return c.getDeclaredField(name);
+            } catch (NoSuchFieldException e) {
+                // 继续在父类中查找
+            }
+        }
+        throw new NoSuchFieldException(clazz.getName() + "." + name);
+    }
+
+    private static MethodHandle findCallback(Class<?> clazz, String methodName) throws Exception {
+        if (StringUtils.isBlank(methodName)) {
+            return null;
+        }
+        Method method = clazz.getMethod(methodName);
+        // 添加以下代码来绕过访问检查
+        method.setAccessible(true);
+        return LOOKUP.unreflect(method).asType(CALLBACK_TYPE);
+    }
+
+    /**
+     * 注入计划是否仍适用于该定义的该实例
+     */
+    public boolean matches(BeanDefinition beanDefinition, Class<?> clazz) {
+        return this.targetClass == clazz && this.propertyValues == beanDefinition.getPropertyValues();
+    }
+
+    public List<InjectedProperty> getInjectedProperties() {
+        return injectedProperties;
+    }
+
+    /**
+     * 执行初始化方法
+     */
+    public void invokeInitMethod(Object instance) throws Throwable {
+        if (this.initMethod != null) {
+            this.initMethod.invokeExact(instance);
+        }
+    }
+
+    /**
+     * 执行销毁方法
+     */
+    public void invokeDestroyMethod(Object instance) throws Throwable {
+        if (this.destroyMethod != null) {
+            this.destroyMethod.invokeExact(instance);
+        }
+    }
+
+    /**
+     * 一个待注入的属性：字段 setter 句柄及其属性依赖定义
+     */
+    public static class InjectedProperty {
+
+        private final MethodHandle setter;
+
+        private final PropertyValue propertyValue;
+
+        InjectedProperty(MethodHandle setter, PropertyValue propertyValue) {
+            this.setter = setter;
+            this.propertyValue = propertyValue;
+        }
+
+        public PropertyValue getPropertyValue() {
+            return propertyValue;
+        }
+
+        public void inject(Object instance, Object value) throws Throwable {
+            this.setter.invokeExact(instance, value);
+        }
+    }
+}
@@ -1,9 +1,16 @@
 package com.study.spring.aop.beans.factory;
 
 import com.study.spring.aop.beans.BeanDefinition;
+import com.study.spring.aop.beans.BeanReference;
+import com.study.spring.aop.beans.PropertyValue;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.collections4.CollectionUtils;
+import org.apache.commons.lang3.StringUtils;
 
-import java.util.Map;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
 
 /**
  * @ClassName PreBuildBeanFactory
@@ -14,7 +21,17 @@ import java.util.Map;
 @Slf4j
 public class PreBuildBeanFactory extends DefaultBeanFactory {
 
+    // 是否并行预实例化单例，可通过 -Dspring.preInstantiate.parallel=true 默认开启
+    private volatile boolean parallelPreInstantiation = Boolean.getBoolean("spring.preInstantiate.parallel");
+
+    // 并行预实例化使用的线程池，未设置时使用 ForkJoinPool.commonPool()
+    private ForkJoinPool preInstantiationPool;
+
     public void preInstantiateSingletons() throws Throwable {
+        if (this.parallelPreInstantiation) {
+            this.preInstantiateSingletonsInParallel();
+            return;
+        }
         synchronized (this.beanDefinitionMap) {
             for (Map.Entry<String, BeanDefinition> entry : this.beanDefinitionMap.entrySet()) {
                 String key = entry.getKey();
@@ -25,4 +42,242 @@ public class PreBuildBeanFactory extends DefaultBeanFactory {
             }
         }
     }
+
+    /**
+     * 并行预实例化单例
+     * <p>
+     * 1 由构造参数、属性依赖中的 BeanReference 及工厂Bean 建立依赖图
+     * 2 把依赖图中的强连通分量（循环依赖）合并为一个节点，同一分量内的Bean在同一线程中依次创建，走原有的提前曝光逻辑
+     * 3 按拓扑层次分批：同一批的分量之间没有依赖，在线程池中并行创建，上一批全部完成后再创建下一批
+     */
+    protected void preInstantiateSingletonsInParallel() throws Throwable {
+        List<String> beanNames = new ArrayList<>(this.beanDefinitionMap.keySet());
+        Map<String, Integer> indexes = new HashMap<>(beanNames.size() * 2);
+        for (int i = 0; i < beanNames.size(); i++) {
+            indexes.put(beanNames.get(i), i);
+        }
+
+        // 1 依赖图：Bean下标 -> 它依赖的Bean下标
+        int[][] dependencies = new int[beanNames.size()][];
+        for (int i = 0; i < beanNames.size(); i++) {
+            Set<String> dependsOn = this.getDependentBeanNames(this.getBeanDefinition(beanNames.get(i)));
+            int[] edges = new int[dependsOn.size()];
+            int n = 0;
+            for (String dependency : dependsOn) {
+                Integer index = indexes.get(dependency);
+                if (index != null) {
+                    edges[n++] = index;
+                }
+            }
+            dependencies[i] = Arrays.copyOf(edges, n);
+        }
+
+        // 2 强连通分量，Tarjan 算法产出的顺序保证被依赖的分量先产出
+        List<List<Integer>> components = findStronglyConnectedComponents(dependencies);
+
+        // 3 计算每个分量所在的批次：比它依赖的所有分量的批次大1
+        int[] componentOf = new int[beanNames.size()];
+        for (int c = 0; c < components.size(); c++) {
+            for (int bean : components.get(c)) {
+                componentOf[bean] = c;
+            }
+        }
+        int[] waveOf = new int[components.size()];
+        List<List<List<String>>> waves = new ArrayList<>();
+        for (int c = 0; c < components.size(); c++) {
+            int wave = 0;
+            List<String> singletons = new ArrayList<>();
+            for (int bean : components.get(c)) {
+                for (int dependency : dependencies[bean]) {
+                    if (componentOf[dependency] != c) {
+                        wave = Math.max(wave, waveOf[componentOf[dependency]] + 1);
+                    }
+                }
+                if (this.getBeanDefinition(beanNames.get(bean)).isSingleton()) {
+                    singletons.add(beanNames.get(bean));
+                }
+            }
+            waveOf[c] = wave;
+            while (waves.size() <= wave) {
+                waves.add(new ArrayList<>());
+            }
+            if (!singletons.isEmpty()) {
+                waves.get(wave).add(singletons);
+            }
+        }
+
+        ForkJoinPool pool = this.preInstantiationPool != null ? this.preInstantiationPool : ForkJoinPool.commonPool();
+        for (int wave = 0; wave < waves.size(); wave++) {
+            List<SingletonCreationTask> tasks = new ArrayList<>();
+            for (List<String> component : waves.get(wave)) {
+                tasks.add(new SingletonCreationTask(component));
+            }
+            if (log.isDebugEnabled()) {
+                log.debug("并行预实例化第{}批，共{}组单例", wave, tasks.size());
+            }
+            pool.invoke(new RecursiveAction() {
+                private static final long serialVersionUID = 1L;
+
+                @Override
+                protected void compute() {
+                    ForkJoinTask.invokeAll(tasks);
+                }
+            });
+            for (SingletonCreationTask task : tasks) {
+                if (task.failure != null) {
+                    throw task.failure;
+                }
+            }
+        }
+    }
+
+    /**
+     * 获取Bean定义直接依赖的Bean名称：构造参数、属性依赖中的 BeanReference，以及工厂Bean
+     */
+    private Set<String> getDependentBeanNames(BeanDefinition bd) {
+        Set<String> names = new LinkedHashSet<>();
+        if (StringUtils.isNotBlank(bd.getFactoryBeanName())) {
+            names.add(this.resolveBeanName(bd.getFactoryBeanName()));
+        }
+        if (CollectionUtils.isNotEmpty(bd.getConstructorArgumentValues())) {
+            for (Object value : bd.getConstructorArgumentValues()) {
+                this.collectReferencedBeanNames(value, names);
+            }
+        }
+        if (CollectionUtils.isNotEmpty(bd.getPropertyValues())) {
+            for (PropertyValue pv : bd.getPropertyValues()) {
+                this.collectReferencedBeanNames(pv.getValue(), names);
+            }
+        }
+        return names;
+    }
+
+    /**
+     * 与 getOneArgumentRealValue 的解析规则一致，递归查找数组、集合、Map 中的 BeanReference
+     */
+    private void collectReferencedBeanNames(Object value, Set<String> names) {
+        if (value instanceof BeanReference) {
+            BeanReference reference = (BeanReference) value;
+            if (StringUtils.isNotBlank(reference.getBeanName())) {
+                names.add(this.resolveBeanName(reference.getBeanName()));
+            } else if (reference.getType() != null) {
+                // 按类型依赖：类型映射表中的所有候选都视为依赖
+                names.addAll(this.getBeanNamesForType(reference.getType()));
+            }
+        } else if (value instanceof Object[]) {
+            for (Object item : (Object[]) value) {
+                this.collectReferencedBeanNames(item, names);
+            }
+        } else if (value instanceof Collection) {
+            for (Object item : (Collection<?>) value) {
+                this.collectReferencedBeanNames(item, names);
+            }
+        } else if (value instanceof Map) {
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+                this.collectReferencedBeanNames(entry.getKey(), names);
+                this.collectReferencedBeanNames(entry.getValue(), names);
+            }
+        }
+    }
+
+    /**
+     * Tarjan 强连通分量（非递归实现，避免依赖链很长时栈溢出）
+     *
+     * @param dependencies 节点 -> 它依赖的节点
+     * @return 强连通分量列表，被依赖的分量排在依赖它的分量之前
+     */
+    private static List<List<Integer>> findStronglyConnectedComponents(int[][] dependencies) {
+        int size = dependencies.length;
+        int[] index = new int[size];
+        int[] lowLink = new int[size];
+        boolean[] onStack = new boolean[size];
+        Arrays.fill(index, -1);
+        Deque<Integer> stack = new ArrayDeque<>();
+        List<List<Integer>> components = new ArrayList<>();
+        int counter = 0;
+
+        // 模拟递归调用栈：{节点, 下一个要访问的依赖下标}
+        Deque<int[]> callStack = new ArrayDeque<>();
+        for (int root = 0; root < size; root++) {
+            if (index[root] != -1) {
+                continue;
+            }
+            callStack.push(new int[]{root, 0});
+            while (!callStack.isEmpty()) {
+                int[] frame = callStack.peek();
+                int node = frame[0];
+                if (frame[1] == 0 && index[node] == -1) {
+                    index[node] = lowLink[node] = counter++;
+                    stack.push(node);
+                    onStack[node] = true;
+                }
+                if (frame[1] < dependencies[node].length) {
+                    int next = dependencies[node][frame[1]++];
+                    if (index[next] == -1) {
+                        callStack.push(new int[]{next, 0});
+                    } else if (onStack[next]) {
+                        lowLink[node] = Math.min(lowLink[node], index[next]);
+                    }
+                    continue;
+                }
+                callStack.pop();
+                if (!callStack.isEmpty()) {
+                    int parent = callStack.peek()[0];
+                    lowLink[parent] = Math.min(lowLink[parent], lowLink[node]);
+                }
+                if (lowLink[node] == index[node]) {
+                    List<Integer> component = new ArrayList<>();
+                    int member;
+                    do {
+                        member = stack.pop();
+                        onStack[member] = false;
+                        component.add(member);
+                    } while (member != node);
+                    // 分量内按注册顺序创建
+                    Collections.sort(component);
+                    components.add(component);
+                }
+            }
+        }
+        return components;
+    }
+
+    public boolean isParallelPreInstantiation() {
+        return parallelPreInstantiation;
+    }
+
+    public void setParallelPreInstantiation(boolean parallelPreInstantiation) {
+        this.parallelPreInstantiation = parallelPreInstantiation;
+    }
+
+    public void setPreInstantiationPool(ForkJoinPool preInstantiationPool) {
+        this.preInstantiationPool = preInstantiationPool;
+    }
+
+    /**
+     * 创建一个强连通分量中的所有单例，分量内的Bean在同一线程中依次创建
+     */
+    private class SingletonCreationTask extends RecursiveAction {
+
+        private static final long serialVersionUID = -2791338946471233405L;
+
+        private final List<String> beanNames;
+
+        private Throwable failure;
+
+        SingletonCreationTask(List<String> beanNames) {
+            this.beanNames = beanNames;
+        }
+
+        @Override
+        protected void compute() {
+            try {
+                for (String beanName : this.beanNames) {
+                    getBean(beanName);
+                }
+            } catch (Throwable e) {
+                this.failure = e;
+            }
+        }
+    }
 }
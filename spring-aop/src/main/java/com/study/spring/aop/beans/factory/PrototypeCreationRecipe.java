@@ -0,0 +1,159 @@
+package com.study.spring.aop.beans.factory;
+
+import com.study.spring.aop.beans.BeanDefinition;
+import com.study.spring.aop.beans.BeanPostProcessor;
+import com.study.spring.aop.beans.BeanReference;
+import com.study.spring.aop.beans.PropertyValue;
+import org.apache.commons.collections4.CollectionUtils;
+import org.apache.commons.lang3.StringUtils;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * @ClassName PrototypeCreationRecipe
+ * @Description 原型Bean的创建配方：第一次创建原型实例后，把已确定的构造方法/工厂方法、构造参数定义、注入计划及当时的
+ *              BeanPostProcessor 固化下来，之后创建该原型时不再重复查找定义、判定构造方法。
+ *              构造参数、属性依赖和工厂Bean中都没有 BeanReference 时不会产生循环依赖，创建时也不再需要线程本地变量记录。
+ * @Author liqiang
+ * @Date 2025/10/22 09:40
+ */
+final class PrototypeCreationRecipe {
+
+    private final String beanName;
+
+    private final BeanDefinition beanDefinition;
+
+    private final Constructor<?> constructor;
+
+    private final Method factoryMethod;
+
+    private final String factoryBeanName;
+
+    // 构造参数定义，没有构造参数时为 null
+    private final Object[] argumentDefinitions;
+
+    // 构造参数中没有需要每次解析的值（BeanReference、数组、集合、Map）时，直接复用的参数值
+    private final Object[] constantArguments;
+
+    // 构造参数、属性依赖或工厂Bean是否引用了其他Bean
+    private final boolean hasReferences;
+
+    private final InjectionMetadata injectionMetadata;
+
+    private final BeanPostProcessor[] beanPostProcessors;
+
+    PrototypeCreationRecipe(String beanName, BeanDefinition beanDefinition, InjectionMetadata injectionMetadata,
+                            BeanPostProcessor[] beanPostProcessors) {
+        this.beanName = beanName;
+        this.beanDefinition = beanDefinition;
+        this.injectionMetadata = injectionMetadata;
+        this.beanPostProcessors = beanPostProcessors;
+        if (beanDefinition.getBeanClass() != null && StringUtils.isBlank(beanDefinition.getFactoryMethodName())) {
+            this.constructor = beanDefinition.getConstructor();
+            this.factoryMethod = null;
+        } else {
+            this.constructor = null;
+            this.factoryMethod = beanDefinition.getFactoryMethod();
+        }
+        this.factoryBeanName = beanDefinition.getBeanClass() == null ? beanDefinition.getFactoryBeanName() : null;
+
+        boolean references = this.factoryBeanName != null;
+        if (CollectionUtils.isEmpty(beanDefinition.getConstructorArgumentValues())) {
+            this.argumentDefinitions = null;
+            this.constantArguments = null;
+        } else {
+            this.argumentDefinitions = beanDefinition.getConstructorArgumentValues().toArray();
+            boolean constant = true;
+            for (Object definition : this.argumentDefinitions) {
+                constant &= !needsResolution(definition);
+                references |= containsBeanReference(definition);
+            }
+            this.constantArguments = constant ? this.argumentDefinitions : null;
+        }
+        if (CollectionUtils.isNotEmpty(beanDefinition.getPropertyValues())) {
+            for (PropertyValue pv : beanDefinition.getPropertyValues()) {
+                references |= containsBeanReference(pv.getValue());
+            }
+        }
+        this.hasReferences = references;
+    }
+
+    /**
+     * 配方是否仍适用：构造方法/工厂方法已确定
+     */
+    boolean isResolved() {
+        return this.constructor != null || this.factoryMethod != null;
+    }
+
+    private static boolean needsResolution(Object value) {
+        return value instanceof BeanReference || value instanceof Object[] || value instanceof Collection || value instanceof Map;
+    }
+
+    private static boolean containsBeanReference(Object value) {
+        if (value instanceof BeanReference) {
+            return true;
+        } else if (value instanceof Object[]) {
+            for (Object item : (Object[]) value) {
+                if (containsBeanReference(item)) {
+                    return true;
+                }
+            }
+        } else if (value instanceof Collection) {
+            for (Object item : (Collection<?>) value) {
+                if (containsBeanReference(item)) {
+                    return true;
+                }
+            }
+        } else if (value instanceof Map) {
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+                if (containsBeanReference(entry.getKey()) || containsBeanReference(entry.getValue())) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    String getBeanName() {
+        return beanName;
+    }
+
+    BeanDefinition getBeanDefinition() {
+        return beanDefinition;
+    }
+
+    Constructor<?> getConstructor() {
+        return constructor;
+    }
+
+    Method getFactoryMethod() {
+        return factoryMethod;
+    }
+
+    String getFactoryBeanName() {
+        return factoryBeanName;
+    }
+
+    Object[] getArgumentDefinitions() {
+        return argumentDefinitions;
+    }
+
+    Object[] getConstantArguments() {
+        return constantArguments;
+    }
+
+    boolean hasReferences() {
+        return hasReferences;
+    }
+
+    InjectionMetadata getInjectionMetadata() {
+        return injectionMetadata;
+    }
+
+    BeanPostProcessor[] getBeanPostProcessors() {
+        return beanPostProcessors;
+    }
+}
@@ -0,0 +1,58 @@
+package com.study.spring.aop.beans.factory;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * @ClassName SlowBeanWatchdog
+ * @Description 慢Bean看门狗：Bean 开始创建时登记一个延时任务，超过阈值仍未创建完成时打印创建线程当前的堆栈，
+ *              创建完成时取消任务。只有一个守护线程，不会阻止JVM退出。
+ * @Author liqiang
+ * @Date 2025/10/24 10:40
+ */
+@Slf4j
+class SlowBeanWatchdog {
+
+    private static final AtomicInteger COUNTER = new AtomicInteger();
+
+    private final ScheduledThreadPoolExecutor scheduler;
+
+    SlowBeanWatchdog() {
+        this.scheduler = new ScheduledThreadPoolExecutor(1, r -> {
+            Thread thread = new Thread(r, "slow-bean-watchdog-" + COUNTER.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        // 绝大多数Bean会在阈值内创建完成，取消的任务立即移出队列
+        this.scheduler.setRemoveOnCancelPolicy(true);
+    }
+
+    /**
+     * 登记一个正在创建的Bean
+     *
+     * @return 创建完成后需要取消的任务
+     */
+    ScheduledFuture<?> watch(String beanName, Thread creatingThread, long thresholdMillis) {
+        long start = System.nanoTime();
+        return this.scheduler.schedule(() -> this.reportSlowBean(beanName, creatingThread, start, thresholdMillis),
+                thresholdMillis, TimeUnit.MILLISECONDS);
+    }
+
+    private void reportSlowBean(String beanName, Thread creatingThread, long start, long thresholdMillis) {
+        StackTraceElement[] stackTrace = creatingThread.getStackTrace();
+        StringBuilder sb = new StringBuilder();
+        for (StackTraceElement element : stackTrace) {
+            sb.append(System.lineSeparator()).append("\tat ").append(element);
+        }
+        log.warn("创建Bean[{}]已耗时{}ms，超过阈值{}ms，线程[{}]当前堆栈：{}", beanName,
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), thresholdMillis, creatingThread.getName(), sb);
+    }
+
+    void shutdown() {
+        this.scheduler.shutdownNow();
+    }
+}
@@ -0,0 +1,443 @@
+package com.study.spring.aop.beans.factory;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @ClassName StartupMetrics
+ * @Description Bean 创建耗时统计：doCreateInstance 按阶段（实例化、属性依赖注入、初始化前处理、初始化方法、初始化后处理/代理）
+ *              记录每个Bean的墙钟时间和CPU时间，可按耗时排序查询，找出拖慢 refresh 的Bean。
+ *              <p>
+ *              阶段耗时包含其中创建的依赖Bean的耗时（如属性依赖注入阶段触发创建的Bean），
+ *              getSelfWallNanos/getSelfCpuNanos 扣除了依赖Bean的耗时，默认按自身墙钟时间排序。
+ *              等待其他线程创建单例（单例创建锁）的时间不计入阶段耗时，单独记录在 getLockWaitNanos 中。
+ *              <p>
+ *              默认不统计，通过 -Dspring.startup.metrics=true 或 setEnabled(true) 开启。
+ *              <p>
+ *              设置了慢Bean阈值时，单个Bean创建超过阈值后由看门狗线程打印创建线程的堆栈。
+ * @Author liqiang
+ * @Date 2025/10/24 10:05
+ */
+public class StartupMetrics {
+
+    /**
+     * Bean 创建的阶段
+     */
+    public enum Phase {
+        INSTANTIATE("实例化"),
+        PROPERTY_DI("属性依赖注入"),
+        BEFORE_INITIALIZATION("初始化前处理"),
+        INIT_METHOD("初始化方法"),
+        AFTER_INITIALIZATION("初始化后处理");
+
+        private final String description;
+
+        Phase(String description) {
+            this.description = description;
+        }
+
+        public String getDescription() {
+            return description;
+        }
+    }
+
+    private static final Phase[] PHASES = Phase.values();
+
+    private static final ThreadMXBean THREAD_MX_BEAN = ManagementFactory.getThreadMXBean();
+
+    // 未开启统计时使用，不做任何记录
+    private static final Recorder NOOP = new Recorder(null, null, null);
+
+    private final Map<String, BeanStartup> beanStartups = new ConcurrentHashMap<>(256);
+
+    // 当前线程正在创建的Bean的记录器，用于把依赖Bean的耗时从外层Bean中扣除
+    private final ThreadLocal<Recorder> currentRecorder = new ThreadLocal<>();
+
+    // JVM 已开启线程CPU时间统计时才记录CPU时间
+    private final boolean cpuTimeSupported;
+
+    // 是否统计，默认关闭，可通过 -Dspring.startup.metrics=true 开启
+    private volatile boolean enabled = Boolean.getBoolean("spring.startup.metrics");
+
+    // 慢Bean阈值（毫秒），小于等于0时不开启看门狗，可通过 -Dspring.startup.slowBeanThresholdMillis 设置
+    private volatile long slowBeanThresholdMillis = Long.getLong("spring.startup.slowBeanThresholdMillis", 0L);
+
+    private volatile SlowBeanWatchdog watchdog;
+
+    public StartupMetrics() {
+        boolean supported = THREAD_MX_BEAN.isCurrentThreadCpuTimeSupported();
+        if (supported && !THREAD_MX_BEAN.isThreadCpuTimeEnabled()) {
+            // 开启是 JVM 全局设置且有开销，只在 -Dspring.startup.cpuTime=true 时主动开启
+            supported = Boolean.getBoolean("spring.startup.cpuTime") && enableThreadCpuTime();
+        }
+        this.cpuTimeSupported = supported;
+    }
+
+    private static boolean enableThreadCpuTime() {
+        try {
+            THREAD_MX_BEAN.setThreadCpuTimeEnabled(true);
+            return true;
+        } catch (UnsupportedOperationException | SecurityException e) {
+            return false;
+        }
+    }
+
+    /**
+     * 开始记录一个Bean的创建，创建结束（包括失败）时必须调用 Recorder#end
+     */
+    Recorder begin(String beanName) {
+        if (!this.enabled) {
+            return NOOP;
+        }
+        long threshold = this.slowBeanThresholdMillis;
+        ScheduledFuture<?> watch = threshold > 0 ? this.getWatchdog().watch(beanName, Thread.currentThread(), threshold) : null;
+        Recorder recorder = new Recorder(this, beanName, watch);
+        recorder.parent = this.currentRecorder.get();
+        this.currentRecorder.set(recorder);
+        return recorder;
+    }
+
+    /**
+     * 记录当前线程等待单例创建锁的时间，计入正在创建的Bean的等待时间，而不是它的阶段耗时
+     */
+    void recordLockWait(long waitNanos) {
+        Recorder recorder = this.currentRecorder.get();
+        if (recorder != null) {
+            recorder.pendingLockWaitNanos += waitNanos;
+        }
+    }
+
+    private SlowBeanWatchdog getWatchdog() {
+        SlowBeanWatchdog current = this.watchdog;
+        if (current == null) {
+            synchronized (this) {
+                current = this.watchdog;
+                if (current == null) {
+                    current = new SlowBeanWatchdog();
+                    this.watchdog = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    private long currentCpuNanos() {
+        return this.cpuTimeSupported ? THREAD_MX_BEAN.getCurrentThreadCpuTime() : 0L;
+    }
+
+    private void publish(Recorder recorder) {
+        this.beanStartups.merge(recorder.beanName, new BeanStartup(recorder), BeanStartup::merge);
+    }
+
+    /**
+     * 按自身墙钟时间从高到低排序的所有Bean的创建耗时
+     */
+    public List<BeanStartup> getBeanStartups() {
+        return this.sorted(Comparator.comparingLong(BeanStartup::getSelfWallNanos).reversed());
+    }
+
+    /**
+     * 按某个阶段的墙钟时间从高到低排序的所有Bean的创建耗时
+     */
+    public List<BeanStartup> getBeanStartups(Phase phase) {
+        return this.sorted(Comparator.comparingLong((BeanStartup startup) -> startup.getWallNanos(phase)).reversed());
+    }
+
+    /**
+     * 自身墙钟时间最高的前 n 个Bean
+     */
+    public List<BeanStartup> getTopBeans(int n) {
+        List<BeanStartup> startups = this.getBeanStartups();
+        return startups.size() > n ? new ArrayList<>(startups.subList(0, n)) : startups;
+    }
+
+    private List<BeanStartup> sorted(Comparator<BeanStartup> comparator) {
+        List<BeanStartup> startups = new ArrayList<>(this.beanStartups.values());
+        startups.sort(comparator);
+        return startups;
+    }
+
+    /**
+     * 获取某个Bean的创建耗时，未记录时返回 null
+     */
+    public BeanStartup getBeanStartup(String beanName) {
+        return this.beanStartups.get(beanName);
+    }
+
+    /**
+     * 所有Bean自身墙钟时间之和
+     */
+    public long getTotalSelfWallNanos() {
+        long total = 0;
+        for (BeanStartup startup : this.beanStartups.values()) {
+            total += startup.getSelfWallNanos();
+        }
+        return total;
+    }
+
+    /**
+     * 生成耗时最高的前 n 个Bean的报告
+     */
+    public String report(int n) {
+        StringBuilder sb = new StringBuilder("Bean创建耗时（自身墙钟/自身CPU，单位ms）共").append(this.beanStartups.size()).append("个Bean：");
+        for (BeanStartup startup : this.getTopBeans(n)) {
+            sb.append(System.lineSeparator()).append("  ").append(startup);
+        }
+        return sb.toString();
+    }
+
+    public void reset() {
+        this.beanStartups.clear();
+    }
+
+    /**
+     * 关闭看门狗线程
+     */
+    public void shutdown() {
+        SlowBeanWatchdog current = this.watchdog;
+        if (current != null) {
+            this.watchdog = null;
+            current.shutdown();
+        }
+    }
+
+    public boolean isCpuTimeSupported() {
+        return cpuTimeSupported;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public long getSlowBeanThresholdMillis() {
+        return slowBeanThresholdMillis;
+    }
+
+    public void setSlowBeanThresholdMillis(long slowBeanThresholdMillis) {
+        this.slowBeanThresholdMillis = slowBeanThresholdMillis;
+    }
+
+    /**
+     * 一次Bean创建的记录器，只在创建线程中使用
+     */
+    static final class Recorder {
+
+        private final StartupMetrics metrics;
+
+        private final String beanName;
+
+        private final ScheduledFuture<?> watch;
+
+        private final long[] wallNanos = new long[PHASES.length];
+
+        private final long[] cpuNanos = new long[PHASES.length];
+
+        private final long startWall;
+
+        private final long startCpu;
+
+        private long lastWall;
+
+        private long lastCpu;
+
+        // 创建期间嵌套创建的依赖Bean的总耗时
+        private long nestedWallNanos;
+
+        private long nestedCpuNanos;
+
+        // 当前阶段中等待单例创建锁的时间，阶段结束时从阶段耗时中扣除
+        private long pendingLockWaitNanos;
+
+        // 创建期间等待单例创建锁的总时间，包括依赖Bean的等待
+        private long lockWaitNanos;
+
+        private Recorder parent;
+
+        private Recorder(StartupMetrics metrics, String beanName, ScheduledFuture<?> watch) {
+            this.metrics = metrics;
+            this.beanName = beanName;
+            this.watch = watch;
+            this.startWall = this.lastWall = metrics == null ? 0L : System.nanoTime();
+            this.startCpu = this.lastCpu = metrics == null ? 0L : metrics.currentCpuNanos();
+        }
+
+        /**
+         * 记录一个阶段结束，耗时为上一个阶段结束到现在
+         */
+        void mark(Phase phase) {
+            if (this.metrics == null) {
+                return;
+            }
+            long wall = System.nanoTime();
+            long cpu = this.metrics.currentCpuNanos();
+            this.wallNanos[phase.ordinal()] += wall - this.lastWall - this.pendingLockWaitNanos;
+            this.cpuNanos[phase.ordinal()] += cpu - this.lastCpu;
+            this.lockWaitNanos += this.pendingLockWaitNanos;
+            this.pendingLockWaitNanos = 0;
+            this.lastWall = wall;
+            this.lastCpu = cpu;
+        }
+
+        /**
+         * 创建结束：取消看门狗，把耗时计入外层Bean的嵌套耗时、等待时间计入外层Bean的等待时间并发布
+         */
+        void end() {
+            if (this.metrics == null) {
+                return;
+            }
+            if (this.watch != null) {
+                this.watch.cancel(false);
+            }
+            if (this.parent != null) {
+                this.metrics.currentRecorder.set(this.parent);
+                this.parent.nestedWallNanos += this.lastWall - this.startWall - this.lockWaitNanos;
+                this.parent.nestedCpuNanos += this.lastCpu - this.startCpu;
+                this.parent.pendingLockWaitNanos += this.lockWaitNanos;
+            } else {
+                this.metrics.currentRecorder.remove();
+            }
+            this.metrics.publish(this);
+        }
+    }
+
+    /**
+     * 一个Bean的创建耗时，多次创建（如原型Bean）时累加
+     */
+    public static final class BeanStartup {
+
+        private final String beanName;
+
+        private final long[] wallNanos;
+
+        private final long[] cpuNanos;
+
+        private final long nestedWallNanos;
+
+        private final long nestedCpuNanos;
+
+        private final long lockWaitNanos;
+
+        private final int creations;
+
+        private BeanStartup(Recorder recorder) {
+            this(recorder.beanName, recorder.wallNanos.clone(), recorder.cpuNanos.clone(),
+                    recorder.nestedWallNanos, recorder.nestedCpuNanos, recorder.lockWaitNanos, 1);
+        }
+
+        private BeanStartup(String beanName, long[] wallNanos, long[] cpuNanos, long nestedWallNanos, long nestedCpuNanos,
+                            long lockWaitNanos, int creations) {
+            this.beanName = beanName;
+            this.wallNanos = wallNanos;
+            this.cpuNanos = cpuNanos;
+            this.nestedWallNanos = nestedWallNanos;
+            this.nestedCpuNanos = nestedCpuNanos;
+            this.lockWaitNanos = lockWaitNanos;
+            this.creations = creations;
+        }
+
+        private static BeanStartup merge(BeanStartup a, BeanStartup b) {
+            long[] wall = new long[PHASES.length];
+            long[] cpu = new long[PHASES.length];
+            for (int i = 0; i < PHASES.length; i++) {
+                wall[i] = a.wallNanos[i] + b.wallNanos[i];
+                cpu[i] = a.cpuNanos[i] + b.cpuNanos[i];
+            }
+            return new BeanStartup(a.beanName, wall, cpu, a.nestedWallNanos + b.nestedWallNanos,
+                    a.nestedCpuNanos + b.nestedCpuNanos, a.lockWaitNanos + b.lockWaitNanos, a.creations + b.creations);
+        }
+
+        public String getBeanName() {
+            return beanName;
+        }
+
+        public long getWallNanos(Phase phase) {
+            return this.wallNanos[phase.ordinal()];
+        }
+
+        public long getCpuNanos(Phase phase) {
+            return this.cpuNanos[phase.ordinal()];
+        }
+
+        /**
+         * 总墙钟时间，包含依赖Bean的创建
+         */
+        public long getTotalWallNanos() {
+            long total = 0;
+            for (long nanos : this.wallNanos) {
+                total += nanos;
+            }
+            return total;
+        }
+
+        /**
+         * 总CPU时间，包含依赖Bean的创建
+         */
+        public long getTotalCpuNanos() {
+            long total = 0;
+            for (long nanos : this.cpuNanos) {
+                total += nanos;
+            }
+            return total;
+        }
+
+        /**
+         * 自身墙钟时间，扣除了依赖Bean的创建
+         */
+        public long getSelfWallNanos() {
+            return this.getTotalWallNanos() - this.nestedWallNanos;
+        }
+
+        /**
+         * 自身CPU时间，扣除了依赖Bean的创建
+         */
+        public long getSelfCpuNanos() {
+            return this.getTotalCpuNanos() - this.nestedCpuNanos;
+        }
+
+        /**
+         * 等待其他线程创建单例的时间（包括依赖Bean的等待），不计入阶段耗时
+         */
+        public long getLockWaitNanos() {
+            return lockWaitNanos;
+        }
+
+        public int getCreations() {
+            return creations;
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder sb = new StringBuilder(this.beanName).append(' ')
+                    .append(millis(this.getSelfWallNanos())).append('/').append(millis(this.getSelfCpuNanos()));
+            if (this.creations > 1) {
+                sb.append(" x").append(this.creations);
+            }
+            sb.append(" [");
+            for (Phase phase : PHASES) {
+                if (phase.ordinal() > 0) {
+                    sb.append(", ");
+                }
+                sb.append(phase.getDescription()).append('=').append(millis(this.getWallNanos(phase)));
+            }
+            if (this.lockWaitNanos > 0) {
+                sb.append(", 等待单例创建锁=").append(millis(this.lockWaitNanos));
+            }
+            return sb.append(']').toString();
+        }
+
+        private static String millis(long nanos) {
+            return String.format("%.3f", nanos / (double) TimeUnit.MILLISECONDS.toNanos(1));
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.study.spring.aop.beans.instantiation;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.lang.reflect.*;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * @ClassName AbstractInstantiatorStrategy
+ * @Description 为每个构造方法/工厂方法生成一次 Instantiator 并缓存，之后的实例化直接调用生成的 Instantiator。
+ *              无法生成时（非 public、类加载器不可见等）退回反射调用。
+ * @Author liqiang
+ * @Date 2025/10/21 09:50
+ */
+@Slf4j
+public abstract class AbstractInstantiatorStrategy implements InstantiationStrategy {
+
+    // 构造方法/工厂方法 -> 生成的调用器
+    private final Map<Executable, Instantiator> instantiators = new ConcurrentHashMap<>(256);
+
+    @Override
+    public Object instantiate(Constructor<?> constructor, Object[] args) throws Throwable {
+        return this.getInstantiator(constructor).newInstance(null, args);
+    }
+
+    @Override
+    public Object instantiate(Method factoryMethod, Object factoryBean, Object[] args) throws Throwable {
+        return this.getInstantiator(factoryMethod).newInstance(factoryBean, args);
+    }
+
+    private Instantiator getInstantiator(Executable executable) {
+        Instantiator instantiator = this.instantiators.get(executable);
+        if (instantiator == null) {
+            instantiator = this.instantiators.computeIfAbsent(executable, this::createInstantiatorOrFallback);
+        }
+        return instantiator;
+    }
+
+    private Instantiator createInstantiatorOrFallback(Executable executable) {
+        if (isPublic(executable)) {
+            try {
+                return this.createInstantiator(executable);
+            } catch (Throwable e) {
+                log.debug("为{}生成Instantiator失败，使用反射调用", executable, e);
+            }
+        }
+        return reflectiveInstantiator(executable);
+    }
+
+    /**
+     * 为 public 的构造方法/工厂方法生成调用器
+     */
+    protected abstract Instantiator createInstantiator(Executable executable) throws Throwable;
+
+    /**
+     * 构造方法/工厂方法、所属类及参数类型是否都是 public 的
+     */
+    protected static boolean isPublic(Executable executable) {
+        if (!Modifier.isPublic(executable.getModifiers()) || !isPublic(executable.getDeclaringClass())) {
+            return false;
+        }
+        for (Class<?> parameterType : executable.getParameterTypes()) {
+            if (!isPublic(parameterType)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isPublic(Class<?> type) {
+        while (type.isArray()) {
+            type = type.getComponentType();
+        }
+        // 内部类还需要外部类也是 public 的
+        for (Class<?> c = type; c != null; c = c.getDeclaringClass()) {
+            if (!c.isPrimitive() && !Modifier.isPublic(c.getModifiers())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static Instantiator reflectiveInstantiator(Executable executable) {
+        if (executable instanceof Constructor) {
+            Constructor<?> constructor = (Constructor<?>) executable;
+            return (target, args) -> constructor.newInstance(args);
+        }
+        Method method = (Method) executable;
+        return method::invoke;
+    }
+}
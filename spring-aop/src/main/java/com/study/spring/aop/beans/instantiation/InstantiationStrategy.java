@@ -0,0 +1,30 @@
+package com.study.spring.aop.beans.instantiation;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+
+/**
+ * @InterfaceName InstantiationStrategy
+ * @Description Bean 实例化策略：BeanFactory 确定好构造方法/工厂方法后，由策略负责真正的调用
+ * @Author liqiang
+ * @Date 2025-10-21 09:40
+ */
+public interface InstantiationStrategy {
+
+    /**
+     * 通过构造方法创建实例
+     *
+     * @param constructor 构造方法
+     * @param args        构造参数，无参时为 null
+     */
+    Object instantiate(Constructor<?> constructor, Object[] args) throws Throwable;
+
+    /**
+     * 通过工厂方法创建实例
+     *
+     * @param factoryMethod 工厂方法
+     * @param factoryBean   工厂Bean实例，静态工厂方法时为 null
+     * @param args          工厂方法参数，无参时为 null
+     */
+    Object instantiate(Method factoryMethod, Object factoryBean, Object[] args) throws Throwable;
+}
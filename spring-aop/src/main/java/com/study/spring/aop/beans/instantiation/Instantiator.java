@@ -0,0 +1,18 @@
+package com.study.spring.aop.beans.instantiation;
+
+/**
+ * @InterfaceName Instantiator
+ * @Description 针对某一个构造方法/工厂方法预先生成的调用器，生成一次后重复使用
+ * @Author liqiang
+ * @Date 2025-10-21 09:42
+ */
+public interface Instantiator {
+
+    /**
+     * 调用构造方法/工厂方法
+     *
+     * @param target 工厂Bean实例，构造方法和静态工厂方法时为 null
+     * @param args   参数，无参时为 null
+     */
+    Object newInstance(Object target, Object[] args) throws Throwable;
+}
@@ -0,0 +1,140 @@
+package com.study.spring.aop.beans.instantiation;
+
+import javassist.*;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Executable;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * @ClassName JavassistInstantiationStrategy
+ * @Description 用 Javassist 为每个构造方法/工厂方法生成一个 Instantiator 实现类，直接 new / 直接调用工厂方法，
+ *              省去每次创建原型Bean时的反射开销。例如 ABean(String, CBean) 生成的方法体为：
+ *              <pre>
+ *              public Object newInstance(Object target, Object[] args) {
+ *                  return new com.study.spring.aop.bean.ABean((java.lang.String) args[0], (com.study.spring.aop.bean.CBean) args[1]);
+ *              }
+ *              </pre>
+ * @Author liqiang
+ * @Date 2025/10/21 10:20
+ */
+public class JavassistInstantiationStrategy extends AbstractInstantiatorStrategy {
+
+    private static final AtomicInteger CLASS_COUNTER = new AtomicInteger();
+
+    @Override
+    protected Instantiator createInstantiator(Executable executable) throws Throwable {
+        ClassLoader classLoader = this.determineClassLoader(executable.getDeclaringClass());
+        String className = Instantiator.class.getPackage().getName() + "." + executable.getDeclaringClass().getSimpleName()
+                + "$$Instantiator$$" + CLASS_COUNTER.incrementAndGet();
+
+        Class<?> instantiatorClass;
+        // ClassPool 不是线程安全的
+        synchronized (this) {
+            ClassPool pool = new ClassPool(true);
+            pool.appendClassPath(new LoaderClassPath(classLoader));
+            CtClass ctClass = pool.makeClass(className);
+            ctClass.addInterface(pool.get(Instantiator.class.getName()));
+            ctClass.addConstructor(CtNewConstructor.defaultConstructor(ctClass));
+            ctClass.addMethod(CtNewMethod.make(this.generateMethodBody(executable), ctClass));
+            instantiatorClass = ctClass.toClass(classLoader, JavassistInstantiationStrategy.class.getProtectionDomain());
+            ctClass.detach();
+        }
+        return (Instantiator) instantiatorClass.newInstance();
+    }
+
+    /**
+     * 生成的类需要同时看得到 Instantiator 接口和目标类
+     */
+    private ClassLoader determineClassLoader(Class<?> targetClass) throws ClassNotFoundException {
+        ClassLoader classLoader = targetClass.getClassLoader();
+        if (classLoader != null && isVisible(Instantiator.class, classLoader)) {
+            return classLoader;
+        }
+        classLoader = Instantiator.class.getClassLoader();
+        if (isVisible(targetClass, classLoader)) {
+            return classLoader;
+        }
+        throw new ClassNotFoundException(targetClass.getName() + " 对 " + classLoader + " 不可见");
+    }
+
+    private static boolean isVisible(Class<?> type, ClassLoader classLoader) {
+        try {
+            return Class.forName(type.getName(), false, classLoader) == type;
+        } catch (ClassNotFoundException e) {
+            return false;
+        }
+    }
+
+    private String generateMethodBody(Executable executable) {
+        StringBuilder body = new StringBuilder("public Object newInstance(Object target, Object[] args) { return ");
+        if (executable instanceof Constructor) {
+            body.append("new ").append(sourceName(executable.getDeclaringClass()));
+        } else {
+            Method method = (Method) executable;
+            Class<?> returnType = method.getReturnType();
+            if (returnType.isPrimitive()) {
+                body.append(sourceName(wrapperOf(returnType))).append(".valueOf(");
+            }
+            if (Modifier.isStatic(method.getModifiers())) {
+                body.append(sourceName(method.getDeclaringClass()));
+            } else {
+                body.append("((").append(sourceName(method.getDeclaringClass())).append(") target)");
+            }
+            body.append('.').append(method.getName());
+        }
+        body.append('(');
+        Class<?>[] parameterTypes = executable.getParameterTypes();
+        for (int i = 0; i < parameterTypes.length; i++) {
+            if (i > 0) {
+                body.append(", ");
+            }
+            body.append(unboxArgument(parameterTypes[i], "args[" + i + "]"));
+        }
+        body.append(')');
+        if (executable instanceof Method && ((Method) executable).getReturnType().isPrimitive()) {
+            body.append(')');
+        }
+        return body.append("; }").toString();
+    }
+
+    /**
+     * Javassist 编译器不支持自动拆箱，需要显式转换
+     */
+    private static String unboxArgument(Class<?> parameterType, String argument) {
+        if (!parameterType.isPrimitive()) {
+            return "(" + sourceName(parameterType) + ") " + argument;
+        }
+        return "((" + sourceName(wrapperOf(parameterType)) + ") " + argument + ")." + parameterType.getName() + "Value()";
+    }
+
+    private static String sourceName(Class<?> type) {
+        if (type.isArray()) {
+            return sourceName(type.getComponentType()) + "[]";
+        }
+        return type.getName();
+    }
+
+    private static Class<?> wrapperOf(Class<?> primitiveType) {
+        if (primitiveType == int.class) {
+            return Integer.class;
+        } else if (primitiveType == long.class) {
+            return Long.class;
+        } else if (primitiveType == boolean.class) {
+            return Boolean.class;
+        } else if (primitiveType == double.class) {
+            return Double.class;
+        } else if (primitiveType == float.class) {
+            return Float.class;
+        } else if (primitiveType == char.class) {
+            return Character.class;
+        } else if (primitiveType == byte.class) {
+            return Byte.class;
+        } else if (primitiveType == short.class) {
+            return Short.class;
+        }
+        throw new IllegalArgumentException("不支持的返回类型：" + primitiveType);
+    }
+}
@@ -0,0 +1,143 @@
+package com.study.spring.aop.beans.instantiation;
+
+import java.lang.invoke.*;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Executable;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * @ClassName LambdaMetafactoryInstantiationStrategy
+ * @Description 用 LambdaMetafactory 把构造方法/工厂方法绑定成 Supplier、Function 等函数式接口，调用时与直接 new 一样可被 JIT 内联。
+ *              参数个数（实例工厂方法含工厂Bean本身）超过3个时，退回 MethodHandle 展开数组参数调用。
+ * @Author liqiang
+ * @Date 2025/10/21 11:05
+ */
+public class LambdaMetafactoryInstantiationStrategy extends AbstractInstantiatorStrategy {
+
+    private static final int MAX_LAMBDA_ARITY = 3;
+
+    private final MethodHandles.Lookup lookup = MethodHandles.lookup();
+
+    @Override
+    protected Instantiator createInstantiator(Executable executable) throws Throwable {
+        MethodHandle handle;
+        if (executable instanceof Constructor) {
+            handle = this.lookup.unreflectConstructor((Constructor<?>) executable);
+        } else {
+            handle = this.lookup.unreflect((Method) executable);
+        }
+        boolean withTarget = executable instanceof Method && !Modifier.isStatic(executable.getModifiers());
+        int arity = handle.type().parameterCount();
+
+        // 生成的 lambda 类定义在本类的类加载器中，要求目标类对其可见
+        if (arity <= MAX_LAMBDA_ARITY && this.isVisible(executable)) {
+            return this.createLambdaInstantiator(handle, arity, withTarget);
+        }
+        return createSpreaderInstantiator(handle, withTarget);
+    }
+
+    @SuppressWarnings("unchecked")
+    private Instantiator createLambdaInstantiator(MethodHandle handle, int arity, boolean withTarget) throws Throwable {
+        Object function = this.bindFunction(handle, arity);
+        switch (arity) {
+            case 0:
+                Supplier<Object> supplier = (Supplier<Object>) function;
+                return (target, args) -> supplier.get();
+            case 1:
+                Function<Object, Object> f1 = (Function<Object, Object>) function;
+                if (withTarget) {
+                    return (target, args) -> f1.apply(target);
+                }
+                return (target, args) -> f1.apply(args[0]);
+            case 2:
+                BiFunction<Object, Object, Object> f2 = (BiFunction<Object, Object, Object>) function;
+                if (withTarget) {
+                    return (target, args) -> f2.apply(target, args[0]);
+                }
+                return (target, args) -> f2.apply(args[0], args[1]);
+            default:
+                TriFunction f3 = (TriFunction) function;
+                if (withTarget) {
+                    return (target, args) -> f3.apply(target, args[0], args[1]);
+                }
+                return (target, args) -> f3.apply(args[0], args[1], args[2]);
+        }
+    }
+
+    private Object bindFunction(MethodHandle handle, int arity) throws Throwable {
+        Class<?> functionType;
+        String methodName;
+        switch (arity) {
+            case 0:
+                functionType = Supplier.class;
+                methodName = "get";
+                break;
+            case 1:
+                functionType = Function.class;
+                methodName = "apply";
+                break;
+            case 2:
+                functionType = BiFunction.class;
+                methodName = "apply";
+                break;
+            default:
+                functionType = TriFunction.class;
+                methodName = "apply";
+        }
+        // 基本类型参数由 lambda 负责拆箱，基本类型返回值负责装箱
+        CallSite callSite = LambdaMetafactory.metafactory(this.lookup, methodName, MethodType.methodType(functionType),
+                MethodType.genericMethodType(arity), handle, handle.type().wrap());
+        return callSite.getTarget().invoke();
+    }
+
+    private static Instantiator createSpreaderInstantiator(MethodHandle handle, boolean withTarget) {
+        int arity = handle.type().parameterCount();
+        if (withTarget) {
+            MethodHandle invoker = handle.asType(MethodType.genericMethodType(arity))
+                    .asSpreader(Object[].class, arity - 1);
+            return (target, args) -> invoker.invokeExact(target, args);
+        }
+        MethodHandle invoker = handle.asType(MethodType.genericMethodType(arity))
+                .asSpreader(Object[].class, arity);
+        return (target, args) -> invoker.invokeExact(args);
+    }
+
+    private boolean isVisible(Executable executable) {
+        ClassLoader classLoader = LambdaMetafactoryInstantiationStrategy.class.getClassLoader();
+        if (!isVisible(executable.getDeclaringClass(), classLoader)) {
+            return false;
+        }
+        for (Class<?> parameterType : executable.getParameterTypes()) {
+            if (!isVisible(parameterType, classLoader)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isVisible(Class<?> type, ClassLoader classLoader) {
+        while (type.isArray()) {
+            type = type.getComponentType();
+        }
+        if (type.isPrimitive()) {
+            return true;
+        }
+        try {
+            return Class.forName(type.getName(), false, classLoader) == type;
+        } catch (ClassNotFoundException e) {
+            return false;
+        }
+    }
+
+    /**
+     * 三个参数的函数式接口，JDK 中没有现成的
+     */
+    @FunctionalInterface
+    interface TriFunction {
+        Object apply(Object a, Object b, Object c);
+    }
+}
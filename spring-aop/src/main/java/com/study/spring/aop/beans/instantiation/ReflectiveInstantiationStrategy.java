@@ -0,0 +1,23 @@
+package com.study.spring.aop.beans.instantiation;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+
+/**
+ * @ClassName ReflectiveInstantiationStrategy
+ * @Description 默认实例化策略：Constructor.newInstance / Method.invoke 反射调用
+ * @Author liqiang
+ * @Date 2025/10/21 09:45
+ */
+public class ReflectiveInstantiationStrategy implements InstantiationStrategy {
+
+    @Override
+    public Object instantiate(Constructor<?> constructor, Object[] args) throws Throwable {
+        return constructor.newInstance(args);
+    }
+
+    @Override
+    public Object instantiate(Method factoryMethod, Object factoryBean, Object[] args) throws Throwable {
+        return factoryMethod.invoke(factoryBean, args);
+    }
+}
@@ -28,4 +28,10 @@ public interface BeanDefinitionRegistry extends AliasRegistry{
      * 判断是否包含BeanDefinition
      */
     boolean containsBeanDefinition(String beanName);
+
+
+    /**
+     * 获取所有BeanDefinition的名称
+     */
+    String[] getBeanDefinitionNames();
 }
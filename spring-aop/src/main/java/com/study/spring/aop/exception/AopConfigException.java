@@ -0,0 +1,20 @@
+package com.study.spring.aop.exception;
+
+/**
+ * @ClassName AopConfigException
+ * @Description AOP配置不合法，无法为Bean创建代理时抛出，例如要求代理目标类但目标类是final的
+ * @Author liqiang
+ * @Date 2025/10/27 09:40
+ */
+public class AopConfigException extends RuntimeException {
+
+    private static final long serialVersionUID = -3276417432870651470L;
+
+    public AopConfigException(String mess) {
+        super(mess);
+    }
+
+    public AopConfigException(String mess, Throwable e) {
+        super(mess, e);
+    }
+}
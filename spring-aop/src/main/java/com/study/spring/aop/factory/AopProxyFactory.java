@@ -17,6 +17,16 @@ public interface AopProxyFactory {
     AopProxy createAopProxy(Object bean, String beanName, List<Advisor> matchAdvisors, BeanFactory beanFactory)
             throws Throwable;
 
+    /**
+     * 在创建Bean之前提前生成代理类，之后创建代理时直接使用。默认不做任何事
+     *
+     * @param beanClass     Bean的类
+     * @param matchAdvisors 匹配该类的Advisor
+     */
+    default void prepareProxyClass(Class<?> beanClass, String beanName, List<Advisor> matchAdvisors, BeanFactory beanFactory)
+            throws Throwable {
+    }
+
     /**
      * 获得默认的AopProxyFactory实例
      *
@@ -1,36 +1,257 @@
 package com.study.spring.aop.factory;
 
+import com.study.spring.aop.AdvisedMethods;
 import com.study.spring.aop.AopProxy;
+import com.study.spring.aop.AopProxyUtils;
 import com.study.spring.aop.CglibDynamicAopProxy;
+import com.study.spring.aop.JavassistAopProxy;
 import com.study.spring.aop.JdkDynamicAopProxy;
 import com.study.spring.aop.advisor.Advisor;
+import com.study.spring.aop.advisor.PointcutAdvisor;
+import com.study.spring.aop.beans.BeanDefinition;
+import com.study.spring.aop.beans.aware.Aware;
 import com.study.spring.aop.beans.factory.BeanFactory;
+import com.study.spring.aop.beans.registry.BeanDefinitionRegistry;
+import com.study.spring.aop.exception.AopConfigException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.ReflectionUtils;
 
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * @ClassName DefaultAopProxyFactory
- * @Description 默认的AOP代理工厂
+ * @Description 默认的AOP代理工厂。选择代理方式：
+ *              1、Bean定义要求代理目标类（proxyTargetClass）时生成子类，目标类不能生成子类则抛出 AopConfigException；
+ *              2、默认生成子类（CGLIB，或开启 useJavassistProxy 时的 Javassist），代理对象仍是Bean的类型，可以按具体类查找、注入；
+ *              3、关闭工厂的 proxyTargetClass 后，Bean实现了有方法的业务接口时使用 JDK 动态代理，代理对象只实现这些接口；
+ *              4、不能生成子类（final 类）但实现了业务接口时使用 JDK 动态代理，否则抛出 AopConfigException；
+ *              代理对象通过 Objenesis 创建，不调用构造方法，Objenesis 不可用时才要求有可用的构造方法。
+ *              Javassist 只覆盖 public 方法，被增强的方法中有非 public 方法时改用 CGLIB。
+ *              每个Bean选择的代理方式会被记录下来。
  * @Author liqiang
  * @Date 2025/9/29 10:38
  */
+@Slf4j
 public class DefaultAopProxyFactory implements AopProxyFactory{
+
+    // 生成子类时是否使用 Javassist 代替 CGLIB，可通过 -Dspring.aop.javassist=true 开启
+    private boolean useJavassistProxy = Boolean.getBoolean("spring.aop.javassist");
+
+    // 是否优先代理目标类，默认开启；可通过 -Dspring.aop.proxyTargetClass=false 关闭，让实现了接口的Bean使用 JDK 动态代理
+    private boolean proxyTargetClass = !"false".equalsIgnoreCase(System.getProperty("spring.aop.proxyTargetClass"));
+
+    // beanName -> 选择的代理方式
+    private final Map<String, ProxyStrategy> proxyStrategies = new ConcurrentHashMap<>();
+
     @Override
     public AopProxy createAopProxy(Object bean, String beanName, List<Advisor> matchAdvisors, BeanFactory beanFactory) throws Throwable {
-        //判断使用JDK动态代理还是CGLIB动态代理
-        if (shouldUseJDKDynamicProxy(bean, beanName)) {
-            return new JdkDynamicAopProxy(beanName, bean, matchAdvisors, beanFactory);
-        } else {
-            return new CglibDynamicAopProxy(beanName, bean, matchAdvisors, beanFactory);
+        ProxyStrategy strategy = this.determineProxyStrategy(bean.getClass(), beanName, matchAdvisors, beanFactory);
+        if (strategy != ProxyStrategy.JDK) {
+            warnAdvisedFinalMethods(bean.getClass(), beanName, matchAdvisors);
+        }
+        if (beanName != null) {
+            this.proxyStrategies.put(beanName, strategy);
+        }
+        if (log.isDebugEnabled()) {
+            log.debug("为bean[{}]选择{}代理。", beanName, strategy);
+        }
+        switch (strategy) {
+            case JDK:
+                return new JdkDynamicAopProxy(beanName, bean, matchAdvisors, beanFactory);
+            case JAVASSIST:
+                return new JavassistAopProxy(beanName, bean, matchAdvisors, beanFactory);
+            default:
+                return new CglibDynamicAopProxy(beanName, bean, matchAdvisors, beanFactory);
         }
     }
 
+    /**
+     * 选择代理方式
+     */
+    ProxyStrategy determineProxyStrategy(Class<?> beanClass, String beanName, List<Advisor> matchAdvisors, BeanFactory beanFactory) {
+        BeanDefinition bd = getBeanDefinition(beanName, beanFactory);
+        boolean requireTargetClass = bd != null && bd.isProxyTargetClass();
+        boolean hasProxyInterfaces = hasProxyInterfaces(beanClass);
 
-    private boolean shouldUseJDKDynamicProxy(Object bean, String beanName) {
-        // 如何判断？
-        // 这样可以吗：有实现接口就用JDK,没有就用cglib？
-        // 请同学们实现
+        if (!requireTargetClass && !this.proxyTargetClass && hasProxyInterfaces) {
+            return ProxyStrategy.JDK;
+        }
+        String reason = cannotSubclassReason(beanClass, bd);
+        if (reason != null) {
+            if (!requireTargetClass && hasProxyInterfaces) {
+                log.debug("bean[{}]无法生成子类代理（{}），改用JDK动态代理。", beanName, reason);
+                return ProxyStrategy.JDK;
+            }
+            throw new AopConfigException("无法为bean[" + beanName + "]创建代理：" + reason
+                    + (requireTargetClass ? "，但Bean定义要求代理目标类" : "，且没有实现可代理的接口"));
+        }
+        if (this.useJavassistProxy && Modifier.isPublic(beanClass.getModifiers())) {
+            if (!hasAdvisedNonPublicMethod(beanClass, matchAdvisors)) {
+                return ProxyStrategy.JAVASSIST;
+            }
+            log.debug("bean[{}]有被增强的非public方法，Javassist代理无法覆盖，改用CGLIB。", beanName);
+        }
+        return ProxyStrategy.CGLIB;
+    }
+
+    /**
+     * 子类可以覆盖的非 public 方法（protected、包访问权限）中是否有被增强的
+     */
+    private static boolean hasAdvisedNonPublicMethod(Class<?> beanClass, List<Advisor> matchAdvisors) {
+        if (matchAdvisors == null || matchAdvisors.isEmpty()) {
+            return false;
+        }
+        AdvisedMethods advisedMethods = AdvisedMethods.forClass(beanClass, matchAdvisors);
+        for (Method method : ReflectionUtils.getAllDeclaredMethods(beanClass)) {
+            int modifiers = method.getModifiers();
+            if (Modifier.isPublic(modifiers) || Modifier.isPrivate(modifiers) || Modifier.isStatic(modifiers)
+                    || Modifier.isFinal(modifiers) || method.getDeclaringClass() == Object.class) {
+                continue;
+            }
+            if (advisedMethods.isAdvised(method)) {
+                return true;
+            }
+        }
         return false;
     }
 
+    /**
+     * 按将要选择的代理方式提前生成代理类。还不能确定代理方式（例如构造方法要到创建Bean时才解析）的类跳过，创建代理时再生成
+     */
+    @Override
+    public void prepareProxyClass(Class<?> beanClass, String beanName, List<Advisor> matchAdvisors, BeanFactory beanFactory) {
+        ProxyStrategy strategy;
+        try {
+            strategy = this.determineProxyStrategy(beanClass, beanName, matchAdvisors, beanFactory);
+        } catch (AopConfigException e) {
+            log.debug("暂时无法为bean[{}]准备代理类：{}", beanName, e.getMessage());
+            return;
+        }
+        ClassLoader classLoader = beanClass.getClassLoader();
+        switch (strategy) {
+            case JDK:
+                Proxy.getProxyClass(classLoader, ClassUtils.getAllInterfacesForClass(beanClass, classLoader));
+                break;
+            case JAVASSIST:
+                JavassistAopProxy.prepareProxyClass(beanClass, classLoader);
+                break;
+            default:
+                CglibDynamicAopProxy.prepareProxyClass(beanClass, matchAdvisors, classLoader);
+        }
+    }
+
+    private static BeanDefinition getBeanDefinition(String beanName, BeanFactory beanFactory) {
+        if (beanName == null || !(beanFactory instanceof BeanDefinitionRegistry)) {
+            return null;
+        }
+        BeanDefinitionRegistry registry = (BeanDefinitionRegistry) beanFactory;
+        // 不是别名时 getOriginalName 返回 null
+        String originalName = registry.getOriginalName(beanName);
+        return registry.getBeanDefinition(originalName != null ? originalName : beanName);
+    }
+
+    /**
+     * 是否实现了可代理的接口：有方法，且不是 Aware、AutoCloseable 这类容器回调接口
+     */
+    private static boolean hasProxyInterfaces(Class<?> beanClass) {
+        for (Class<?> ifc : ClassUtils.getAllInterfacesForClassAsSet(beanClass)) {
+            if (ifc.getMethods().length > 0 && !Aware.class.isAssignableFrom(ifc) && !AutoCloseable.class.isAssignableFrom(ifc)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 不能生成子类的原因，可以生成时返回 null
+     */
+    private static String cannotSubclassReason(Class<?> beanClass, BeanDefinition bd) {
+        if (Modifier.isFinal(beanClass.getModifiers())) {
+            return beanClass.getName() + " 是final类";
+        }
+        if (AopProxyUtils.isObjenesisWorthTrying()) {
+            // CGLIB、Javassist 代理对象都通过 Objenesis 创建，不需要构造方法
+            return null;
+        }
+        try {
+            beanClass.getConstructor();
+            return null;
+        } catch (NoSuchMethodException e) {
+            // 没有公共无参构造方法，退回调用构造方法创建代理对象时需用Bean定义解析出的构造方法
+        }
+        if (bd == null || bd.getConstructor() == null) {
+            return beanClass.getName() + " 没有公共无参构造方法，Bean定义也没有可用的构造方法";
+        }
+        return null;
+    }
+
+    /**
+     * 子类代理无法增强 final 方法，切点匹配到 final 方法时给出警告
+     */
+    private static void warnAdvisedFinalMethods(Class<?> beanClass, String beanName, List<Advisor> matchAdvisors) {
+        if (!log.isWarnEnabled() || matchAdvisors == null) {
+            return;
+        }
+        for (Method method : beanClass.getMethods()) {
+            if (!Modifier.isFinal(method.getModifiers()) || Modifier.isStatic(method.getModifiers())
+                    || method.getDeclaringClass() == Object.class) {
+                continue;
+            }
+            for (Advisor advisor : matchAdvisors) {
+                if (advisor instanceof PointcutAdvisor
+                        && ((PointcutAdvisor) advisor).getPointcut().matchMethod(method, beanClass)) {
+                    log.warn("bean[{}]的final方法{}无法被子类代理增强", beanName, method);
+                    break;
+                }
+            }
+        }
+    }
+
+    /**
+     * 获取bean选择的代理方式，没有为它创建过代理时返回 null
+     */
+    public ProxyStrategy getProxyStrategy(String beanName) {
+        return this.proxyStrategies.get(beanName);
+    }
+
+    /**
+     * 所有创建过代理的bean及其代理方式
+     */
+    public Map<String, ProxyStrategy> getProxyStrategies() {
+        return Collections.unmodifiableMap(this.proxyStrategies);
+    }
+
+    /**
+     * 按代理方式分组的bean名称
+     */
+    public Map<ProxyStrategy, List<String>> getBeansByStrategy() {
+        Map<ProxyStrategy, List<String>> beans = new EnumMap<>(ProxyStrategy.class);
+        this.proxyStrategies.forEach((beanName, strategy) -> beans.computeIfAbsent(strategy, s -> new ArrayList<>()).add(beanName));
+        return beans;
+    }
+
+    public boolean isUseJavassistProxy() {
+        return useJavassistProxy;
+    }
+
+    public void setUseJavassistProxy(boolean useJavassistProxy) {
+        this.useJavassistProxy = useJavassistProxy;
+    }
+
+    public boolean isProxyTargetClass() {
+        return proxyTargetClass;
+    }
+
+    public void setProxyTargetClass(boolean proxyTargetClass) {
+        this.proxyTargetClass = proxyTargetClass;
+    }
 }
@@ -0,0 +1,25 @@
+package com.study.spring.aop.factory;
+
+/**
+ * @ClassName ProxyStrategy
+ * @Description 创建代理的方式
+ * @Author liqiang
+ * @Date 2025/10/27 09:45
+ */
+public enum ProxyStrategy {
+
+    /**
+     * JDK 动态代理，只代理接口
+     */
+    JDK,
+
+    /**
+     * CGLIB 生成目标类的子类
+     */
+    CGLIB,
+
+    /**
+     * Javassist 生成目标类的子类，方法直接调用目标对象
+     */
+    JAVASSIST
+}
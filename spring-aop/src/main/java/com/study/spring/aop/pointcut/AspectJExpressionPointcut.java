@@ -3,42 +3,199 @@ package com.study.spring.aop.pointcut;
 import org.aspectj.weaver.tools.PointcutExpression;
 import org.aspectj.weaver.tools.PointcutParser;
 import org.aspectj.weaver.tools.ShadowMatch;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.ConcurrentReferenceHashMap;
 
+import java.lang.ref.WeakReference;
 import java.lang.reflect.Method;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Objects;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * @ClassName AspectJExpressionPointcut
- * @Description 切点表达式
+ * @Description 切点表达式。同一类加载器下相同的表达式只解析一次，由所有切点共用，匹配结果也缓存在共用的表达式上：
+ *              类 -> couldMatchJoinPointsInType 结果，(目标类, 方法) -> ShadowMatch
  * @Author liqiang
  * @Date 2025/9/28 15:41
  */
 public class AspectJExpressionPointcut implements Pointcut {
 
-    private static PointcutParser pointcutParser = PointcutParser.getPointcutParserSupportingAllPrimitivesAndUsingContextClassloaderForResolution();
+    // 类加载器 -> 解析器及已解析的表达式。解析器会引用类加载器，值也只能弱引用，否则键永远无法回收；
+    // 由使用它的切点强引用，切点都回收后整个条目随类加载器一起释放
+    private static final Map<ClassLoader, WeakReference<ParsedExpressions>> expressionCache = Collections.synchronizedMap(new WeakHashMap<>());
 
     private String expression;
 
-    private PointcutExpression pointcutExpression;
+    private ParsedExpressions parsedExpressions;
 
+    private SharedExpression sharedExpression;
 
+
+    /**
+     * 使用线程上下文类加载器解析，与原来的 UsingContextClassloaderForResolution 解析器一致
+     */
     public AspectJExpressionPointcut(String expression) {
+        this(expression, Thread.currentThread().getContextClassLoader());
+    }
+
+    /**
+     * @param classLoader 解析表达式中类型使用的类加载器
+     */
+    public AspectJExpressionPointcut(String expression, ClassLoader classLoader) {
         super();
         this.expression = expression;
-        pointcutExpression = pointcutParser.parsePointcutExpression(expression);
+        this.parsedExpressions = getParsedExpressions(classLoader);
+        this.sharedExpression = this.parsedExpressions.get(expression);
+    }
+
+    private static ParsedExpressions getParsedExpressions(ClassLoader classLoader) {
+        synchronized (expressionCache) {
+            WeakReference<ParsedExpressions> reference = expressionCache.get(classLoader);
+            ParsedExpressions parsed = reference != null ? reference.get() : null;
+            if (parsed == null) {
+                parsed = new ParsedExpressions(classLoader);
+                expressionCache.put(classLoader, new WeakReference<>(parsed));
+            }
+            return parsed;
+        }
     }
 
     @Override
     public boolean matchClass(Class<?> targetClass) {
-        return pointcutExpression.couldMatchJoinPointsInType(targetClass);
+        return this.sharedExpression.couldMatchJoinPointsInType(targetClass);
     }
 
     @Override
     public boolean matchMethod(Method method, Class<?> targetClass) {
-        ShadowMatch shadowMatch = pointcutExpression.matchesMethodExecution(method);
-        return shadowMatch.alwaysMatches();
+        return this.sharedExpression.getShadowMatch(method, targetClass).alwaysMatches();
     }
 
     public String getExpression() {
         return expression;
     }
+
+    public PointcutExpression getPointcutExpression() {
+        return this.sharedExpression.pointcutExpression;
+    }
+
+    /**
+     * 一个类加载器的解析器和已解析的表达式
+     */
+    private static final class ParsedExpressions {
+
+        private final PointcutParser pointcutParser;
+
+        private final Map<String, SharedExpression> expressions = new ConcurrentHashMap<>(64);
+
+        ParsedExpressions(ClassLoader classLoader) {
+            this.pointcutParser = PointcutParser.getPointcutParserSupportingAllPrimitivesAndUsingSpecifiedClassloaderForResolution(classLoader);
+        }
+
+        SharedExpression get(String expression) {
+            SharedExpression shared = this.expressions.get(expression);
+            if (shared == null) {
+                // PointcutParser 不是线程安全的
+                synchronized (this.pointcutParser) {
+                    shared = this.expressions.computeIfAbsent(expression,
+                            e -> new SharedExpression(this.pointcutParser.parsePointcutExpression(e)));
+                }
+            }
+            return shared;
+        }
+    }
+
+    /**
+     * 共用的已解析表达式及其匹配结果缓存。缓存为软引用，不会让目标类一直无法回收
+     */
+    private static final class SharedExpression {
+
+        private final PointcutExpression pointcutExpression;
+
+        private final Map<Class<?>, Boolean> typeMatchCache = new ConcurrentReferenceHashMap<>(64);
+
+        private final Map<MethodKey, ShadowMatch> shadowMatchCache = new ConcurrentReferenceHashMap<>(256);
+
+        SharedExpression(PointcutExpression pointcutExpression) {
+            this.pointcutExpression = pointcutExpression;
+        }
+
+        boolean couldMatchJoinPointsInType(Class<?> targetClass) {
+            Boolean match = this.typeMatchCache.get(targetClass);
+            if (match == null) {
+                // AspectJ 的匹配不是线程安全的，未命中时串行计算
+                synchronized (this) {
+                    match = this.typeMatchCache.get(targetClass);
+                    if (match == null) {
+                        match = this.pointcutExpression.couldMatchJoinPointsInType(targetClass);
+                        this.typeMatchCache.put(targetClass, match);
+                    }
+                }
+            }
+            return match;
+        }
+
+        ShadowMatch getShadowMatch(Method method, Class<?> targetClass) {
+            MethodKey key = new MethodKey(method, targetClass);
+            ShadowMatch shadowMatch = this.shadowMatchCache.get(key);
+            if (shadowMatch == null) {
+                synchronized (this) {
+                    shadowMatch = this.shadowMatchCache.get(key);
+                    if (shadowMatch == null) {
+                        shadowMatch = this.matchesMethodExecution(method, targetClass);
+                        this.shadowMatchCache.put(key, shadowMatch);
+                    }
+                }
+            }
+            return shadowMatch;
+        }
+
+        private ShadowMatch matchesMethodExecution(Method method, Class<?> targetClass) {
+            // 接口方法先按目标类上的实现方法匹配，表达式写的是目标类时也能匹配；
+            // 不匹配时再按接口方法本身匹配，只写在接口方法上的注解等仍能匹配
+            Method targetMethod = targetClass != null ? ClassUtils.getMostSpecificMethod(method, targetClass) : method;
+            ShadowMatch shadowMatch = this.pointcutExpression.matchesMethodExecution(targetMethod);
+            if (!shadowMatch.alwaysMatches() && targetMethod != method) {
+                ShadowMatch original = this.pointcutExpression.matchesMethodExecution(method);
+                if (original.alwaysMatches()) {
+                    shadowMatch = original;
+                }
+            }
+            return shadowMatch;
+        }
+    }
+
+    /**
+     * 匹配结果缓存的键：方法、目标类
+     */
+    private static final class MethodKey {
+
+        private final Method method;
+
+        private final Class<?> targetClass;
+
+        MethodKey(Method method, Class<?> targetClass) {
+            this.method = method;
+            this.targetClass = targetClass;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof MethodKey)) {
+                return false;
+            }
+            MethodKey other = (MethodKey) obj;
+            return this.method.equals(other.method) && this.targetClass == other.targetClass;
+        }
+
+        @Override
+        public int hashCode() {
+            return this.method.hashCode() * 31 + Objects.hashCode(this.targetClass);
+        }
+    }
 }
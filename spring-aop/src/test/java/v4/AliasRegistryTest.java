@@ -0,0 +1,65 @@
+package v4;
+
+import com.study.spring.aop.beans.GenericBeanDefinition;
+import com.study.spring.aop.beans.factory.DefaultBeanFactory;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.HashSet;
+
+/**
+ * @ClassName AliasRegistryTest
+ * @Description 别名测试：别名链解析、反向索引、循环检测、别名重新指向
+ * @Author liqiang
+ * @Date 2025/10/23 09:40
+ */
+public class AliasRegistryTest {
+
+    @Test
+    public void testChainedAliases() throws Throwable {
+        DefaultBeanFactory bf = new DefaultBeanFactory();
+        bf.registerBeanDefinition("dataSource", definition());
+        bf.registerBeanDefinition("other", definition());
+
+        bf.registerAlias("dataSource", "ds");
+        bf.registerAlias("ds", "legacyDs");
+        bf.registerAlias("legacyDs", "veryLegacyDs");
+
+        Object dataSource = bf.getBean("dataSource");
+        Assert.assertSame(dataSource, bf.getBean("ds"));
+        Assert.assertSame(dataSource, bf.getBean("veryLegacyDs"));
+        Assert.assertEquals("dataSource", bf.getOriginalName("veryLegacyDs"));
+        Assert.assertTrue(bf.isAlias("legacyDs"));
+        Assert.assertFalse(bf.isAlias("dataSource"));
+        Assert.assertEquals(new HashSet<>(Arrays.asList("ds", "legacyDs", "veryLegacyDs")),
+                new HashSet<>(Arrays.asList(bf.getAliases("dataSource"))));
+        Assert.assertEquals(new HashSet<>(Arrays.asList("legacyDs", "veryLegacyDs")),
+                new HashSet<>(Arrays.asList(bf.getAliases("ds"))));
+
+        // 别名重新指向其他Bean，别名链一起跟随
+        bf.registerAlias("other", "ds");
+        Assert.assertSame(bf.getBean("other"), bf.getBean("veryLegacyDs"));
+        Assert.assertEquals(0, bf.getAliases("dataSource").length);
+        Assert.assertEquals(3, bf.getAliases("other").length);
+
+        bf.removeAlias("legacyDs");
+        Assert.assertFalse(bf.isAlias("legacyDs"));
+        Assert.assertEquals(Arrays.asList("ds"), Arrays.asList(bf.getAliases("other")));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testCircularAlias() throws Throwable {
+        DefaultBeanFactory bf = new DefaultBeanFactory();
+        bf.registerBeanDefinition("dataSource", definition());
+        bf.registerAlias("dataSource", "a");
+        bf.registerAlias("a", "b");
+        bf.registerAlias("b", "a");
+    }
+
+    private static GenericBeanDefinition definition() {
+        GenericBeanDefinition bd = new GenericBeanDefinition();
+        bd.setBeanClass(Object.class);
+        return bd;
+    }
+}
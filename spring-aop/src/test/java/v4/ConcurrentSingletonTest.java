@@ -0,0 +1,124 @@
+package v4;
+
+import com.study.spring.aop.beans.GenericBeanDefinition;
+import com.study.spring.aop.beans.PropertyValue;
+import com.study.spring.aop.beans.BeanReference;
+import com.study.spring.aop.beans.factory.DefaultBeanFactory;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+
+/**
+ * @ClassName ConcurrentSingletonTest
+ * @Description 单例按Bean加锁创建测试：慢初始化的Bean不阻塞其他单例，跨线程属性循环依赖不死锁
+ * @Author liqiang
+ * @Date 2025/10/20 10:12
+ */
+public class ConcurrentSingletonTest {
+
+    @Test(timeout = 10000)
+    public void testSlowInitDoesNotBlockOtherSingletons() throws Throwable {
+        DefaultBeanFactory bf = new DefaultBeanFactory();
+
+        GenericBeanDefinition bd = new GenericBeanDefinition();
+        bd.setBeanClass(SlowInitBean.class);
+        bd.setInitMethodName("init");
+        bf.registerBeanDefinition("slowBean", bd);
+
+        bd = new GenericBeanDefinition();
+        bd.setBeanClass(PlainBean.class);
+        bf.registerBeanDefinition("plainBean", bd);
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<Object> slow = executor.submit(() -> getBean(bf, "slowBean"));
+            Assert.assertTrue(SlowInitBean.INIT_STARTED.await(5, TimeUnit.SECONDS));
+
+            // slowBean 还在初始化，创建无关的单例不应被阻塞
+            Future<Object> plain = executor.submit(() -> getBean(bf, "plainBean"));
+            Assert.assertNotNull(plain.get(2, TimeUnit.SECONDS));
+            Assert.assertFalse(slow.isDone());
+
+            SlowInitBean.RELEASE_INIT.countDown();
+            Assert.assertSame(slow.get(5, TimeUnit.SECONDS), bf.getBean("slowBean"));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test(timeout = 10000)
+    public void testCrossThreadPropertyCirculation() throws Throwable {
+        DefaultBeanFactory bf = new DefaultBeanFactory();
+
+        GenericBeanDefinition bd = new GenericBeanDefinition();
+        bd.setBeanClass(XBean.class);
+        List<PropertyValue> propertyValues = new ArrayList<>();
+        propertyValues.add(new PropertyValue("y", new BeanReference("ybean")));
+        bd.setPropertyValues(propertyValues);
+        bf.registerBeanDefinition("xbean", bd);
+
+        bd = new GenericBeanDefinition();
+        bd.setBeanClass(YBean.class);
+        propertyValues = new ArrayList<>();
+        propertyValues.add(new PropertyValue("x", new BeanReference("xbean")));
+        bd.setPropertyValues(propertyValues);
+        bf.registerBeanDefinition("ybean", bd);
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            // ybean 所在线程先持有 ybean 的创建锁，xbean 所在线程随后持有 xbean 的创建锁，两者互相等待
+            Future<Object> y = executor.submit(() -> getBean(bf, "ybean"));
+            Assert.assertTrue(YBean.CONSTRUCTED.await(5, TimeUnit.SECONDS));
+            Future<Object> x = executor.submit(() -> getBean(bf, "xbean"));
+
+            XBean xbean = (XBean) x.get(5, TimeUnit.SECONDS);
+            YBean ybean = (YBean) y.get(5, TimeUnit.SECONDS);
+            Assert.assertSame(ybean, xbean.y);
+            Assert.assertSame(xbean, ybean.x);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static Object getBean(DefaultBeanFactory bf, String name) throws Exception {
+        try {
+            return bf.getBean(name);
+        } catch (Exception e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new ExecutionException(e);
+        }
+    }
+
+    public static class SlowInitBean {
+        static final CountDownLatch INIT_STARTED = new CountDownLatch(1);
+        static final CountDownLatch RELEASE_INIT = new CountDownLatch(1);
+
+        public void init() throws InterruptedException {
+            INIT_STARTED.countDown();
+            RELEASE_INIT.await();
+        }
+    }
+
+    public static class PlainBean {
+    }
+
+    public static class XBean {
+        private YBean y;
+    }
+
+    public static class YBean {
+        static final CountDownLatch CONSTRUCTED = new CountDownLatch(1);
+
+        private XBean x;
+
+        public YBean() throws InterruptedException {
+            CONSTRUCTED.countDown();
+            // 给 xbean 所在线程时间拿到 xbean 的创建锁并开始等待 ybean
+            Thread.sleep(300);
+        }
+    }
+}
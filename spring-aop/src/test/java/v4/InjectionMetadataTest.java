@@ -0,0 +1,93 @@
+package v4;
+
+import com.study.spring.aop.beans.BeanReference;
+import com.study.spring.aop.beans.GenericBeanDefinition;
+import com.study.spring.aop.beans.PropertyValue;
+import com.study.spring.aop.beans.factory.DefaultBeanFactory;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * @ClassName InjectionMetadataTest
+ * @Description 注入计划测试：父类字段注入、原型Bean复用注入计划、初始化和销毁方法
+ * @Author liqiang
+ * @Date 2025/10/21 17:20
+ */
+public class InjectionMetadataTest {
+
+    @Test
+    public void testInjectionPlan() throws Throwable {
+        DefaultBeanFactory bf = new DefaultBeanFactory();
+
+        GenericBeanDefinition bd = new GenericBeanDefinition();
+        bd.setBeanClass(ChildBean.class);
+        bd.setScope(GenericBeanDefinition.SCOPE_PROTOTYPE);
+        bd.setInitMethodName("init");
+        List<PropertyValue> propertyValues = new ArrayList<>();
+        // name 在父类中声明
+        propertyValues.add(new PropertyValue("name", "child"));
+        propertyValues.add(new PropertyValue("count", 3));
+        propertyValues.add(new PropertyValue("dependency", new BeanReference("lifecycleBean")));
+        bd.setPropertyValues(propertyValues);
+        bf.registerBeanDefinition("childBean", bd);
+
+        bd = new GenericBeanDefinition();
+        bd.setBeanClass(LifecycleBean.class);
+        bd.setInitMethodName("init");
+        bd.setDestroyMethodName("destroy");
+        bf.registerBeanDefinition("lifecycleBean", bd);
+
+        ChildBean first = (ChildBean) bf.getBean("childBean");
+        ChildBean second = (ChildBean) bf.getBean("childBean");
+        Assert.assertNotSame(first, second);
+        for (ChildBean child : new ChildBean[]{first, second}) {
+            Assert.assertEquals("child", child.getName());
+            Assert.assertEquals(3, child.count);
+            Assert.assertTrue(child.initialized);
+            Assert.assertSame(bf.getBean("lifecycleBean"), child.dependency);
+        }
+
+        LifecycleBean lifecycleBean = (LifecycleBean) bf.getBean("lifecycleBean");
+        Assert.assertTrue(lifecycleBean.initialized);
+        Assert.assertFalse(lifecycleBean.destroyed);
+        bf.close();
+        Assert.assertTrue(lifecycleBean.destroyed);
+    }
+
+    public static class BaseBean {
+        private String name;
+
+        public String getName() {
+            return name;
+        }
+    }
+
+    public static class ChildBean extends BaseBean {
+        private int count;
+
+        private LifecycleBean dependency;
+
+        private boolean initialized;
+
+        public void init() {
+            this.initialized = true;
+        }
+    }
+
+    public static class LifecycleBean {
+        private boolean initialized;
+
+        private boolean destroyed;
+
+        public void init() {
+            this.initialized = true;
+        }
+
+        public void destroy() {
+            this.destroyed = true;
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package v4;
+
+import com.study.spring.aop.beans.GenericBeanDefinition;
+import com.study.spring.aop.beans.factory.DefaultBeanFactory;
+import com.study.spring.aop.beans.instantiation.InstantiationStrategy;
+import com.study.spring.aop.beans.instantiation.JavassistInstantiationStrategy;
+import com.study.spring.aop.beans.instantiation.LambdaMetafactoryInstantiationStrategy;
+import com.study.spring.aop.beans.instantiation.ReflectiveInstantiationStrategy;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * @ClassName InstantiationStrategyTest
+ * @Description 三种实例化策略：构造方法、静态工厂方法、工厂Bean方法（含基本类型参数、多参数）创建实例的结果一致
+ * @Author liqiang
+ * @Date 2025/10/21 14:30
+ */
+public class InstantiationStrategyTest {
+
+    private static final List<InstantiationStrategy> STRATEGIES = Arrays.asList(new ReflectiveInstantiationStrategy(),
+            new JavassistInstantiationStrategy(), new LambdaMetafactoryInstantiationStrategy());
+
+    @Test
+    public void testConstructor() throws Throwable {
+        for (InstantiationStrategy strategy : STRATEGIES) {
+            DefaultBeanFactory bf = createBeanFactory(strategy);
+
+            // 原型Bean多次创建，第二次起走缓存的调用器
+            for (int i = 0; i < 3; i++) {
+                PointBean point = (PointBean) bf.getBean("point");
+                Assert.assertEquals(strategy.getClass().getSimpleName(), "p", point.name);
+                Assert.assertEquals(3, point.x);
+                Assert.assertEquals(4L, point.y);
+            }
+
+            WideBean wide = (WideBean) bf.getBean("wide");
+            Assert.assertEquals("abcd", wide.value);
+        }
+    }
+
+    @Test
+    public void testFactoryMethod() throws Throwable {
+        for (InstantiationStrategy strategy : STRATEGIES) {
+            DefaultBeanFactory bf = createBeanFactory(strategy);
+
+            PointBean point = (PointBean) bf.getBean("staticPoint");
+            Assert.assertEquals(strategy.getClass().getSimpleName(), "s", point.name);
+            Assert.assertEquals(7, point.x);
+
+            point = (PointBean) bf.getBean("factoryPoint");
+            Assert.assertEquals(strategy.getClass().getSimpleName(), "factory", point.name);
+            Assert.assertEquals(5, point.x);
+            Assert.assertEquals(5L, point.y);
+
+            Assert.assertEquals(9, bf.getBean("primitiveResult"));
+        }
+    }
+
+    private static DefaultBeanFactory createBeanFactory(InstantiationStrategy strategy) {
+        DefaultBeanFactory bf = new DefaultBeanFactory();
+        bf.setInstantiationStrategy(strategy);
+
+        GenericBeanDefinition bd = new GenericBeanDefinition();
+        bd.setBeanClass(PointBean.class);
+        bd.setScope(GenericBeanDefinition.SCOPE_PROTOTYPE);
+        bd.setConstructorArgumentValues(args("p", 3, 4L));
+        bf.registerBeanDefinition("point", bd);
+
+        bd = new GenericBeanDefinition();
+        bd.setBeanClass(WideBean.class);
+        bd.setConstructorArgumentValues(args("a", "b", "c", "d"));
+        bf.registerBeanDefinition("wide", bd);
+
+        bd = new GenericBeanDefinition();
+        bd.setBeanClass(PointBean.class);
+        bd.setFactoryMethodName("of");
+        bd.setConstructorArgumentValues(args("s", 7));
+        bf.registerBeanDefinition("staticPoint", bd);
+
+        bd = new GenericBeanDefinition();
+        bd.setBeanClass(PointFactory.class);
+        bf.registerBeanDefinition("pointFactory", bd);
+
+        bd = new GenericBeanDefinition();
+        bd.setFactoryBeanName("pointFactory");
+        bd.setFactoryMethodName("create");
+        bd.setConstructorArgumentValues(args(5));
+        bf.registerBeanDefinition("factoryPoint", bd);
+
+        bd = new GenericBeanDefinition();
+        bd.setFactoryBeanName("pointFactory");
+        bd.setFactoryMethodName("square");
+        bd.setConstructorArgumentValues(args(3));
+        bf.registerBeanDefinition("primitiveResult", bd);
+        return bf;
+    }
+
+    private static List<Object> args(Object... values) {
+        return new ArrayList<>(Arrays.asList(values));
+    }
+
+    public static class PointBean {
+        private final String name;
+        private final int x;
+        private final long y;
+
+        public PointBean(String name, int x, long y) {
+            this.name = name;
+            this.x = x;
+            this.y = y;
+        }
+
+        public static PointBean of(String name, int x) {
+            return new PointBean(name, x, 0L);
+        }
+    }
+
+    public static class WideBean {
+        private final String value;
+
+        public WideBean(String a, String b, String c, String d) {
+            this.value = a + b + c + d;
+        }
+    }
+
+    public static class PointFactory {
+        public PointBean create(int n) {
+            return new PointBean("factory", n, n);
+        }
+
+        public int square(int n) {
+            return n * n;
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package v4;
+
+import com.study.spring.aop.bean.ABean;
+import com.study.spring.aop.bean.CBean;
+import com.study.spring.aop.bean.FBean;
+import com.study.spring.aop.beans.BeanReference;
+import com.study.spring.aop.beans.GenericBeanDefinition;
+import com.study.spring.aop.beans.PropertyValue;
+import com.study.spring.aop.beans.factory.PreBuildBeanFactory;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @ClassName ParallelPreInstantiationTest
+ * @Description 按依赖拓扑分批并行预实例化单例测试
+ * @Author liqiang
+ * @Date 2025/10/20 15:30
+ */
+public class ParallelPreInstantiationTest {
+
+    @Test(timeout = 10000)
+    public void testParallelPreInstantiate() throws Throwable {
+        PreBuildBeanFactory bf = new PreBuildBeanFactory();
+        bf.setParallelPreInstantiation(true);
+        bf.setPreInstantiationPool(new ForkJoinPool(8));
+
+        // 依赖链：fbean -> abean -> cbean
+        GenericBeanDefinition bd = new GenericBeanDefinition();
+        bd.setBeanClass(FBean.class);
+        List<PropertyValue> propertyValues = new ArrayList<>();
+        propertyValues.add(new PropertyValue("name", "fbean01"));
+        propertyValues.add(new PropertyValue("aBean", new BeanReference("abean")));
+        bd.setPropertyValues(propertyValues);
+        bf.registerBeanDefinition("fbean", bd);
+
+        bd = new GenericBeanDefinition();
+        bd.setBeanClass(ABean.class);
+        List<Object> args = new ArrayList<>();
+        args.add("abean01");
+        args.add(new BeanReference("cbean"));
+        bd.setConstructorArgumentValues(args);
+        bf.registerBeanDefinition("abean", bd);
+
+        bd = new GenericBeanDefinition();
+        bd.setBeanClass(CBean.class);
+        args = new ArrayList<>();
+        args.add("cbean01");
+        bd.setConstructorArgumentValues(args);
+        bf.registerBeanDefinition("cbean", bd);
+
+        // 属性循环依赖：同一强连通分量内仍走提前曝光
+        bd = new GenericBeanDefinition();
+        bd.setBeanClass(CycleBean.class);
+        propertyValues = new ArrayList<>();
+        propertyValues.add(new PropertyValue("other", new BeanReference("ybean")));
+        bd.setPropertyValues(propertyValues);
+        bf.registerBeanDefinition("xbean", bd);
+
+        bd = new GenericBeanDefinition();
+        bd.setBeanClass(CycleBean.class);
+        propertyValues = new ArrayList<>();
+        propertyValues.add(new PropertyValue("other", new BeanReference("xbean")));
+        bd.setPropertyValues(propertyValues);
+        bf.registerBeanDefinition("ybean", bd);
+
+        // 互不依赖的慢初始化单例
+        for (int i = 0; i < 8; i++) {
+            bd = new GenericBeanDefinition();
+            bd.setBeanClass(SlowInitBean.class);
+            bd.setInitMethodName("init");
+            bf.registerBeanDefinition("slowBean" + i, bd);
+        }
+
+        long start = System.nanoTime();
+        bf.preInstantiateSingletons();
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        FBean fbean = (FBean) bf.getBean("fbean");
+        Assert.assertSame(bf.getBean("abean"), fbean.getaBean());
+        CycleBean ybean = (CycleBean) bf.getBean("ybean");
+        Assert.assertSame(bf.getBean("xbean"), ybean.other);
+        Assert.assertSame(ybean, ((CycleBean) bf.getBean("xbean")).other);
+        // 串行需要 8 * 200ms
+        Assert.assertTrue("并行预实例化耗时 " + elapsedMillis + "ms", elapsedMillis < 1200);
+    }
+
+    public static class SlowInitBean {
+        public void init() throws InterruptedException {
+            TimeUnit.MILLISECONDS.sleep(200);
+        }
+    }
+
+    public static class CycleBean {
+        private Object other;
+    }
+}
@@ -0,0 +1,128 @@
+package v4;
+
+import com.study.spring.aop.beans.BeanPostProcessor;
+import com.study.spring.aop.beans.BeanReference;
+import com.study.spring.aop.beans.GenericBeanDefinition;
+import com.study.spring.aop.beans.PropertyValue;
+import com.study.spring.aop.beans.factory.DefaultBeanFactory;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * @ClassName PrototypeRecipeTest
+ * @Description 原型Bean按配方创建及批量创建测试
+ * @Author liqiang
+ * @Date 2025/10/22 11:05
+ */
+public class PrototypeRecipeTest {
+
+    @Test
+    public void testGetBeans() throws Throwable {
+        DefaultBeanFactory bf = createBeanFactory();
+
+        List<Object> commands = bf.getBeans("command", 100);
+        Assert.assertEquals(100, commands.size());
+        Map<Object, Boolean> distinct = new IdentityHashMap<>();
+        for (Object o : commands) {
+            CommandBean command = (CommandBean) o;
+            Assert.assertEquals("cmd", command.name);
+            Assert.assertEquals(42, command.priority);
+            Assert.assertTrue(command.initialized);
+            distinct.put(command, true);
+        }
+        Assert.assertEquals(100, distinct.size());
+
+        // 引用其他Bean的原型
+        Object service = bf.getBean("service");
+        for (Object o : bf.getBeans("handler", 10)) {
+            Assert.assertSame(service, ((HandlerBean) o).service);
+            Assert.assertEquals(Arrays.asList("a", "b"), ((HandlerBean) o).tags);
+        }
+        List<Object> handlers = bf.getBeans("handler", 2);
+        Assert.assertNotSame(handlers.get(0), handlers.get(1));
+        Assert.assertNotSame(((HandlerBean) handlers.get(0)).tags, ((HandlerBean) handlers.get(1)).tags);
+
+        // 单例返回同一实例
+        List<Object> services = bf.getBeans("service", 3);
+        Assert.assertSame(services.get(0), services.get(2));
+        Assert.assertTrue(bf.getBeans("command", 0).isEmpty());
+    }
+
+    @Test
+    public void testBeanPostProcessorRegisteredAfterRecipe() throws Throwable {
+        DefaultBeanFactory bf = createBeanFactory();
+        Assert.assertFalse(((CommandBean) bf.getBean("command")).processed);
+        Assert.assertFalse(((CommandBean) bf.getBean("command")).processed);
+
+        bf.registerBeanPostProcessor(new BeanPostProcessor() {
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String beanName) {
+                if (bean instanceof CommandBean) {
+                    // 初始化之前调用
+                    Assert.assertFalse(((CommandBean) bean).initialized);
+                    ((CommandBean) bean).processed = true;
+                }
+                return bean;
+            }
+        });
+        Assert.assertTrue(((CommandBean) bf.getBean("command")).processed);
+        for (Object o : bf.getBeans("command", 5)) {
+            Assert.assertTrue(((CommandBean) o).processed);
+        }
+    }
+
+    private static DefaultBeanFactory createBeanFactory() {
+        DefaultBeanFactory bf = new DefaultBeanFactory();
+
+        GenericBeanDefinition bd = new GenericBeanDefinition();
+        bd.setBeanClass(CommandBean.class);
+        bd.setScope(GenericBeanDefinition.SCOPE_PROTOTYPE);
+        bd.setInitMethodName("init");
+        bd.setConstructorArgumentValues(new ArrayList<>(Arrays.asList("cmd", 42)));
+        bf.registerBeanDefinition("command", bd);
+
+        bd = new GenericBeanDefinition();
+        bd.setBeanClass(ServiceBean.class);
+        bf.registerBeanDefinition("service", bd);
+
+        bd = new GenericBeanDefinition();
+        bd.setBeanClass(HandlerBean.class);
+        bd.setScope(GenericBeanDefinition.SCOPE_PROTOTYPE);
+        List<PropertyValue> propertyValues = new ArrayList<>();
+        propertyValues.add(new PropertyValue("service", new BeanReference("service")));
+        propertyValues.add(new PropertyValue("tags", Arrays.asList("a", "b")));
+        bd.setPropertyValues(propertyValues);
+        bf.registerBeanDefinition("handler", bd);
+        return bf;
+    }
+
+    public static class CommandBean {
+        private final String name;
+        private final int priority;
+        private boolean initialized;
+        private boolean processed;
+
+        public CommandBean(String name, int priority) {
+            this.name = name;
+            this.priority = priority;
+        }
+
+        public void init() {
+            this.initialized = true;
+        }
+    }
+
+    public static class ServiceBean {
+    }
+
+    public static class HandlerBean {
+        private ServiceBean service;
+        private List<String> tags;
+    }
+}
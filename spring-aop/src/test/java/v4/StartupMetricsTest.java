@@ -0,0 +1,154 @@
+package v4;
+
+import com.study.spring.aop.beans.BeanReference;
+import com.study.spring.aop.beans.GenericBeanDefinition;
+import com.study.spring.aop.beans.PropertyValue;
+import com.study.spring.aop.beans.factory.DefaultBeanFactory;
+import com.study.spring.aop.beans.factory.StartupMetrics;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @ClassName StartupMetricsTest
+ * @Description Bean 创建耗时统计测试：默认关闭；分阶段记录、扣除依赖Bean耗时后按自身耗时排序、慢Bean看门狗；
+ *              等待其他线程创建单例的时间单独记录，不计入阶段耗时
+ * @Author liqiang
+ * @Date 2025/10/24 11:20
+ */
+public class StartupMetricsTest {
+
+    private static final long SLOW_MILLIS = 60;
+
+    @Test
+    public void testPhasesAndOrdering() throws Throwable {
+        DefaultBeanFactory bf = new DefaultBeanFactory();
+        bf.getStartupMetrics().setEnabled(true);
+        // 看门狗在慢Bean初始化期间打印堆栈
+        bf.setSlowBeanThresholdMillis(SLOW_MILLIS / 3);
+
+        GenericBeanDefinition slow = new GenericBeanDefinition();
+        slow.setBeanClass(SlowBean.class);
+        slow.setInitMethodName("init");
+        bf.registerBeanDefinition("slow", slow);
+
+        GenericBeanDefinition holder = new GenericBeanDefinition();
+        holder.setBeanClass(Holder.class);
+        holder.setPropertyValues(Collections.singletonList(new PropertyValue("slow", new BeanReference("slow"))));
+        bf.registerBeanDefinition("holder", holder);
+
+        Holder instance = (Holder) bf.getBean("holder");
+        Assert.assertNotNull(instance.slow);
+
+        StartupMetrics metrics = bf.getStartupMetrics();
+        StartupMetrics.BeanStartup slowStartup = metrics.getBeanStartup("slow");
+        StartupMetrics.BeanStartup holderStartup = metrics.getBeanStartup("holder");
+        Assert.assertNotNull(slowStartup);
+        Assert.assertNotNull(holderStartup);
+        Assert.assertEquals(1, slowStartup.getCreations());
+
+        long slowNanos = TimeUnit.MILLISECONDS.toNanos(SLOW_MILLIS);
+        Assert.assertTrue(slowStartup.getWallNanos(StartupMetrics.Phase.INIT_METHOD) >= slowNanos);
+        // 属性依赖注入阶段包含了创建 slow 的耗时，自身耗时扣除了这部分
+        Assert.assertTrue(holderStartup.getWallNanos(StartupMetrics.Phase.PROPERTY_DI) >= slowNanos);
+        Assert.assertTrue(holderStartup.getSelfWallNanos() < slowNanos);
+
+        List<StartupMetrics.BeanStartup> startups = metrics.getBeanStartups();
+        Assert.assertEquals(2, startups.size());
+        Assert.assertEquals("slow", startups.get(0).getBeanName());
+        Assert.assertEquals("holder", metrics.getBeanStartups(StartupMetrics.Phase.PROPERTY_DI).get(0).getBeanName());
+        Assert.assertEquals(1, metrics.getTopBeans(1).size());
+        Assert.assertTrue(metrics.report(5).contains("slow"));
+
+        bf.close();
+    }
+
+    @Test
+    public void testLockWaitExcludedFromPhases() throws Throwable {
+        DefaultBeanFactory bf = new DefaultBeanFactory();
+        bf.getStartupMetrics().setEnabled(true);
+
+        GenericBeanDefinition gated = new GenericBeanDefinition();
+        gated.setBeanClass(GatedBean.class);
+        gated.setInitMethodName("init");
+        bf.registerBeanDefinition("gated", gated);
+
+        GenericBeanDefinition holder = new GenericBeanDefinition();
+        holder.setBeanClass(GatedHolder.class);
+        holder.setPropertyValues(Collections.singletonList(new PropertyValue("gated", new BeanReference("gated"))));
+        bf.registerBeanDefinition("gatedHolder", holder);
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            GatedBean.ENTERED = new CountDownLatch(1);
+            Future<Object> creating = executor.submit(() -> {
+                try {
+                    return bf.getBean("gated");
+                } catch (Throwable e) {
+                    throw new Exception(e);
+                }
+            });
+            Assert.assertTrue(GatedBean.ENTERED.await(5, TimeUnit.SECONDS));
+            // gated 正由另一个线程初始化，注入时等待它的创建锁
+            GatedHolder instance = (GatedHolder) bf.getBean("gatedHolder");
+            Assert.assertSame(creating.get(), instance.gated);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        StartupMetrics.BeanStartup holderStartup = bf.getStartupMetrics().getBeanStartup("gatedHolder");
+        long slowNanos = TimeUnit.MILLISECONDS.toNanos(SLOW_MILLIS);
+        Assert.assertTrue(holderStartup.getLockWaitNanos() >= slowNanos / 2);
+        Assert.assertTrue(holderStartup.getWallNanos(StartupMetrics.Phase.PROPERTY_DI) < holderStartup.getLockWaitNanos());
+        Assert.assertTrue(holderStartup.getTotalWallNanos() < slowNanos / 2);
+        Assert.assertEquals(0, bf.getStartupMetrics().getBeanStartup("gated").getLockWaitNanos());
+        Assert.assertTrue(holderStartup.toString().contains("等待单例创建锁"));
+        bf.close();
+    }
+
+    @Test
+    public void testDisabledByDefault() throws Throwable {
+        DefaultBeanFactory bf = new DefaultBeanFactory();
+        Assert.assertFalse(bf.getStartupMetrics().isEnabled());
+        GenericBeanDefinition bd = new GenericBeanDefinition();
+        bd.setBeanClass(Holder.class);
+        bf.registerBeanDefinition("holder", bd);
+        bf.getBean("holder");
+        Assert.assertTrue(bf.getStartupMetrics().getBeanStartups().isEmpty());
+    }
+
+    public static class SlowBean {
+
+        public void init() throws InterruptedException {
+            Thread.sleep(SLOW_MILLIS);
+        }
+    }
+
+    public static class Holder {
+
+        private SlowBean slow;
+    }
+
+    public static class GatedBean {
+
+        // 初始化开始时计数，测试据此确认创建锁已被持有
+        static volatile CountDownLatch ENTERED;
+
+        public void init() throws InterruptedException {
+            ENTERED.countDown();
+            Thread.sleep(SLOW_MILLIS);
+        }
+    }
+
+    public static class GatedHolder {
+
+        private GatedBean gated;
+    }
+}
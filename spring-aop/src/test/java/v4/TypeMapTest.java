@@ -0,0 +1,97 @@
+package v4;
+
+import com.study.spring.aop.beans.GenericBeanDefinition;
+import com.study.spring.aop.beans.factory.DefaultBeanFactory;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * @ClassName TypeMapTest
+ * @Description 类型映射增量维护测试：注册时即可按类型获取、工厂Bean后注册、带参数的工厂方法、大量注册
+ * @Author liqiang
+ * @Date 2025/10/22 17:30
+ */
+public class TypeMapTest {
+
+    @Test
+    public void testIncrementalTypeMap() throws Throwable {
+        DefaultBeanFactory bf = new DefaultBeanFactory();
+
+        // 工厂Bean尚未注册，类型暂时无法确定
+        GenericBeanDefinition bd = new GenericBeanDefinition();
+        bd.setFactoryBeanName("engineFactory");
+        bd.setFactoryMethodName("create");
+        bd.setConstructorArgumentValues(new ArrayList<>(Arrays.asList("v8", 8)));
+        bf.registerBeanDefinition("engine", bd);
+        Assert.assertNull(bf.getBean(Engine.class));
+
+        bd = new GenericBeanDefinition();
+        bd.setBeanClass(EngineFactory.class);
+        bf.registerBeanDefinition("engineFactory", bd);
+
+        // 不需要 registerTypeMap() 全量重建
+        Assert.assertEquals(Engine.class, bf.getType("engine"));
+        Engine engine = bf.getBean(Engine.class);
+        Assert.assertEquals("v8", engine.name);
+        Assert.assertEquals(8, engine.cylinders);
+        Assert.assertSame(engine, bf.getBean(Startable.class));
+        Assert.assertSame(engine, bf.getBean(AutoCloseable.class));
+
+        // 带参数的静态工厂方法
+        bd = new GenericBeanDefinition();
+        bd.setBeanClass(EngineFactory.class);
+        bd.setFactoryMethodName("staticCreate");
+        bd.setConstructorArgumentValues(new ArrayList<>(Arrays.asList("i4")));
+        bf.registerBeanDefinition("staticEngine", bd);
+        Assert.assertEquals(Engine.class, bf.getType("staticEngine"));
+        Assert.assertEquals(2, bf.getBeansOfType(Engine.class).size());
+
+        bf.registerTypeMap();
+        Assert.assertEquals(2, bf.getBeansOfType(Startable.class).size());
+    }
+
+    @Test(timeout = 20000)
+    public void testRegisterManyDefinitions() throws Throwable {
+        DefaultBeanFactory bf = new DefaultBeanFactory();
+        for (int i = 0; i < 100000; i++) {
+            GenericBeanDefinition bd = new GenericBeanDefinition();
+            bd.setBeanClass(Engine.class);
+            bf.registerBeanDefinition("engine" + i, bd);
+        }
+        bf.registerTypeMap();
+        Assert.assertEquals(Engine.class, bf.getType("engine99999"));
+    }
+
+    public interface Startable extends AutoCloseable {
+    }
+
+    public static class Engine implements Startable {
+        private String name;
+        private int cylinders;
+
+        public Engine() {
+        }
+
+        public Engine(String name, int cylinders) {
+            this.name = name;
+            this.cylinders = cylinders;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+
+    public static class EngineFactory {
+        public Engine create(String name, int cylinders) {
+            return new Engine(name, cylinders);
+        }
+
+        public static Engine staticCreate(String name) {
+            return new Engine(name, 4);
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package v4;
+
+import com.study.spring.aop.beans.GenericBeanDefinition;
+import com.study.spring.aop.beans.factory.DefaultBeanFactory;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * @ClassName TypeResolutionTest
+ * @Description 按类型获取Bean的解析缓存测试：Primary 选择、歧义错误、注册新的Bean定义后缓存失效
+ * @Author liqiang
+ * @Date 2025/10/22 15:10
+ */
+public class TypeResolutionTest {
+
+    @Test
+    public void testResolutionInvalidatedOnRegistration() throws Throwable {
+        DefaultBeanFactory bf = new DefaultBeanFactory();
+        bf.registerBeanDefinition("first", definition(FirstHandler.class, false));
+        bf.registerTypeMap();
+
+        Handler first = bf.getBean(Handler.class);
+        Assert.assertTrue(first instanceof FirstHandler);
+        Assert.assertSame(first, bf.getBean(Handler.class));
+        Assert.assertNull(bf.getBean(Runnable.class));
+
+        // 新增一个同类型的Bean，无 Primary 时每次都报歧义
+        bf.registerBeanDefinition("second", definition(SecondHandler.class, false));
+        bf.registerTypeMap();
+        for (int i = 0; i < 2; i++) {
+            try {
+                bf.getBean(Handler.class);
+                Assert.fail("存在多个候选时应抛出异常");
+            } catch (Exception e) {
+                Assert.assertTrue(e.getMessage(), e.getMessage().contains("无法确定Primary"));
+            }
+        }
+        Assert.assertTrue(bf.getBean(SecondHandler.class) instanceof SecondHandler);
+
+        // 新增 Primary 的Bean后按 Primary 选择
+        bf.registerBeanDefinition("third", definition(ThirdHandler.class, true));
+        bf.registerTypeMap();
+        Assert.assertTrue(bf.getBean(Handler.class) instanceof ThirdHandler);
+        Assert.assertSame(bf.getBean("third"), bf.getBean(Handler.class));
+    }
+
+    private static GenericBeanDefinition definition(Class<?> beanClass, boolean primary) {
+        GenericBeanDefinition bd = new GenericBeanDefinition();
+        bd.setBeanClass(beanClass);
+        bd.setPrimary(primary);
+        return bd;
+    }
+
+    public interface Handler {
+    }
+
+    public static class FirstHandler implements Handler {
+    }
+
+    public static class SecondHandler implements Handler {
+    }
+
+    public static class ThirdHandler implements Handler {
+    }
+}
@@ -0,0 +1,110 @@
+package v5;
+
+import com.study.spring.aop.AdvisorAutoProxyCreator;
+import com.study.spring.aop.advice.MethodBeforeAdvice;
+import com.study.spring.aop.advisor.AspectJPointcutAdvisor;
+import com.study.spring.aop.beans.BeanDefinition;
+import com.study.spring.aop.beans.BeanPostProcessor;
+import com.study.spring.aop.beans.GenericBeanDefinition;
+import com.study.spring.aop.beans.factory.PreBuildBeanFactory;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * @ClassName AdviceBindingTest
+ * @Description 通知绑定测试：单例通知在创建代理时绑定，之后调用不再从 BeanFactory 获取；原型通知每次调用获取一次
+ * @Author liqiang
+ * @Date 2025/10/30 10:40
+ */
+public class AdviceBindingTest {
+
+    @Test
+    public void testSingletonAdviceBoundAtProxyCreation() throws Throwable {
+        CountingBeanFactory bf = createFactory(BeanDefinition.SCOPE_SINGLETON);
+        Assert.assertTrue(bf.isSingleton("before"));
+        Assert.assertTrue(bf.isSingleton("beforeAlias"));
+
+        Service service = (Service) bf.getBean("service");
+        Assert.assertEquals(1, bf.adviceLookups.get());
+        for (int i = 0; i < 5; i++) {
+            Assert.assertEquals("work", service.doWork());
+        }
+        Assert.assertEquals(1, bf.adviceLookups.get());
+        Assert.assertEquals(5, CountingBefore.CALLS.get());
+    }
+
+    @Test
+    public void testPrototypeAdviceProvidedPerInvocation() throws Throwable {
+        CountingBeanFactory bf = createFactory(BeanDefinition.SCOPE_PROTOTYPE);
+        Assert.assertFalse(bf.isSingleton("beforeAlias"));
+
+        Service service = (Service) bf.getBean("service");
+        Assert.assertEquals(0, bf.adviceLookups.get());
+        for (int i = 0; i < 5; i++) {
+            service.doWork();
+        }
+        Assert.assertEquals(5, bf.adviceLookups.get());
+        Assert.assertEquals(5, CountingBefore.CALLS.get());
+    }
+
+    private static CountingBeanFactory createFactory(String adviceScope) throws Throwable {
+        CountingBefore.CALLS.set(0);
+        CountingBeanFactory bf = new CountingBeanFactory();
+        bf.registerBeanDefinition("service", definition(Service.class, BeanDefinition.SCOPE_SINGLETON));
+        bf.registerBeanDefinition("before", definition(CountingBefore.class, adviceScope));
+        bf.registerAlias("before", "beforeAlias");
+        GenericBeanDefinition advisor = definition(AspectJPointcutAdvisor.class, BeanDefinition.SCOPE_SINGLETON);
+        advisor.setConstructorArgumentValues(Arrays.asList("beforeAlias", "execution(* v5.AdviceBindingTest.Service.do*(..))"));
+        bf.registerBeanDefinition("advisor", advisor);
+        bf.registerBeanDefinition("advisorAutoProxyCreator", definition(AdvisorAutoProxyCreator.class, BeanDefinition.SCOPE_SINGLETON));
+        bf.registerTypeMap();
+        for (BeanPostProcessor bpp : bf.getBeansOfTypeList(BeanPostProcessor.class)) {
+            bf.registerBeanPostProcessor(bpp);
+        }
+        return bf;
+    }
+
+    private static GenericBeanDefinition definition(Class<?> beanClass, String scope) {
+        GenericBeanDefinition bd = new GenericBeanDefinition();
+        bd.setBeanClass(beanClass);
+        bd.setScope(scope);
+        return bd;
+    }
+
+    /**
+     * 记录按名称获取通知Bean的次数
+     */
+    private static class CountingBeanFactory extends PreBuildBeanFactory {
+
+        private final AtomicInteger adviceLookups = new AtomicInteger();
+
+        @Override
+        public Object getBean(String beanName) throws Throwable {
+            if ("beforeAlias".equals(beanName)) {
+                this.adviceLookups.incrementAndGet();
+            }
+            return super.getBean(beanName);
+        }
+    }
+
+    public static class Service {
+
+        public String doWork() {
+            return "work";
+        }
+    }
+
+    public static class CountingBefore implements MethodBeforeAdvice {
+
+        static final AtomicInteger CALLS = new AtomicInteger();
+
+        @Override
+        public void before(Method method, Object[] args, Object target) {
+            CALLS.incrementAndGet();
+        }
+    }
+}
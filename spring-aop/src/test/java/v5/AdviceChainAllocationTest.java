@@ -0,0 +1,155 @@
+package v5;
+
+import com.study.spring.aop.CglibDynamicAopProxy;
+import com.study.spring.aop.JdkDynamicAopProxy;
+import com.study.spring.aop.advice.AfterReturningAdvice;
+import com.study.spring.aop.advice.MethodBeforeAdvice;
+import com.study.spring.aop.advice.MethodInterceptor;
+import com.study.spring.aop.advisor.Advisor;
+import com.study.spring.aop.advisor.AspectJPointcutAdvisor;
+import com.study.spring.aop.beans.GenericBeanDefinition;
+import com.study.spring.aop.beans.factory.DefaultBeanFactory;
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * @ClassName AdviceChainAllocationTest
+ * @Description 通知链执行测试：各类通知的执行顺序；只有前置、后置返回通知时，每次调用的分配量不超过代理生成的参数数组
+ * @Author liqiang
+ * @Date 2025/10/25 15:50
+ */
+public class AdviceChainAllocationTest {
+
+    private static final String POINTCUT = "execution(* v5.AdviceChainAllocationTest.Echo.*(..))";
+
+    // 每次调用的分配预算：代理生成的参数数组
+    private static final long BYTES_PER_CALL_BUDGET = 32;
+
+    private static final int CALLS = 20000;
+
+    @Test
+    public void testAroundAdviceOrder() throws Throwable {
+        StringBuilder trace = new StringBuilder();
+        DefaultBeanFactory bf = new DefaultBeanFactory();
+        List<Advisor> advisors = Arrays.asList(advisor(bf, "before", RecordingBefore.class, trace),
+                advisor(bf, "around", RecordingAround.class, trace), advisor(bf, "afterReturning", RecordingAfterReturning.class, trace));
+
+        Echo proxy = (Echo) new CglibDynamicAopProxy("echo", new DefaultEcho(), advisors, bf).getProxy();
+        Assert.assertEquals("hi", proxy.echo("hi"));
+        Assert.assertEquals("before,around-before,afterReturning:hi,around-after:hi", trace.toString());
+    }
+
+    @Test
+    public void testCglibAllocationBudget() throws Throwable {
+        DefaultBeanFactory bf = new DefaultBeanFactory();
+        Echo proxy = (Echo) new CglibDynamicAopProxy("echo", new DefaultEcho(), beforeAndAfterReturning(bf), bf).getProxy();
+        assertAllocationWithinBudget(proxy);
+    }
+
+    @Test
+    public void testJdkAllocationBudget() throws Throwable {
+        DefaultBeanFactory bf = new DefaultBeanFactory();
+        Echo proxy = (Echo) new JdkDynamicAopProxy("echo", new DefaultEcho(), beforeAndAfterReturning(bf), bf).getProxy();
+        assertAllocationWithinBudget(proxy);
+    }
+
+    private static void assertAllocationWithinBudget(Echo proxy) {
+        Assume.assumeTrue(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean);
+        com.sun.management.ThreadMXBean threadMXBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        Assume.assumeTrue(threadMXBean.isThreadAllocatedMemorySupported() && threadMXBean.isThreadAllocatedMemoryEnabled());
+
+        // 预热：通知链构建、反射访问器生成
+        for (int i = 0; i < CALLS; i++) {
+            proxy.echo("warmup");
+        }
+        long threadId = Thread.currentThread().getId();
+        long before = threadMXBean.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < CALLS; i++) {
+            proxy.echo("hi");
+        }
+        long bytesPerCall = (threadMXBean.getThreadAllocatedBytes(threadId) - before) / CALLS;
+        Assert.assertTrue("每次调用分配 " + bytesPerCall + " B", bytesPerCall <= BYTES_PER_CALL_BUDGET);
+    }
+
+    private static List<Advisor> beforeAndAfterReturning(DefaultBeanFactory bf) throws Exception {
+        return Arrays.asList(advisor(bf, "before", RecordingBefore.class, null),
+                advisor(bf, "afterReturning", RecordingAfterReturning.class, null));
+    }
+
+    private static Advisor advisor(DefaultBeanFactory bf, String name, Class<?> adviceClass, StringBuilder trace) throws Exception {
+        GenericBeanDefinition bd = new GenericBeanDefinition();
+        bd.setBeanClass(adviceClass);
+        bd.setConstructorArgumentValues(Collections.singletonList(trace));
+        bf.registerBeanDefinition(name, bd);
+        return new AspectJPointcutAdvisor(name, POINTCUT);
+    }
+
+    public interface Echo {
+
+        String echo(String value);
+    }
+
+    public static class DefaultEcho implements Echo {
+
+        @Override
+        public String echo(String value) {
+            return value;
+        }
+    }
+
+    public static class RecordingBefore implements MethodBeforeAdvice {
+
+        private final StringBuilder trace;
+
+        public RecordingBefore(StringBuilder trace) {
+            this.trace = trace;
+        }
+
+        @Override
+        public void before(Method method, Object[] args, Object target) {
+            if (this.trace != null) {
+                this.trace.append("before,");
+            }
+        }
+    }
+
+    public static class RecordingAfterReturning implements AfterReturningAdvice {
+
+        private final StringBuilder trace;
+
+        public RecordingAfterReturning(StringBuilder trace) {
+            this.trace = trace;
+        }
+
+        @Override
+        public void afterReturning(Object returnValue, Method method, Object[] args, Object target) {
+            if (this.trace != null) {
+                this.trace.append("afterReturning:").append(returnValue).append(',');
+            }
+        }
+    }
+
+    public static class RecordingAround implements MethodInterceptor {
+
+        private final StringBuilder trace;
+
+        public RecordingAround(StringBuilder trace) {
+            this.trace = trace;
+        }
+
+        @Override
+        public Object invoke(Method method, Object[] args, Object target) throws Throwable {
+            this.trace.append("around-before,");
+            Object ret = method.invoke(target, args);
+            this.trace.append("around-after:").append(ret);
+            return ret;
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package v5;
+
+import com.study.spring.aop.AdvisorAutoProxyCreator;
+import com.study.spring.aop.advice.MethodBeforeAdvice;
+import com.study.spring.aop.advisor.PointcutAdvisor;
+import com.study.spring.aop.beans.BeanDefinition;
+import com.study.spring.aop.beans.BeanPostProcessor;
+import com.study.spring.aop.beans.GenericBeanDefinition;
+import com.study.spring.aop.beans.factory.PreBuildBeanFactory;
+import com.study.spring.aop.pointcut.Pointcut;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.lang.reflect.Method;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * @ClassName AdviceChainCacheTest
+ * @Description 代理的方法通知链缓存测试：同一方法只做一次切点匹配，未增强的方法不执行通知，原型通知每次调用获取新实例
+ * @Author liqiang
+ * @Date 2025/10/24 15:30
+ */
+public class AdviceChainCacheTest {
+
+    private static final AtomicInteger MATCH_METHOD_CALLS = new AtomicInteger();
+
+    private static final AtomicInteger BEFORE_CALLS = new AtomicInteger();
+
+    private static final Set<Object> PROTOTYPE_ADVICES = Collections.newSetFromMap(new IdentityHashMap<>());
+
+    @Before
+    public void reset() {
+        MATCH_METHOD_CALLS.set(0);
+        BEFORE_CALLS.set(0);
+        PROTOTYPE_ADVICES.clear();
+    }
+
+    @Test
+    public void testSingletonAdviceChainCached() throws Throwable {
+        Service service = (Service) createFactory(BeanDefinition.SCOPE_SINGLETON).getBean("service");
+        int matchCallsAfterCreation = MATCH_METHOD_CALLS.get();
+
+        for (int i = 0; i < 10; i++) {
+            Assert.assertEquals("work-" + i, service.doWork("work-" + i));
+            Assert.assertEquals("plain", service.plain());
+        }
+        Assert.assertEquals(10, BEFORE_CALLS.get());
+        // 未被增强的 plain 创建代理时已确定直接调用目标对象；doWork 第一次调用时匹配一次，之后走缓存
+        Assert.assertEquals(1, MATCH_METHOD_CALLS.get() - matchCallsAfterCreation);
+    }
+
+    @Test
+    public void testPrototypeAdviceResolvedPerCall() throws Throwable {
+        Service service = (Service) createFactory(BeanDefinition.SCOPE_PROTOTYPE).getBean("service");
+        for (int i = 0; i < 3; i++) {
+            service.doWork("work");
+        }
+        Assert.assertEquals(3, BEFORE_CALLS.get());
+        Assert.assertEquals(3, PROTOTYPE_ADVICES.size());
+    }
+
+    private static PreBuildBeanFactory createFactory(String adviceScope) throws Throwable {
+        PreBuildBeanFactory bf = new PreBuildBeanFactory();
+        bf.registerBeanDefinition("service", definition(Service.class, BeanDefinition.SCOPE_SINGLETON));
+        bf.registerBeanDefinition("countingBeforeAdvice", definition(CountingBeforeAdvice.class, adviceScope));
+        bf.registerBeanDefinition("doMethodAdvisor", definition(DoMethodAdvisor.class, BeanDefinition.SCOPE_SINGLETON));
+        bf.registerBeanDefinition("advisorAutoProxyCreator", definition(AdvisorAutoProxyCreator.class, BeanDefinition.SCOPE_SINGLETON));
+        bf.registerTypeMap();
+        for (BeanPostProcessor bpp : bf.getBeansOfTypeList(BeanPostProcessor.class)) {
+            bf.registerBeanPostProcessor(bpp);
+        }
+        return bf;
+    }
+
+    private static GenericBeanDefinition definition(Class<?> beanClass, String scope) {
+        GenericBeanDefinition bd = new GenericBeanDefinition();
+        bd.setBeanClass(beanClass);
+        bd.setScope(scope);
+        return bd;
+    }
+
+    public static class Service {
+
+        public String doWork(String value) {
+            return value;
+        }
+
+        public String plain() {
+            return "plain";
+        }
+    }
+
+    public static class CountingBeforeAdvice implements MethodBeforeAdvice {
+
+        @Override
+        public void before(Method method, Object[] args, Object target) {
+            BEFORE_CALLS.incrementAndGet();
+            PROTOTYPE_ADVICES.add(this);
+        }
+    }
+
+    /**
+     * 增强 Service 中以 do 开头的方法，记录方法匹配次数
+     */
+    public static class DoMethodAdvisor implements PointcutAdvisor {
+
+        private final Pointcut pointcut = new Pointcut() {
+            @Override
+            public boolean matchClass(Class<?> targetClass) {
+                return Service.class.isAssignableFrom(targetClass);
+            }
+
+            @Override
+            public boolean matchMethod(Method method, Class<?> targetClass) {
+                MATCH_METHOD_CALLS.incrementAndGet();
+                return method.getName().startsWith("do");
+            }
+        };
+
+        @Override
+        public Pointcut getPointcut() {
+            return this.pointcut;
+        }
+
+        @Override
+        public String getAdviceBeanName() {
+            return "countingBeforeAdvice";
+        }
+
+        @Override
+        public String getExpression() {
+            return null;
+        }
+    }
+}
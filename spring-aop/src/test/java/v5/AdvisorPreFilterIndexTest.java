@@ -0,0 +1,126 @@
+package v5;
+
+import com.study.spring.aop.advisor.Advisor;
+import com.study.spring.aop.advisor.AdvisorPreFilterIndex;
+import com.study.spring.aop.advisor.AspectJPointcutAdvisor;
+import com.study.spring.aop.pointcut.Pointcut;
+import org.junit.Assert;
+import org.junit.Test;
+import org.springframework.util.ReflectionUtils;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * @ClassName AdvisorPreFilterIndexTest
+ * @Description Advisor 预筛选索引测试：按类型名、包、方法名前缀筛选并保持原有顺序；
+ *              所有完整匹配的 Advisor 都不会被预筛选过滤掉
+ * @Author liqiang
+ * @Date 2025/10/28 15:40
+ */
+public class AdvisorPreFilterIndexTest {
+
+    private static final List<String> EXPRESSIONS = Arrays.asList(
+            "execution(* v5.AdvisorPreFilterIndexTest.OrderService.*(..))",
+            "execution(* v5.AdvisorPreFilterIndexTest.Repository.find*(..))",
+            "execution(* v5.AdvisorPreFilterIndexTest.*.save*(..))",
+            "execution(* v5..*.find*(..))",
+            "execution(* v5.*.*(..))",
+            "execution(* com.study.other..*.*(..))",
+            "execution(* java.util.List.*(..))",
+            "execution(* v5.AdvisorPreFilterIndexTest.OrderService+.delete*(..))",
+            "execution(* *..*Service.*(..))",
+            "execution(* v5.AdvisorPreFilterIndexTest.OrderService.*(..)) && args(String)",
+            "execution(* v5..*.nothing*(..))");
+
+    @Test
+    public void testCandidatesAreFilteredAndOrdered() {
+        List<Advisor> advisors = advisors();
+        AdvisorPreFilterIndex index = new AdvisorPreFilterIndex(advisors);
+
+        List<Advisor> candidates = index.getCandidateAdvisors(OrderService.class, methods(OrderService.class));
+        // 类型名、外部类中的所有类型、包、子类型、无法静态分析的表达式；没有 find 开头的方法
+        Assert.assertEquals(Arrays.asList(advisors.get(0), advisors.get(2), advisors.get(4), advisors.get(7),
+                advisors.get(8), advisors.get(9)), candidates);
+
+        candidates = index.getCandidateAdvisors(JdbcRepository.class, methods(JdbcRepository.class));
+        Assert.assertEquals(Arrays.asList(advisors.get(1), advisors.get(3), advisors.get(4), advisors.get(8), advisors.get(9)),
+                candidates);
+
+        candidates = index.getCandidateAdvisors(String.class, methods(String.class));
+        Assert.assertEquals(Arrays.asList(advisors.get(8), advisors.get(9)), candidates);
+    }
+
+    @Test
+    public void testMatchedAdvisorsAreNeverFilteredOut() {
+        List<Advisor> advisors = advisors();
+        AdvisorPreFilterIndex index = new AdvisorPreFilterIndex(advisors);
+        for (Class<?> beanClass : Arrays.asList(OrderService.class, SpecialOrderService.class, JdbcRepository.class, String.class)) {
+            List<Method> methods = methods(beanClass);
+            List<Advisor> candidates = index.getCandidateAdvisors(beanClass, methods);
+            for (Advisor advisor : advisors) {
+                if (matches(((AspectJPointcutAdvisor) advisor).getPointcut(), beanClass, methods)) {
+                    Assert.assertTrue(beanClass + " 应匹配 " + advisor.getExpression(), candidates.contains(advisor));
+                }
+            }
+        }
+    }
+
+    private static boolean matches(Pointcut pointcut, Class<?> beanClass, List<Method> methods) {
+        if (!pointcut.matchClass(beanClass)) {
+            return false;
+        }
+        for (Method method : methods) {
+            if (pointcut.matchMethod(method, beanClass)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static List<Advisor> advisors() {
+        List<Advisor> advisors = new ArrayList<>();
+        for (int i = 0; i < EXPRESSIONS.size(); i++) {
+            advisors.add(new AspectJPointcutAdvisor("advice" + i, EXPRESSIONS.get(i)));
+        }
+        return advisors;
+    }
+
+    private static List<Method> methods(Class<?> beanClass) {
+        List<Method> methods = new ArrayList<>(Arrays.asList(ReflectionUtils.getAllDeclaredMethods(beanClass)));
+        for (Class<?> ifc : beanClass.getInterfaces()) {
+            methods.addAll(Arrays.asList(ifc.getMethods()));
+        }
+        return methods;
+    }
+
+    public interface Repository {
+
+        Object findById(long id);
+    }
+
+    public static class JdbcRepository implements Repository {
+
+        @Override
+        public Object findById(long id) {
+            return id;
+        }
+    }
+
+    public static class OrderService {
+
+        public void saveOrder(String order) {
+        }
+
+        public void deleteOrder(String order) {
+        }
+    }
+
+    public static class SpecialOrderService extends OrderService {
+
+        public void special() {
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package v5;
+
+import com.study.spring.aop.AdvisorAutoProxyCreator;
+import com.study.spring.aop.advice.AsyncAdvice;
+import com.study.spring.aop.advice.AsyncExecutors;
+import com.study.spring.aop.advisor.AspectJPointcutAdvisor;
+import com.study.spring.aop.beans.BeanPostProcessor;
+import com.study.spring.aop.beans.BeanReference;
+import com.study.spring.aop.beans.GenericBeanDefinition;
+import com.study.spring.aop.beans.factory.PreBuildBeanFactory;
+import com.study.spring.aop.exception.AopConfigException;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @ClassName AsyncAdviceTest
+ * @Description 异步执行通知测试：方法在指定的执行器Bean中执行，返回 CompletableFuture，目标方法的异常通过 Future 传给调用方；
+ *              void 方法调用后立即返回；不能异步执行的返回类型（包括 Object）报配置错误
+ * @Author liqiang
+ * @Date 2025/10/31 17:10
+ */
+public class AsyncAdviceTest {
+
+    @Test
+    public void testFutureCompletedOnExecutorThread() throws Throwable {
+        Worker worker = (Worker) createFactory().getBean("worker");
+
+        Future<String> result = worker.threadName();
+        Assert.assertTrue(result instanceof CompletableFuture);
+        Assert.assertTrue(result.get(5, TimeUnit.SECONDS).startsWith("io-"));
+        Assert.assertEquals("io-", worker.prefix().get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testTargetExceptionThroughFuture() throws Throwable {
+        Worker worker = (Worker) createFactory().getBean("worker");
+        try {
+            worker.fail().get(5, TimeUnit.SECONDS);
+            Assert.fail();
+        } catch (ExecutionException e) {
+            Assert.assertTrue(e.getCause() instanceof IllegalStateException);
+        }
+    }
+
+    @Test
+    public void testVoidMethodReturnsImmediately() throws Throwable {
+        Worker worker = (Worker) createFactory().getBean("worker");
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(1);
+        worker.await(release, done);
+        Assert.assertEquals(1, done.getCount());
+        release.countDown();
+        Assert.assertTrue(done.await(5, TimeUnit.SECONDS));
+    }
+
+    @Test(expected = AopConfigException.class)
+    public void testUnsupportedReturnType() throws Throwable {
+        Worker worker = (Worker) createFactory().getBean("worker");
+        worker.sync();
+    }
+
+    @Test
+    public void testAsyncReturnTypes() {
+        Assert.assertTrue(AsyncAdvice.isAsyncReturnType(void.class));
+        Assert.assertTrue(AsyncAdvice.isAsyncReturnType(Future.class));
+        Assert.assertTrue(AsyncAdvice.isAsyncReturnType(CompletionStage.class));
+        Assert.assertTrue(AsyncAdvice.isAsyncReturnType(CompletableFuture.class));
+        Assert.assertFalse(AsyncAdvice.isAsyncReturnType(Object.class));
+        Assert.assertFalse(AsyncAdvice.isAsyncReturnType(String.class));
+    }
+
+    @Test(expected = AopConfigException.class)
+    public void testObjectReturnTypeRejected() throws Throwable {
+        Worker worker = (Worker) createFactory().getBean("worker");
+        worker.untyped();
+    }
+
+    private static PreBuildBeanFactory createFactory() throws Throwable {
+        PreBuildBeanFactory bf = new PreBuildBeanFactory();
+        GenericBeanDefinition worker = new GenericBeanDefinition();
+        worker.setBeanClass(Worker.class);
+        bf.registerBeanDefinition("worker", worker);
+
+        GenericBeanDefinition executor = new GenericBeanDefinition();
+        executor.setBeanClass(AsyncExecutors.class);
+        executor.setFactoryMethodName("bounded");
+        executor.setConstructorArgumentValues(Arrays.asList("io-", 2, 16));
+        bf.registerBeanDefinition("ioExecutor", executor);
+
+        GenericBeanDefinition advice = new GenericBeanDefinition();
+        advice.setBeanClass(AsyncAdvice.class);
+        advice.setConstructorArgumentValues(Collections.singletonList(new BeanReference("ioExecutor")));
+        bf.registerBeanDefinition("asyncAdvice", advice);
+
+        GenericBeanDefinition advisor = new GenericBeanDefinition();
+        advisor.setBeanClass(AspectJPointcutAdvisor.class);
+        advisor.setConstructorArgumentValues(Arrays.asList("asyncAdvice", "execution(* v5.AsyncAdviceTest.Worker.*(..))"));
+        bf.registerBeanDefinition("asyncAdvisor", advisor);
+
+        GenericBeanDefinition creator = new GenericBeanDefinition();
+        creator.setBeanClass(AdvisorAutoProxyCreator.class);
+        bf.registerBeanDefinition("advisorAutoProxyCreator", creator);
+        bf.registerTypeMap();
+        for (BeanPostProcessor bpp : bf.getBeansOfTypeList(BeanPostProcessor.class)) {
+            bf.registerBeanPostProcessor(bpp);
+        }
+        return bf;
+    }
+
+    public static class Worker {
+
+        public Future<String> threadName() {
+            return CompletableFuture.completedFuture(Thread.currentThread().getName());
+        }
+
+        public CompletableFuture<String> prefix() {
+            CompletableFuture<String> result = new CompletableFuture<>();
+            result.complete(Thread.currentThread().getName().substring(0, 3));
+            return result;
+        }
+
+        public CompletableFuture<String> fail() {
+            throw new IllegalStateException("fail");
+        }
+
+        public void await(CountDownLatch release, CountDownLatch done) throws InterruptedException {
+            release.await();
+            done.countDown();
+        }
+
+        public String sync() {
+            return "sync";
+        }
+
+        public Object untyped() {
+            return CompletableFuture.completedFuture("untyped");
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package v5;
+
+import com.study.spring.aop.AdvisorAutoProxyCreator;
+import com.study.spring.aop.advice.MethodBeforeAdvice;
+import com.study.spring.aop.advisor.AspectJPointcutAdvisor;
+import com.study.spring.aop.beans.BeanPostProcessor;
+import com.study.spring.aop.beans.GenericBeanDefinition;
+import com.study.spring.aop.beans.factory.PreBuildBeanFactory;
+import com.study.spring.aop.factory.DefaultAopProxyFactory;
+import com.study.spring.aop.factory.ProxyStrategy;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * @ClassName AutoProxyPreparationTest
+ * @Description 自动代理提前准备测试：创建Bean之前并行计算所有Bean类的匹配结果、生成代理类，之后创建的Bean按准备好的结果代理
+ * @Author liqiang
+ * @Date 2025/10/29 11:20
+ */
+public class AutoProxyPreparationTest {
+
+    @Test
+    public void testPrepareBeforePreInstantiation() throws Throwable {
+        PreBuildBeanFactory bf = new PreBuildBeanFactory();
+        register(bf, "orderService", OrderService.class);
+        register(bf, "userService", UserService.class);
+        register(bf, "clock", Clock.class);
+        register(bf, "countingBefore", CountingBefore.class);
+        GenericBeanDefinition bd = new GenericBeanDefinition();
+        bd.setBeanClass(AspectJPointcutAdvisor.class);
+        bd.setConstructorArgumentValues(Arrays.asList("countingBefore", "execution(* v5.AutoProxyPreparationTest.*Service.*(..))"));
+        bf.registerBeanDefinition("advisor", bd);
+        register(bf, "advisorAutoProxyCreator", AdvisorAutoProxyCreator.class);
+
+        bf.registerTypeMap();
+        for (BeanPostProcessor bpp : bf.getBeansOfTypeList(BeanPostProcessor.class)) {
+            bf.registerBeanPostProcessor(bpp);
+        }
+        AdvisorAutoProxyCreator creator = (AdvisorAutoProxyCreator) bf.getBean("advisorAutoProxyCreator");
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            creator.setPreparationPool(pool);
+            bf.prepareBeanTypes();
+        } finally {
+            pool.shutdown();
+        }
+        Assert.assertTrue(creator.getPreparedBeanClasses().containsAll(Arrays.asList(OrderService.class, UserService.class, Clock.class)));
+
+        bf.preInstantiateSingletons();
+        CountingBefore.COUNT.set(0);
+        OrderService orderService = (OrderService) bf.getBean("orderService");
+        UserService userService = (UserService) bf.getBean("userService");
+        Clock clock = (Clock) bf.getBean("clock");
+        Assert.assertEquals("order", orderService.name());
+        Assert.assertEquals("user", userService.name());
+        Assert.assertEquals(Clock.class, clock.getClass());
+        clock.now();
+        Assert.assertEquals(2, CountingBefore.COUNT.get());
+
+        DefaultAopProxyFactory factory = (DefaultAopProxyFactory) creator.getAopProxyFactory();
+        Assert.assertEquals(ProxyStrategy.CGLIB, factory.getProxyStrategy("orderService"));
+        Assert.assertNull(factory.getProxyStrategy("clock"));
+    }
+
+    private static void register(PreBuildBeanFactory bf, String beanName, Class<?> beanClass) {
+        GenericBeanDefinition bd = new GenericBeanDefinition();
+        bd.setBeanClass(beanClass);
+        bf.registerBeanDefinition(beanName, bd);
+    }
+
+    public static class OrderService {
+
+        public String name() {
+            return "order";
+        }
+    }
+
+    public static class UserService {
+
+        public String name() {
+            return "user";
+        }
+    }
+
+    public static class Clock {
+
+        public long now() {
+            return System.currentTimeMillis();
+        }
+    }
+
+    public static class CountingBefore implements MethodBeforeAdvice {
+
+        static final AtomicInteger COUNT = new AtomicInteger();
+
+        @Override
+        public void before(Method method, Object[] args, Object target) {
+            COUNT.incrementAndGet();
+        }
+    }
+}
@@ -0,0 +1,292 @@
+package v5;
+
+import com.study.spring.aop.AdvisorAutoProxyCreator;
+import com.study.spring.aop.advice.CachingMethodInterceptor;
+import com.study.spring.aop.advisor.AspectJPointcutAdvisor;
+import com.study.spring.aop.beans.BeanDefinition;
+import com.study.spring.aop.beans.BeanPostProcessor;
+import com.study.spring.aop.beans.GenericBeanDefinition;
+import com.study.spring.aop.beans.factory.PreBuildBeanFactory;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * @ClassName CachingMethodInterceptorTest
+ * @Description 缓存通知测试：按方法加参数缓存结果，数组参数写入时深复制，每个方法一个区域，目标对象是键的一部分，同一接口的不同Bean不共用结果，原型Bean不增加区域；超过上限淘汰最久未访问的结果；超过 TTL 重新执行；同一个键并发未命中只执行一次目标方法，异常不缓存；统计命中、未命中
+ * @Author liqiang
+ * @Date 2025/11/01 11:00
+ */
+public class CachingMethodInterceptorTest {
+
+    @Test
+    public void testResultsCachedPerMethodAndArguments() throws Throwable {
+        PreBuildBeanFactory bf = createFactory(10, 0L);
+        Lookup lookup = (Lookup) bf.getBean("lookup");
+        CachingMethodInterceptor interceptor = (CachingMethodInterceptor) bf.getBean("cachingInterceptor");
+
+        Assert.assertEquals("find:a", lookup.find("a"));
+        Assert.assertEquals("find:a", lookup.find("a"));
+        Assert.assertEquals("find:b", lookup.find("b"));
+        Assert.assertEquals("load:a", lookup.load("a"));
+        Assert.assertNull(lookup.missing());
+        Assert.assertNull(lookup.missing());
+        Assert.assertEquals(4, Lookup.CALLS.get());
+
+        CachingMethodInterceptor.CacheStats stats = interceptor.getStats(Lookup.class.getMethod("find", String.class));
+        Assert.assertEquals(1, stats.getHits());
+        Assert.assertEquals(2, stats.getMisses());
+        Assert.assertEquals(2, stats.getSize());
+        Assert.assertEquals(1, interceptor.getStats(Lookup.class.getMethod("load", String.class)).getSize());
+        Assert.assertEquals(3, interceptor.getStats().size());
+    }
+
+    @Test
+    public void testBeansSharingInterfaceCachedSeparately() throws Throwable {
+        PreBuildBeanFactory bf = createFactory(10, 0L);
+        Repository first = (Repository) bf.getBean("firstRepository");
+        Repository second = (Repository) bf.getBean("secondRepository");
+        CachingMethodInterceptor interceptor = (CachingMethodInterceptor) bf.getBean("cachingInterceptor");
+
+        Assert.assertEquals("first:a", first.find("a"));
+        Assert.assertEquals("second:a", second.find("a"));
+        Assert.assertEquals("first:a", first.find("a"));
+        Assert.assertEquals("second:a", second.find("a"));
+
+        // 两个Bean是同一个类的子类代理，拿到的是同一个方法，共用一个区域，按目标对象区分条目
+        Method find = PrefixRepository.class.getMethod("find", String.class);
+        CachingMethodInterceptor.CacheStats stats = interceptor.getStats(find);
+        Assert.assertEquals(2, stats.getHits());
+        Assert.assertEquals(2, stats.getMisses());
+        Assert.assertEquals(2, stats.getSize());
+        Assert.assertEquals(1, interceptor.getStats().size());
+    }
+
+    @Test
+    public void testPrototypeTargetsDoNotAddRegions() throws Throwable {
+        PreBuildBeanFactory bf = createFactory(10, 0L);
+        CachingMethodInterceptor interceptor = (CachingMethodInterceptor) bf.getBean("cachingInterceptor");
+
+        for (int i = 0; i < 50; i++) {
+            Repository prototype = (Repository) bf.getBean("prototypeRepository");
+            Assert.assertEquals("prototype:a", prototype.find("a"));
+        }
+        // 每个原型各自一个条目，区域只有一个，条目数受上限约束，淘汰后不再引用原型
+        CachingMethodInterceptor.CacheStats stats = interceptor.getStats(PrefixRepository.class.getMethod("find", String.class));
+        Assert.assertEquals(1, interceptor.getStats().size());
+        Assert.assertEquals(50, stats.getMisses());
+        Assert.assertTrue(stats.getSize() <= 10);
+        Assert.assertTrue(stats.getEvictions() >= 40);
+    }
+
+    @Test
+    public void testConcurrentMissesComputeOnce() throws Throwable {
+        PreBuildBeanFactory bf = createFactory(10, 0L);
+        Lookup lookup = (Lookup) bf.getBean("lookup");
+        CachingMethodInterceptor interceptor = (CachingMethodInterceptor) bf.getBean("cachingInterceptor");
+
+        int threads = 8;
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<String>> results = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                results.add(pool.submit(() -> {
+                    start.await();
+                    return lookup.slow("a");
+                }));
+            }
+            start.countDown();
+            for (Future<String> result : results) {
+                Assert.assertEquals("slow:a", result.get(5, TimeUnit.SECONDS));
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        Assert.assertEquals(1, Lookup.CALLS.get());
+        CachingMethodInterceptor.CacheStats stats = interceptor.getStats(Lookup.class.getMethod("slow", String.class));
+        Assert.assertEquals(1, stats.getMisses());
+        Assert.assertEquals(threads - 1, stats.getHits());
+    }
+
+    @Test
+    public void testExceptionNotCached() throws Throwable {
+        PreBuildBeanFactory bf = createFactory(10, 0L);
+        Lookup lookup = (Lookup) bf.getBean("lookup");
+        for (int i = 0; i < 2; i++) {
+            try {
+                lookup.fail("a");
+                Assert.fail();
+            } catch (IllegalStateException e) {
+                Assert.assertEquals("fail:a", e.getMessage());
+            }
+        }
+        Assert.assertEquals(2, Lookup.CALLS.get());
+    }
+
+    @Test
+    public void testArrayArgumentsCopiedWhenStored() throws Throwable {
+        PreBuildBeanFactory bf = createFactory(10, 0L);
+        Lookup lookup = (Lookup) bf.getBean("lookup");
+
+        int[][] values = {{1, 2}, {3}};
+        Assert.assertEquals(6, lookup.sum(values));
+        // 修改调用方的数组不影响已缓存的键
+        values[0][0] = 10;
+        Assert.assertEquals(6, lookup.sum(new int[][]{{1, 2}, {3}}));
+        Assert.assertEquals(1, Lookup.CALLS.get());
+        Assert.assertEquals(15, lookup.sum(values));
+        Assert.assertEquals(2, Lookup.CALLS.get());
+    }
+
+    @Test
+    public void testLeastRecentlyUsedEvicted() throws Throwable {
+        PreBuildBeanFactory bf = createFactory(3, 0L);
+        Lookup lookup = (Lookup) bf.getBean("lookup");
+        CachingMethodInterceptor interceptor = (CachingMethodInterceptor) bf.getBean("cachingInterceptor");
+
+        lookup.find("a");
+        lookup.find("b");
+        lookup.find("c");
+        lookup.find("a");
+        lookup.find("d");
+        CachingMethodInterceptor.CacheStats stats = interceptor.getStats(Lookup.class.getMethod("find", String.class));
+        Assert.assertEquals(3, stats.getSize());
+        Assert.assertEquals(1, stats.getEvictions());
+
+        int calls = Lookup.CALLS.get();
+        lookup.find("a");
+        Assert.assertEquals(calls, Lookup.CALLS.get());
+        lookup.find("b");
+        Assert.assertEquals(calls + 1, Lookup.CALLS.get());
+    }
+
+    @Test
+    public void testExpiredAfterTtl() throws Throwable {
+        PreBuildBeanFactory bf = createFactory(10, 50L);
+        Lookup lookup = (Lookup) bf.getBean("lookup");
+        CachingMethodInterceptor interceptor = (CachingMethodInterceptor) bf.getBean("cachingInterceptor");
+
+        lookup.find("a");
+        lookup.find("a");
+        Assert.assertEquals(1, Lookup.CALLS.get());
+        Thread.sleep(80);
+        lookup.find("a");
+        Assert.assertEquals(2, Lookup.CALLS.get());
+        Assert.assertEquals(1, interceptor.getStats(Lookup.class.getMethod("find", String.class)).getExpirations());
+    }
+
+    private static PreBuildBeanFactory createFactory(int maximumSize, long ttlMillis) throws Throwable {
+        Lookup.CALLS.set(0);
+        PreBuildBeanFactory bf = new PreBuildBeanFactory();
+        GenericBeanDefinition lookup = new GenericBeanDefinition();
+        lookup.setBeanClass(Lookup.class);
+        bf.registerBeanDefinition("lookup", lookup);
+
+        // 同一个类、不同配置的两个Bean
+        for (String prefix : Arrays.asList("first", "second")) {
+            GenericBeanDefinition repository = new GenericBeanDefinition();
+            repository.setBeanClass(PrefixRepository.class);
+            repository.setConstructorArgumentValues(Collections.singletonList(prefix));
+            bf.registerBeanDefinition(prefix + "Repository", repository);
+        }
+        GenericBeanDefinition prototypeRepository = new GenericBeanDefinition();
+        prototypeRepository.setBeanClass(PrefixRepository.class);
+        prototypeRepository.setScope(BeanDefinition.SCOPE_PROTOTYPE);
+        prototypeRepository.setConstructorArgumentValues(Collections.singletonList("prototype"));
+        bf.registerBeanDefinition("prototypeRepository", prototypeRepository);
+
+        GenericBeanDefinition interceptor = new GenericBeanDefinition();
+        interceptor.setBeanClass(CachingMethodInterceptor.class);
+        interceptor.setConstructorArgumentValues(Arrays.asList(maximumSize, ttlMillis));
+        bf.registerBeanDefinition("cachingInterceptor", interceptor);
+
+        GenericBeanDefinition advisor = new GenericBeanDefinition();
+        advisor.setBeanClass(AspectJPointcutAdvisor.class);
+        advisor.setConstructorArgumentValues(Arrays.asList("cachingInterceptor", "execution(* v5.CachingMethodInterceptorTest.*.*(..))"));
+        bf.registerBeanDefinition("cachingAdvisor", advisor);
+
+        GenericBeanDefinition creator = new GenericBeanDefinition();
+        creator.setBeanClass(AdvisorAutoProxyCreator.class);
+        bf.registerBeanDefinition("advisorAutoProxyCreator", creator);
+        bf.registerTypeMap();
+        for (BeanPostProcessor bpp : bf.getBeansOfTypeList(BeanPostProcessor.class)) {
+            bf.registerBeanPostProcessor(bpp);
+        }
+        return bf;
+    }
+
+    public static class Lookup {
+
+        // 目标方法的执行次数
+        static final AtomicInteger CALLS = new AtomicInteger();
+
+        public String find(String name) {
+            CALLS.incrementAndGet();
+            return "find:" + name;
+        }
+
+        public String load(String name) {
+            CALLS.incrementAndGet();
+            return "load:" + name;
+        }
+
+        public int sum(int[][] values) {
+            CALLS.incrementAndGet();
+            int sum = 0;
+            for (int[] row : values) {
+                for (int value : row) {
+                    sum += value;
+                }
+            }
+            return sum;
+        }
+
+        public String slow(String name) throws InterruptedException {
+            CALLS.incrementAndGet();
+            // 让其他线程在执行期间到达
+            Thread.sleep(100);
+            return "slow:" + name;
+        }
+
+        public String fail(String name) {
+            CALLS.incrementAndGet();
+            throw new IllegalStateException("fail:" + name);
+        }
+
+        public String missing() {
+            CALLS.incrementAndGet();
+            return null;
+        }
+    }
+
+    public interface Repository {
+
+        String find(String name);
+    }
+
+    public static class PrefixRepository implements Repository {
+
+        private final String prefix;
+
+        public PrefixRepository(String prefix) {
+            this.prefix = prefix;
+        }
+
+        @Override
+        public String find(String name) {
+            return this.prefix + ":" + name;
+        }
+    }
+}
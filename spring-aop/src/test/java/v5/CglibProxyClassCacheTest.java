@@ -0,0 +1,164 @@
+package v5;
+
+import com.study.spring.aop.AdvisorAutoProxyCreator;
+import com.study.spring.aop.CglibDynamicAopProxy;
+import com.study.spring.aop.advice.MethodBeforeAdvice;
+import com.study.spring.aop.advisor.Advisor;
+import com.study.spring.aop.advisor.AspectJPointcutAdvisor;
+import com.study.spring.aop.beans.BeanDefinition;
+import com.study.spring.aop.beans.BeanPostProcessor;
+import com.study.spring.aop.beans.GenericBeanDefinition;
+import com.study.spring.aop.beans.factory.DefaultBeanFactory;
+import com.study.spring.aop.beans.factory.PreBuildBeanFactory;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * @ClassName CglibProxyClassCacheTest
+ * @Description CGLIB 代理类缓存测试：同一目标类只生成一次代理类，并行创建代理互不干扰，有参构造方法的原型Bean也复用代理类
+ * @Author liqiang
+ * @Date 2025/10/25 10:20
+ */
+public class CglibProxyClassCacheTest {
+
+    private static final String POINTCUT = "execution(* v5.CglibProxyClassCacheTest.*.get*(..))";
+
+    @Test
+    public void testProxyClassReused() throws Throwable {
+        DefaultBeanFactory bf = adviceFactory();
+        List<Advisor> advisors = Collections.singletonList(new AspectJPointcutAdvisor("noopBeforeAdvice", POINTCUT));
+
+        Counter first = (Counter) new CglibDynamicAopProxy("first", new Counter(1), advisors, bf).getProxy();
+        Counter second = (Counter) new CglibDynamicAopProxy("second", new Counter(2), advisors, bf).getProxy();
+        Assert.assertSame(first.getClass(), second.getClass());
+        Assert.assertEquals(1, first.getValue());
+        Assert.assertEquals(2, second.getValue());
+    }
+
+    @Test
+    public void testParallelProxyCreation() throws Throwable {
+        DefaultBeanFactory bf = adviceFactory();
+        List<Advisor> advisors = Collections.singletonList(new AspectJPointcutAdvisor("noopBeforeAdvice", POINTCUT));
+
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            List<Callable<Boolean>> tasks = new ArrayList<>();
+            for (int i = 0; i < 200; i++) {
+                int value = i;
+                tasks.add(() -> {
+                    // 两个不同的目标类交替创建，共享的 Enhancer 会把父类和回调弄混
+                    if (value % 2 == 0) {
+                        Counter proxy = (Counter) new CglibDynamicAopProxy("counter", new Counter(value), advisors, bf).getProxy();
+                        return proxy.getValue() == value;
+                    }
+                    Tag proxy = (Tag) new CglibDynamicAopProxy("tag", new Tag("t" + value), advisors, bf).getProxy();
+                    return proxy.getName().equals("t" + value);
+                });
+            }
+            for (Future<Boolean> result : pool.invokeAll(tasks)) {
+                Assert.assertTrue(result.get());
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testPrototypeWithConstructorArguments() throws Throwable {
+        PreBuildBeanFactory bf = adviceFactory();
+        GenericBeanDefinition bd = new GenericBeanDefinition();
+        bd.setBeanClass(Label.class);
+        bd.setScope(BeanDefinition.SCOPE_PROTOTYPE);
+        bd.setConstructorArgumentValues(Arrays.asList("prototype"));
+        bf.registerBeanDefinition("label", bd);
+
+        GenericBeanDefinition advisor = new GenericBeanDefinition();
+        advisor.setBeanClass(AspectJPointcutAdvisor.class);
+        advisor.setConstructorArgumentValues(Arrays.asList("noopBeforeAdvice", POINTCUT));
+        bf.registerBeanDefinition("advisor", advisor);
+
+        GenericBeanDefinition creator = new GenericBeanDefinition();
+        creator.setBeanClass(AdvisorAutoProxyCreator.class);
+        bf.registerBeanDefinition("advisorAutoProxyCreator", creator);
+        bf.registerTypeMap();
+        for (BeanPostProcessor bpp : bf.getBeansOfTypeList(BeanPostProcessor.class)) {
+            bf.registerBeanPostProcessor(bpp);
+        }
+
+        Label first = (Label) bf.getBean("label");
+        Label second = (Label) bf.getBean("label");
+        Assert.assertNotSame(first, second);
+        Assert.assertSame(first.getClass(), second.getClass());
+        Assert.assertEquals("prototype", second.getText());
+    }
+
+    private static PreBuildBeanFactory adviceFactory() throws Exception {
+        PreBuildBeanFactory bf = new PreBuildBeanFactory();
+        GenericBeanDefinition bd = new GenericBeanDefinition();
+        bd.setBeanClass(NoopBeforeAdvice.class);
+        bf.registerBeanDefinition("noopBeforeAdvice", bd);
+        return bf;
+    }
+
+    public static class Counter {
+
+        private int value;
+
+        public Counter() {
+        }
+
+        public Counter(int value) {
+            this.value = value;
+        }
+
+        public int getValue() {
+            return value;
+        }
+    }
+
+    public static class Tag {
+
+        private String name;
+
+        public Tag() {
+        }
+
+        public Tag(String name) {
+            this.name = name;
+        }
+
+        public String getName() {
+            return name;
+        }
+    }
+
+    public static class Label {
+
+        private final String text;
+
+        public Label(String text) {
+            this.text = text;
+        }
+
+        public String getText() {
+            return text;
+        }
+    }
+
+    public static class NoopBeforeAdvice implements MethodBeforeAdvice {
+
+        @Override
+        public void before(Method method, Object[] args, Object target) {
+        }
+    }
+}
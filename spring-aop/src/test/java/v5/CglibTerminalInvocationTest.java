@@ -0,0 +1,64 @@
+package v5;
+
+import com.study.spring.aop.CglibDynamicAopProxy;
+import com.study.spring.aop.advice.MethodBeforeAdvice;
+import com.study.spring.aop.advisor.Advisor;
+import com.study.spring.aop.advisor.AspectJPointcutAdvisor;
+import com.study.spring.aop.beans.GenericBeanDefinition;
+import com.study.spring.aop.beans.factory.DefaultBeanFactory;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.lang.reflect.Method;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * @ClassName CglibTerminalInvocationTest
+ * @Description CGLIB 代理通过 MethodProxy 调用目标方法：返回值正确，目标方法抛出的异常原样抛给调用方，不再包装成 InvocationTargetException
+ * @Author liqiang
+ * @Date 2025/10/24 17:05
+ */
+public class CglibTerminalInvocationTest {
+
+    @Test
+    public void testTargetInvokedThroughMethodProxy() throws Throwable {
+        DefaultBeanFactory bf = new DefaultBeanFactory();
+        GenericBeanDefinition bd = new GenericBeanDefinition();
+        bd.setBeanClass(NoopBeforeAdvice.class);
+        bf.registerBeanDefinition("noopBeforeAdvice", bd);
+        List<Advisor> advisors = Collections.singletonList(
+                new AspectJPointcutAdvisor("noopBeforeAdvice", "execution(* v5.CglibTerminalInvocationTest.Calculator.*(..))"));
+
+        Calculator target = new Calculator();
+        Calculator proxy = (Calculator) new CglibDynamicAopProxy("calculator", target, advisors, bf).getProxy();
+
+        Assert.assertEquals(5, proxy.add(2, 3));
+        // 未被增强的 Object 方法也走 MethodProxy
+        Assert.assertEquals(target.hashCode(), proxy.hashCode());
+        try {
+            proxy.fail("boom");
+            Assert.fail("应抛出目标方法的异常");
+        } catch (IllegalStateException e) {
+            Assert.assertEquals("boom", e.getMessage());
+        }
+    }
+
+    public static class Calculator {
+
+        public int add(int a, int b) {
+            return a + b;
+        }
+
+        public void fail(String message) {
+            throw new IllegalStateException(message);
+        }
+    }
+
+    public static class NoopBeforeAdvice implements MethodBeforeAdvice {
+
+        @Override
+        public void before(Method method, Object[] args, Object target) {
+        }
+    }
+}
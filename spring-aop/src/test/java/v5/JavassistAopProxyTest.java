@@ -0,0 +1,182 @@
+package v5;
+
+import com.study.spring.aop.JavassistAopProxy;
+import com.study.spring.aop.advice.MethodBeforeAdvice;
+import com.study.spring.aop.advisor.Advisor;
+import com.study.spring.aop.advisor.AspectJPointcutAdvisor;
+import com.study.spring.aop.beans.GenericBeanDefinition;
+import com.study.spring.aop.beans.factory.DefaultBeanFactory;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.lang.reflect.Method;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * @ClassName JavassistAopProxyTest
+ * @Description Javassist 代理测试：子类代理的基本类型参数与返回值、未增强方法直接调用、异常原样抛出、父类构造方法中的调用；
+ *              final 类的接口代理；同一个类的代理共用生成的代理类；子类代理对象不调用目标类的构造方法
+ * @Author liqiang
+ * @Date 2025/10/26 11:30
+ */
+public class JavassistAopProxyTest {
+
+    @Test
+    public void testSubclassProxy() throws Throwable {
+        StringBuilder trace = new StringBuilder();
+        DefaultBeanFactory bf = new DefaultBeanFactory();
+        List<Advisor> advisors = advisors(bf, trace, "execution(* v5.JavassistAopProxyTest.Calculator.add*(..))");
+
+        Calculator proxy = (Calculator) new JavassistAopProxy("calculator", new Calculator(), advisors, bf).getProxy();
+        Assert.assertNotSame(Calculator.class, proxy.getClass());
+        Assert.assertEquals(5, proxy.add(2, 3));
+        Assert.assertEquals(2.5d, proxy.addAll(new double[]{1d, 1.5d}), 0d);
+        // 未增强的方法
+        Assert.assertEquals("x-x", proxy.repeat("x"));
+        proxy.reset();
+        Assert.assertEquals(0, proxy.getCount());
+        Assert.assertEquals("add,addAll,", trace.toString());
+    }
+
+    @Test
+    public void testExceptionIsNotWrapped() throws Throwable {
+        DefaultBeanFactory bf = new DefaultBeanFactory();
+        List<Advisor> advisors = advisors(bf, new StringBuilder(), "execution(* v5.JavassistAopProxyTest.Calculator.*(..))");
+
+        Calculator proxy = (Calculator) new JavassistAopProxy("calculator", new Calculator(), advisors, bf).getProxy();
+        try {
+            proxy.fail();
+            Assert.fail();
+        } catch (IllegalStateException e) {
+            Assert.assertEquals("fail", e.getMessage());
+        }
+    }
+
+    @Test
+    public void testInterfaceProxyForFinalClass() throws Throwable {
+        StringBuilder trace = new StringBuilder();
+        DefaultBeanFactory bf = new DefaultBeanFactory();
+        List<Advisor> advisors = advisors(bf, trace, "execution(* v5.JavassistAopProxyTest.Greeter.*(..))");
+
+        Greeter proxy = (Greeter) new JavassistAopProxy("greeter", new FinalGreeter(), advisors, bf).getProxy();
+        Assert.assertFalse(proxy instanceof FinalGreeter);
+        Assert.assertEquals("hello world", proxy.greet("world"));
+        Assert.assertEquals("greet,", trace.toString());
+    }
+
+    @Test
+    public void testProxyClassIsShared() throws Throwable {
+        DefaultBeanFactory bf = new DefaultBeanFactory();
+        List<Advisor> advisors = advisors(bf, new StringBuilder(), "execution(* v5.JavassistAopProxyTest.Calculator.add(..))");
+
+        Calculator first = (Calculator) new JavassistAopProxy("first", new Calculator(), advisors, bf).getProxy();
+        Calculator second = (Calculator) new JavassistAopProxy("second", new Calculator(), advisors, bf).getProxy();
+        Assert.assertSame(first.getClass(), second.getClass());
+        Assert.assertNotSame(first, second);
+    }
+
+    @Test
+    public void testProxyDoesNotRunTargetConstructor() throws Throwable {
+        DefaultBeanFactory bf = new DefaultBeanFactory();
+        List<Advisor> advisors = advisors(bf, new StringBuilder(), "execution(* v5.JavassistAopProxyTest.Counted.*(..))");
+        Counted.CONSTRUCTED.set(0);
+
+        // 没有无参构造方法，也没有Bean定义
+        Counted proxy = (Counted) new JavassistAopProxy("counted", new Counted("a"), advisors, bf).getProxy();
+        Assert.assertEquals("a", proxy.getName());
+        Assert.assertEquals(1, Counted.CONSTRUCTED.get());
+    }
+
+    private static List<Advisor> advisors(DefaultBeanFactory bf, StringBuilder trace, String pointcut) throws Exception {
+        GenericBeanDefinition bd = new GenericBeanDefinition();
+        bd.setBeanClass(RecordingBefore.class);
+        bd.setConstructorArgumentValues(Collections.singletonList(trace));
+        bf.registerBeanDefinition("recordingBefore", bd);
+        return Collections.singletonList(new AspectJPointcutAdvisor("recordingBefore", pointcut));
+    }
+
+    public static class Calculator {
+
+        private int count;
+
+        public Calculator() {
+            // 父类构造方法中调用被覆盖的方法，此时代理还未初始化
+            this.reset();
+        }
+
+        public int add(int a, int b) {
+            this.count++;
+            return a + b;
+        }
+
+        public double addAll(double[] values) {
+            double sum = 0;
+            for (double value : values) {
+                sum += value;
+            }
+            return sum;
+        }
+
+        public String repeat(String value) {
+            return value + "-" + value;
+        }
+
+        public void reset() {
+            this.count = 0;
+        }
+
+        public int getCount() {
+            return count;
+        }
+
+        public void fail() {
+            throw new IllegalStateException("fail");
+        }
+    }
+
+    public static class Counted {
+
+        // 构造方法的执行次数
+        static final AtomicInteger CONSTRUCTED = new AtomicInteger();
+
+        private final String name;
+
+        public Counted(String name) {
+            CONSTRUCTED.incrementAndGet();
+            this.name = name;
+        }
+
+        public String getName() {
+            return name;
+        }
+    }
+
+    public interface Greeter {
+
+        String greet(String name);
+    }
+
+    public static final class FinalGreeter implements Greeter {
+
+        @Override
+        public String greet(String name) {
+            return "hello " + name;
+        }
+    }
+
+    public static class RecordingBefore implements MethodBeforeAdvice {
+
+        private final StringBuilder trace;
+
+        public RecordingBefore(StringBuilder trace) {
+            this.trace = trace;
+        }
+
+        @Override
+        public void before(Method method, Object[] args, Object target) {
+            this.trace.append(method.getName()).append(',');
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package v5;
+
+import com.study.spring.aop.JdkDynamicAopProxy;
+import com.study.spring.aop.advice.ThrowsAdvice;
+import com.study.spring.aop.advisor.Advisor;
+import com.study.spring.aop.advisor.AspectJPointcutAdvisor;
+import com.study.spring.aop.beans.GenericBeanDefinition;
+import com.study.spring.aop.beans.factory.PreBuildBeanFactory;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.lang.reflect.Method;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * @ClassName JdkMethodHandleInvocationTest
+ * @Description JDK 代理通过 MethodHandle 调用目标方法：参数展开、基本类型装箱，目标方法抛出的异常原样抛出，
+ *              异常通知拿到的是目标方法抛出的异常，非 public 接口同样可以调用
+ * @Author liqiang
+ * @Date 2025/10/31 10:30
+ */
+public class JdkMethodHandleInvocationTest {
+
+    @Test
+    public void testArgumentsSpreadIntoTarget() throws Throwable {
+        Calculator proxy = (Calculator) new JdkDynamicAopProxy("calculator", new SimpleCalculator(),
+                advisors("add"), factory()).getProxy();
+        Assert.assertEquals(5, proxy.add(2, 3));
+        Assert.assertEquals("calculator", proxy.name());
+        proxy.reset();
+    }
+
+    @Test
+    public void testTargetExceptionNotWrapped() throws Throwable {
+        RecordingThrows.LAST.set(null);
+        Calculator proxy = (Calculator) new JdkDynamicAopProxy("calculator", new SimpleCalculator(),
+                advisors("divide"), factory()).getProxy();
+        try {
+            proxy.divide(1, 0);
+            Assert.fail();
+        } catch (ArithmeticException e) {
+            Assert.assertSame(e, RecordingThrows.LAST.get());
+        }
+        // 未被增强的方法同样原样抛出
+        try {
+            proxy.check(-1);
+            Assert.fail();
+        } catch (IllegalArgumentException e) {
+            Assert.assertEquals("-1", e.getMessage());
+        }
+    }
+
+    @Test
+    public void testNonPublicInterface() throws Throwable {
+        Counter proxy = (Counter) new JdkDynamicAopProxy("counter", new SimpleCounter(),
+                Collections.emptyList(), factory()).getProxy();
+        Assert.assertEquals(1, proxy.next());
+        Assert.assertEquals(2, proxy.next());
+    }
+
+    private static PreBuildBeanFactory factory() {
+        PreBuildBeanFactory bf = new PreBuildBeanFactory();
+        GenericBeanDefinition bd = new GenericBeanDefinition();
+        bd.setBeanClass(RecordingThrows.class);
+        bf.registerBeanDefinition("recordingThrows", bd);
+        return bf;
+    }
+
+    private static List<Advisor> advisors(String methodName) {
+        return Collections.singletonList(new AspectJPointcutAdvisor("recordingThrows",
+                "execution(* v5.JdkMethodHandleInvocationTest.SimpleCalculator." + methodName + "(..))"));
+    }
+
+    public interface Calculator {
+
+        int add(int a, int b);
+
+        int divide(int a, int b);
+
+        void check(int value);
+
+        String name();
+
+        void reset();
+    }
+
+    public static class SimpleCalculator implements Calculator {
+
+        @Override
+        public int add(int a, int b) {
+            return a + b;
+        }
+
+        @Override
+        public int divide(int a, int b) {
+            return a / b;
+        }
+
+        @Override
+        public void check(int value) {
+            if (value < 0) {
+                throw new IllegalArgumentException(String.valueOf(value));
+            }
+        }
+
+        @Override
+        public String name() {
+            return "calculator";
+        }
+
+        @Override
+        public void reset() {
+        }
+    }
+
+    interface Counter {
+
+        int next();
+    }
+
+    static class SimpleCounter implements Counter {
+
+        private int count;
+
+        @Override
+        public int next() {
+            return ++this.count;
+        }
+    }
+
+    public static class RecordingThrows implements ThrowsAdvice {
+
+        static final ThreadLocal<Exception> LAST = new ThreadLocal<>();
+
+        @Override
+        public void afterThrowing(Method method, Object[] args, Object target, Exception ex) {
+            LAST.set(ex);
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package v5;
+
+import com.study.spring.aop.AdvisorAutoProxyCreator;
+import com.study.spring.aop.CglibDynamicAopProxy;
+import com.study.spring.aop.advice.MethodBeforeAdvice;
+import com.study.spring.aop.advisor.Advisor;
+import com.study.spring.aop.advisor.AspectJPointcutAdvisor;
+import com.study.spring.aop.beans.BeanDefinition;
+import com.study.spring.aop.beans.BeanPostProcessor;
+import com.study.spring.aop.beans.GenericBeanDefinition;
+import com.study.spring.aop.beans.factory.PreBuildBeanFactory;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * @ClassName ObjenesisProxyInstantiationTest
+ * @Description CGLIB 代理对象通过 Objenesis 创建：目标类的构造方法只在创建目标对象时执行一次，
+ *              没有无参构造方法的类不需要Bean定义中的构造参数也能创建代理
+ * @Author liqiang
+ * @Date 2025/10/31 14:20
+ */
+public class ObjenesisProxyInstantiationTest {
+
+    private static final String POINTCUT = "execution(* v5.ObjenesisProxyInstantiationTest.*.get*(..))";
+
+    @Test
+    public void testProxyCreationSkipsConstructor() throws Throwable {
+        PreBuildBeanFactory bf = adviceFactory();
+        List<Advisor> advisors = Collections.singletonList(new AspectJPointcutAdvisor("countingBefore", POINTCUT));
+
+        Heavy.CONSTRUCTIONS.set(0);
+        for (int i = 0; i < 3; i++) {
+            Heavy target = new Heavy();
+            Heavy proxy = (Heavy) new CglibDynamicAopProxy("heavy", target, advisors, bf).getProxy();
+            Assert.assertEquals(target.getId(), proxy.getId());
+            Assert.assertEquals(target.toString(), proxy.toString());
+        }
+        Assert.assertEquals(3, Heavy.CONSTRUCTIONS.get());
+    }
+
+    @Test
+    public void testNoDefaultConstructorWithoutBeanDefinition() throws Throwable {
+        PreBuildBeanFactory bf = adviceFactory();
+        List<Advisor> advisors = Collections.singletonList(new AspectJPointcutAdvisor("countingBefore", POINTCUT));
+
+        CountingBefore.CALLS.set(0);
+        Greeting target = new Greeting("hello");
+        // "greeting" 没有注册Bean定义，创建代理不依赖构造参数
+        Greeting proxy = (Greeting) new CglibDynamicAopProxy("greeting", target, advisors, bf).getProxy();
+        Assert.assertEquals("hello", proxy.getText());
+        Assert.assertEquals(1, CountingBefore.CALLS.get());
+    }
+
+    @Test
+    public void testPrototypeConstructedOncePerBean() throws Throwable {
+        PreBuildBeanFactory bf = adviceFactory();
+        GenericBeanDefinition bd = new GenericBeanDefinition();
+        bd.setBeanClass(Greeting.class);
+        bd.setScope(BeanDefinition.SCOPE_PROTOTYPE);
+        bd.setConstructorArgumentValues(Arrays.asList("prototype"));
+        bf.registerBeanDefinition("greeting", bd);
+
+        GenericBeanDefinition advisor = new GenericBeanDefinition();
+        advisor.setBeanClass(AspectJPointcutAdvisor.class);
+        advisor.setConstructorArgumentValues(Arrays.asList("countingBefore", POINTCUT));
+        bf.registerBeanDefinition("advisor", advisor);
+
+        GenericBeanDefinition creator = new GenericBeanDefinition();
+        creator.setBeanClass(AdvisorAutoProxyCreator.class);
+        bf.registerBeanDefinition("advisorAutoProxyCreator", creator);
+        bf.registerTypeMap();
+        for (BeanPostProcessor bpp : bf.getBeansOfTypeList(BeanPostProcessor.class)) {
+            bf.registerBeanPostProcessor(bpp);
+        }
+
+        Greeting.CONSTRUCTIONS.set(0);
+        Greeting first = (Greeting) bf.getBean("greeting");
+        Greeting second = (Greeting) bf.getBean("greeting");
+        Assert.assertNotSame(first, second);
+        Assert.assertEquals("prototype", second.getText());
+        Assert.assertEquals(2, Greeting.CONSTRUCTIONS.get());
+    }
+
+    private static PreBuildBeanFactory adviceFactory() {
+        PreBuildBeanFactory bf = new PreBuildBeanFactory();
+        GenericBeanDefinition bd = new GenericBeanDefinition();
+        bd.setBeanClass(CountingBefore.class);
+        bf.registerBeanDefinition("countingBefore", bd);
+        return bf;
+    }
+
+    public static class Heavy {
+
+        static final AtomicInteger CONSTRUCTIONS = new AtomicInteger();
+
+        private final int id;
+
+        public Heavy() {
+            this.id = CONSTRUCTIONS.incrementAndGet();
+        }
+
+        public int getId() {
+            return id;
+        }
+
+        @Override
+        public String toString() {
+            return "heavy-" + id;
+        }
+    }
+
+    public static class Greeting {
+
+        static final AtomicInteger CONSTRUCTIONS = new AtomicInteger();
+
+        private final String text;
+
+        public Greeting(String text) {
+            CONSTRUCTIONS.incrementAndGet();
+            this.text = text;
+        }
+
+        public String getText() {
+            return text;
+        }
+    }
+
+    public static class CountingBefore implements MethodBeforeAdvice {
+
+        static final AtomicInteger CALLS = new AtomicInteger();
+
+        @Override
+        public void before(Method method, Object[] args, Object target) {
+            CALLS.incrementAndGet();
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package v5;
+
+import com.study.spring.aop.advisor.AspectJPointcutAdvisor;
+import com.study.spring.aop.pointcut.AspectJExpressionPointcut;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+import java.lang.ref.WeakReference;
+import java.lang.reflect.Field;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.Map;
+
+/**
+ * @ClassName PointcutMatchCacheTest
+ * @Description 切点表达式共用与匹配测试：同一类加载器下相同表达式只解析一次，不同类加载器各自解析；
+ *              默认使用线程上下文类加载器；切点和类加载器都不再使用后缓存条目被回收；
+ *              接口方法先按目标类上的实现方法匹配，不匹配时再按接口方法本身匹配；匹配结果缓存后结果不变
+ * @Author liqiang
+ * @Date 2025/10/28 10:20
+ */
+public class PointcutMatchCacheTest {
+
+    private static final String GREETER_POINTCUT = "execution(* v5.PointcutMatchCacheTest.DefaultGreeter.*(..))";
+
+    @Test
+    public void testSameExpressionIsParsedOnce() {
+        AspectJPointcutAdvisor first = new AspectJPointcutAdvisor("first", GREETER_POINTCUT);
+        AspectJPointcutAdvisor second = new AspectJPointcutAdvisor("second", GREETER_POINTCUT);
+        Assert.assertSame(((AspectJExpressionPointcut) first.getPointcut()).getPointcutExpression(),
+                ((AspectJExpressionPointcut) second.getPointcut()).getPointcutExpression());
+    }
+
+    @Test
+    public void testExpressionsArePerClassLoader() throws Exception {
+        AspectJExpressionPointcut pointcut = new AspectJExpressionPointcut(GREETER_POINTCUT, getClass().getClassLoader());
+        try (URLClassLoader classLoader = new URLClassLoader(new URL[0], getClass().getClassLoader())) {
+            AspectJExpressionPointcut other = new AspectJExpressionPointcut(GREETER_POINTCUT, classLoader);
+            Assert.assertNotSame(pointcut.getPointcutExpression(), other.getPointcutExpression());
+            Assert.assertSame(other.getPointcutExpression(),
+                    new AspectJExpressionPointcut(GREETER_POINTCUT, classLoader).getPointcutExpression());
+        }
+    }
+
+    @Test
+    public void testDefaultClassLoaderIsContextClassLoader() throws Exception {
+        Thread thread = Thread.currentThread();
+        ClassLoader original = thread.getContextClassLoader();
+        try (URLClassLoader classLoader = new URLClassLoader(new URL[0], getClass().getClassLoader())) {
+            thread.setContextClassLoader(classLoader);
+            Assert.assertSame(new AspectJExpressionPointcut(GREETER_POINTCUT, classLoader).getPointcutExpression(),
+                    new AspectJExpressionPointcut(GREETER_POINTCUT).getPointcutExpression());
+        } finally {
+            thread.setContextClassLoader(original);
+        }
+    }
+
+    @Test
+    public void testDroppedClassLoaderIsReleased() throws Exception {
+        Map<?, ?> cache = expressionCache();
+        // 先让测试类加载器的条目存在，之后的大小变化只来自新的类加载器
+        new AspectJExpressionPointcut(GREETER_POINTCUT, getClass().getClassLoader());
+        int size = cache.size();
+        // 新的类加载器自己定义 DefaultGreeter，解析器解析出的类型会引用它
+        URL testClasses = getClass().getProtectionDomain().getCodeSource().getLocation();
+        URLClassLoader classLoader = new URLClassLoader(new URL[]{testClasses}, null);
+        AspectJExpressionPointcut pointcut = new AspectJExpressionPointcut(GREETER_POINTCUT, classLoader);
+        Class<?> greeterClass = classLoader.loadClass(DefaultGreeter.class.getName());
+        Assert.assertNotSame(DefaultGreeter.class, greeterClass);
+        Assert.assertTrue(pointcut.matchClass(greeterClass));
+        Assert.assertTrue(pointcut.matchMethod(greeterClass.getMethod("greet"), greeterClass));
+        Assert.assertTrue(cache.containsKey(classLoader));
+        Assert.assertEquals(size + 1, cache.size());
+
+        WeakReference<ClassLoader> reference = new WeakReference<>(classLoader);
+        classLoader.close();
+        classLoader = null;
+        pointcut = null;
+        greeterClass = null;
+        for (int i = 0; i < 50 && reference.get() != null; i++) {
+            System.gc();
+            Thread.sleep(20);
+        }
+        Assert.assertNull(reference.get());
+        Assert.assertTrue(cache.size() <= size);
+    }
+
+    private static Map<?, ?> expressionCache() throws Exception {
+        Field field = AspectJExpressionPointcut.class.getDeclaredField("expressionCache");
+        field.setAccessible(true);
+        return (Map<?, ?>) field.get(null);
+    }
+
+    @Test
+    public void testInterfaceMethodMatchesTargetClassExpression() throws Exception {
+        AspectJExpressionPointcut pointcut = new AspectJExpressionPointcut(GREETER_POINTCUT);
+        Assert.assertTrue(pointcut.matchClass(DefaultGreeter.class));
+        for (int i = 0; i < 2; i++) {
+            // 第二次从缓存取
+            Assert.assertTrue(pointcut.matchMethod(Greeter.class.getMethod("greet"), DefaultGreeter.class));
+            Assert.assertTrue(pointcut.matchMethod(DefaultGreeter.class.getMethod("greet"), DefaultGreeter.class));
+            Assert.assertFalse(pointcut.matchMethod(Greeter.class.getMethod("greet"), OtherGreeter.class));
+        }
+        Assert.assertFalse(pointcut.matchClass(OtherGreeter.class));
+    }
+
+    @Test
+    public void testInterfaceMethodFallsBackToDeclaredMethod() throws Exception {
+        // 注解只在接口方法上，实现方法不匹配时仍按接口方法匹配
+        AspectJExpressionPointcut pointcut = new AspectJExpressionPointcut("@annotation(v5.PointcutMatchCacheTest.Audited)");
+        Assert.assertTrue(pointcut.matchMethod(Greeter.class.getMethod("greet"), DefaultGreeter.class));
+        Assert.assertFalse(pointcut.matchMethod(DefaultGreeter.class.getMethod("greet"), DefaultGreeter.class));
+    }
+
+    @Retention(RetentionPolicy.RUNTIME)
+    @Target(ElementType.METHOD)
+    public @interface Audited {
+    }
+
+    public interface Greeter {
+
+        @Audited
+        String greet();
+    }
+
+    public static class DefaultGreeter implements Greeter {
+
+        @Override
+        public String greet() {
+            return "hello";
+        }
+    }
+
+    public static class OtherGreeter implements Greeter {
+
+        @Override
+        public String greet() {
+            return "hi";
+        }
+    }
+}
@@ -0,0 +1,270 @@
+package v5;
+
+import com.study.spring.aop.AdvisorAutoProxyCreator;
+import com.study.spring.aop.advice.MethodBeforeAdvice;
+import com.study.spring.aop.advisor.Advisor;
+import com.study.spring.aop.advisor.AspectJPointcutAdvisor;
+import com.study.spring.aop.beans.BeanPostProcessor;
+import com.study.spring.aop.beans.GenericBeanDefinition;
+import com.study.spring.aop.beans.factory.DefaultBeanFactory;
+import com.study.spring.aop.exception.AopConfigException;
+import com.study.spring.aop.factory.DefaultAopProxyFactory;
+import com.study.spring.aop.factory.ProxyStrategy;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * @ClassName ProxyStrategySelectionTest
+ * @Description 代理方式选择测试：默认生成子类，实现接口的Bean也能按具体类查找；关闭 proxyTargetClass 后实现接口用 JDK；
+ *              没有接口、Bean定义要求代理目标类用 CGLIB（或 Javassist）；
+ *              Javassist 无法覆盖被增强的 protected 方法时改用 CGLIB；
+ *              没有公共无参构造方法的类、工厂方法创建的Bean通过 Objenesis 生成子类代理；
+ *              final 类实现了接口时用 JDK，又无法用接口代理时抛出 AopConfigException；记录每个Bean选择的代理方式
+ * @Author liqiang
+ * @Date 2025/10/27 10:30
+ */
+public class ProxyStrategySelectionTest {
+
+    private static final String POINTCUT = "execution(* v5.ProxyStrategySelectionTest.*.*(..))";
+
+    private DefaultBeanFactory bf;
+
+    private List<Advisor> advisors;
+
+    private DefaultAopProxyFactory factory;
+
+    @Before
+    public void setUp() throws Exception {
+        this.bf = new DefaultBeanFactory();
+        GenericBeanDefinition bd = new GenericBeanDefinition();
+        bd.setBeanClass(NoopBeforeAdvice.class);
+        this.bf.registerBeanDefinition("noopBeforeAdvice", bd);
+        this.advisors = Collections.singletonList(new AspectJPointcutAdvisor("noopBeforeAdvice", POINTCUT));
+        this.factory = new DefaultAopProxyFactory();
+    }
+
+    @Test
+    public void testInterfaceBeanUsesSubclassByDefault() throws Throwable {
+        Object proxy = this.createProxy("greeter", new DefaultGreeter(), false);
+        Assert.assertEquals(ProxyStrategy.CGLIB, this.factory.getProxyStrategy("greeter"));
+        Assert.assertTrue(proxy instanceof DefaultGreeter);
+        Assert.assertEquals("hello", ((Greeter) proxy).greet());
+    }
+
+    @Test
+    public void testAdvisedInterfaceBeanFoundByConcreteType() throws Throwable {
+        GenericBeanDefinition greeter = new GenericBeanDefinition();
+        greeter.setBeanClass(DefaultGreeter.class);
+        this.bf.registerBeanDefinition("greeter", greeter);
+        GenericBeanDefinition advisor = new GenericBeanDefinition();
+        advisor.setBeanClass(AspectJPointcutAdvisor.class);
+        advisor.setConstructorArgumentValues(Arrays.asList("noopBeforeAdvice", POINTCUT));
+        this.bf.registerBeanDefinition("noopAdvisor", advisor);
+        GenericBeanDefinition creator = new GenericBeanDefinition();
+        creator.setBeanClass(AdvisorAutoProxyCreator.class);
+        this.bf.registerBeanDefinition("advisorAutoProxyCreator", creator);
+        this.bf.registerTypeMap();
+        for (BeanPostProcessor bpp : this.bf.getBeansOfTypeList(BeanPostProcessor.class)) {
+            this.bf.registerBeanPostProcessor(bpp);
+        }
+
+        DefaultGreeter proxy = this.bf.getBean(DefaultGreeter.class);
+        Assert.assertNotSame(DefaultGreeter.class, proxy.getClass());
+        Assert.assertSame(proxy, this.bf.getBean(Greeter.class));
+        Assert.assertEquals("hello", proxy.greet());
+    }
+
+    @Test
+    public void testInterfaceBeanUsesJdkProxy() throws Throwable {
+        this.factory.setProxyTargetClass(false);
+        Object proxy = this.createProxy("greeter", new DefaultGreeter(), false);
+        Assert.assertEquals(ProxyStrategy.JDK, this.factory.getProxyStrategy("greeter"));
+        Assert.assertFalse(proxy instanceof DefaultGreeter);
+        Assert.assertEquals("hello", ((Greeter) proxy).greet());
+    }
+
+    @Test
+    public void testInheritedInterfaceUsesJdkProxy() throws Throwable {
+        this.factory.setProxyTargetClass(false);
+        Object proxy = this.createProxy("greeter", new SubGreeter(), false);
+        Assert.assertEquals(ProxyStrategy.JDK, this.factory.getProxyStrategy("greeter"));
+        Assert.assertEquals("hello", ((Greeter) proxy).greet());
+    }
+
+    @Test
+    public void testProxyTargetClassUsesCglib() throws Throwable {
+        this.factory.setProxyTargetClass(false);
+        Object proxy = this.createProxy("greeter", new DefaultGreeter(), true);
+        Assert.assertEquals(ProxyStrategy.CGLIB, this.factory.getProxyStrategy("greeter"));
+        Assert.assertTrue(proxy instanceof DefaultGreeter);
+    }
+
+    @Test
+    public void testClassWithoutInterfacesUsesSubclass() throws Throwable {
+        Object proxy = this.createProxy("plain", new Plain(), false);
+        Assert.assertEquals(ProxyStrategy.CGLIB, this.factory.getProxyStrategy("plain"));
+        Assert.assertTrue(proxy instanceof Plain);
+
+        this.factory.setUseJavassistProxy(true);
+        proxy = this.createProxy("javassistPlain", new Plain(), false);
+        Assert.assertEquals(ProxyStrategy.JAVASSIST, this.factory.getProxyStrategy("javassistPlain"));
+        Assert.assertEquals("plain", ((Plain) proxy).name());
+    }
+
+    @Test
+    public void testAdvisedProtectedMethodFallsBackToCglib() throws Throwable {
+        this.factory.setUseJavassistProxy(true);
+        Guarded proxy = (Guarded) this.createProxy("guarded", new Guarded(), false);
+        Assert.assertEquals(ProxyStrategy.CGLIB, this.factory.getProxyStrategy("guarded"));
+        Assert.assertEquals("checked", proxy.check());
+    }
+
+    @Test
+    public void testFinalClassWithInterfaceUsesJdkProxy() throws Throwable {
+        this.createProxy("finalGreeter", new FinalGreeter(), false);
+        Assert.assertEquals(ProxyStrategy.JDK, this.factory.getProxyStrategy("finalGreeter"));
+    }
+
+    @Test(expected = AopConfigException.class)
+    public void testFinalClassWithProxyTargetClassFails() throws Throwable {
+        this.createProxy("finalGreeter", new FinalGreeter(), true);
+    }
+
+    @Test(expected = AopConfigException.class)
+    public void testFinalClassWithoutInterfacesFails() throws Throwable {
+        this.createProxy("finalPlain", new FinalPlain(), false);
+    }
+
+    @Test
+    public void testClassWithoutNoArgConstructorUsesSubclass() throws Throwable {
+        Named proxy = (Named) this.createProxy("named", new Named("x"), false);
+        Assert.assertEquals(ProxyStrategy.CGLIB, this.factory.getProxyStrategy("named"));
+        Assert.assertEquals("x", proxy.name());
+
+        this.factory.setUseJavassistProxy(true);
+        proxy = (Named) this.createProxy("javassistNamed", new Named("y"), false);
+        Assert.assertEquals(ProxyStrategy.JAVASSIST, this.factory.getProxyStrategy("javassistNamed"));
+        Assert.assertEquals("y", proxy.name());
+    }
+
+    @Test
+    public void testFactoryMethodBeanUsesSubclass() throws Throwable {
+        GenericBeanDefinition bd = new GenericBeanDefinition();
+        bd.setBeanClass(Produced.class);
+        bd.setFactoryMethodName("create");
+        this.bf.registerBeanDefinition("produced", bd);
+
+        // Bean定义没有构造方法，Produced 只有 protected 无参构造方法
+        Produced proxy = (Produced) this.factory.createAopProxy(Produced.create(), "produced", this.advisors, this.bf).getProxy();
+        Assert.assertEquals(ProxyStrategy.CGLIB, this.factory.getProxyStrategy("produced"));
+        Assert.assertEquals("produced", proxy.name());
+    }
+
+    @Test
+    public void testStrategiesAreRecorded() throws Throwable {
+        this.createProxy("greeter", new DefaultGreeter(), false);
+        this.createProxy("plain", new Plain(), false);
+        this.createProxy("finalGreeter", new FinalGreeter(), false);
+
+        Assert.assertEquals(3, this.factory.getProxyStrategies().size());
+        Assert.assertEquals(2, this.factory.getBeansByStrategy().get(ProxyStrategy.CGLIB).size());
+        Assert.assertEquals(Arrays.asList("finalGreeter"), this.factory.getBeansByStrategy().get(ProxyStrategy.JDK));
+    }
+
+    private Object createProxy(String beanName, Object bean, boolean proxyTargetClass) throws Throwable {
+        GenericBeanDefinition bd = new GenericBeanDefinition();
+        bd.setBeanClass(bean.getClass());
+        bd.setProxyTargetClass(proxyTargetClass);
+        this.bf.registerBeanDefinition(beanName, bd);
+        return this.factory.createAopProxy(bean, beanName, this.advisors, this.bf).getProxy();
+    }
+
+    public interface Greeter {
+
+        String greet();
+    }
+
+    public static class DefaultGreeter implements Greeter {
+
+        @Override
+        public String greet() {
+            return "hello";
+        }
+    }
+
+    public static class SubGreeter extends DefaultGreeter {
+    }
+
+    public static final class FinalGreeter implements Greeter {
+
+        @Override
+        public String greet() {
+            return "hi";
+        }
+    }
+
+    public static class Plain {
+
+        public String name() {
+            return "plain";
+        }
+    }
+
+    public static class Guarded {
+
+        public String name() {
+            return "guarded";
+        }
+
+        protected String check() {
+            return "checked";
+        }
+    }
+
+    public static final class FinalPlain {
+
+        public String name() {
+            return "finalPlain";
+        }
+    }
+
+    public static class Named {
+
+        private final String name;
+
+        public Named(String name) {
+            this.name = name;
+        }
+
+        public String name() {
+            return name;
+        }
+    }
+
+    public static class Produced {
+
+        protected Produced() {
+        }
+
+        public static Produced create() {
+            return new Produced();
+        }
+
+        public String name() {
+            return "produced";
+        }
+    }
+
+    public static class NoopBeforeAdvice implements MethodBeforeAdvice {
+
+        @Override
+        public void before(Method method, Object[] args, Object target) {
+        }
+    }
+}
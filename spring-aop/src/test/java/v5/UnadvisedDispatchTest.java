@@ -0,0 +1,139 @@
+package v5;
+
+import com.study.spring.aop.AdvisedMethods;
+import com.study.spring.aop.CglibDynamicAopProxy;
+import com.study.spring.aop.JdkDynamicAopProxy;
+import com.study.spring.aop.advice.MethodBeforeAdvice;
+import com.study.spring.aop.advisor.Advisor;
+import com.study.spring.aop.advisor.AspectJPointcutAdvisor;
+import com.study.spring.aop.beans.GenericBeanDefinition;
+import com.study.spring.aop.beans.factory.PreBuildBeanFactory;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.lang.reflect.Method;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * @ClassName UnadvisedDispatchTest
+ * @Description 未被增强方法的直接分派测试：CGLIB 代理和 JDK 代理调用未被增强的方法时不经过拦截器和通知链；
+ *              分派表相同的 CGLIB 代理共用代理类，不同的各自生成
+ * @Author liqiang
+ * @Date 2025/10/30 16:20
+ */
+public class UnadvisedDispatchTest {
+
+    @Test
+    public void testCglibUnadvisedMethodsBypassInterceptor() throws Throwable {
+        PreBuildBeanFactory bf = factory();
+        Account target = new Account();
+        Account proxy = (Account) new CglibDynamicAopProxy("account", target, advisors("deposit"), bf).getProxy();
+
+        CountingBefore.CALLS.set(0);
+        Assert.assertTrue(proxy.deposit());
+        Assert.assertEquals(1, CountingBefore.CALLS.get());
+        Assert.assertFalse(proxy.balance());
+        Assert.assertEquals(target.toString(), proxy.toString());
+        Assert.assertEquals(target.hashCode(), proxy.hashCode());
+        Assert.assertEquals(1, CountingBefore.CALLS.get());
+    }
+
+    @Test
+    public void testJdkUnadvisedMethodsBypassAdviceChain() throws Throwable {
+        PreBuildBeanFactory bf = factory();
+        Account target = new Account();
+        Ledger proxy = (Ledger) new JdkDynamicAopProxy("account", target, advisors("deposit"), bf).getProxy();
+
+        CountingBefore.CALLS.set(0);
+        Assert.assertTrue(proxy.deposit());
+        Assert.assertFalse(proxy.balance());
+        Assert.assertEquals(target.toString(), proxy.toString());
+        Assert.assertEquals(1, CountingBefore.CALLS.get());
+    }
+
+    @Test
+    public void testProxyClassSharedPerDispatchTable() throws Throwable {
+        PreBuildBeanFactory bf = factory();
+        List<Advisor> depositAdvisors = advisors("deposit");
+        Object first = new CglibDynamicAopProxy("first", new Account(), depositAdvisors, bf).getProxy();
+        Object second = new CglibDynamicAopProxy("second", new Account(), advisors("deposit"), bf).getProxy();
+        Object other = new CglibDynamicAopProxy("other", new Account(), advisors("balance"), bf).getProxy();
+        Assert.assertSame(first.getClass(), second.getClass());
+        Assert.assertNotSame(first.getClass(), other.getClass());
+
+        AdvisedMethods advisedMethods = AdvisedMethods.forClass(Account.class, depositAdvisors);
+        Assert.assertSame(advisedMethods, AdvisedMethods.forClass(Account.class, depositAdvisors));
+        Assert.assertEquals(1, advisedMethods.size());
+        Assert.assertTrue(advisedMethods.isAdvised(Ledger.class.getMethod("deposit")));
+        Assert.assertFalse(advisedMethods.isAdvised(Account.class.getMethod("balance")));
+    }
+
+    private static PreBuildBeanFactory factory() {
+        PreBuildBeanFactory bf = new PreBuildBeanFactory();
+        GenericBeanDefinition bd = new GenericBeanDefinition();
+        bd.setBeanClass(CountingBefore.class);
+        bf.registerBeanDefinition("countingBefore", bd);
+        return bf;
+    }
+
+    private static List<Advisor> advisors(String methodName) {
+        return Collections.singletonList(new AspectJPointcutAdvisor("countingBefore",
+                "execution(* v5.UnadvisedDispatchTest.Account." + methodName + "(..))"));
+    }
+
+    /**
+     * 当前调用栈是否经过拦截器或通知链
+     */
+    private static boolean calledThroughAdviceChain() {
+        for (StackTraceElement element : Thread.currentThread().getStackTrace()) {
+            String className = element.getClassName();
+            if (className.equals(CglibDynamicAopProxy.class.getName()) && element.getMethodName().equals("intercept")
+                    || className.startsWith("com.study.spring.aop.AdviceChain")
+                    || className.equals("com.study.spring.aop.AopProxyUtils") && element.getMethodName().equals("applyAdvices")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public interface Ledger {
+
+        boolean deposit();
+
+        boolean balance();
+    }
+
+    /**
+     * 方法返回本次调用是否经过了通知链
+     */
+    public static class Account implements Ledger {
+
+        @Override
+        public boolean deposit() {
+            return calledThroughAdviceChain();
+        }
+
+        @Override
+        public boolean balance() {
+            return calledThroughAdviceChain();
+        }
+
+        @Override
+        public String toString() {
+            Assert.assertFalse(calledThroughAdviceChain());
+            return "account";
+        }
+    }
+
+    public static class CountingBefore implements MethodBeforeAdvice {
+
+        static final AtomicInteger CALLS = new AtomicInteger();
+
+        @Override
+        public void before(Method method, Object[] args, Object target) {
+            CALLS.incrementAndGet();
+        }
+    }
+}
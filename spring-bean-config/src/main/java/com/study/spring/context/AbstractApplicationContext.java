@@ -3,6 +3,8 @@ package com.study.spring.context;
 
 import com.study.spring.aop.beans.BeanPostProcessor;
 import com.study.spring.aop.beans.factory.PreBuildBeanFactory;
+import com.study.spring.aop.beans.factory.StartupMetrics;
+import lombok.extern.slf4j.Slf4j;
 
 import java.util.List;
 import java.util.Map;
@@ -13,6 +15,7 @@ import java.util.Map;
  * @Author liqiang
  * @Date 2025/10/10 14:25
  */
+@Slf4j
 public class AbstractApplicationContext implements ApplicationContext {
 
 
@@ -31,8 +34,20 @@ public class AbstractApplicationContext implements ApplicationContext {
         beanFactory.registerTypeMap();
         // 2、 注册bean的后置处理器
         doRegisterBeanPostProcessor();
-        // 3、 预实例化单例
+        // 3、 按Bean类型提前准备，例如并行计算自动代理匹配、生成代理类
+        beanFactory.prepareBeanTypes();
+        // 4、 预实例化单例
         beanFactory.preInstantiateSingletons();
+        if (log.isDebugEnabled() && beanFactory.getStartupMetrics().isEnabled()) {
+            log.debug(beanFactory.getStartupMetrics().report(10));
+        }
+    }
+
+    /**
+     * Bean 创建耗时统计
+     */
+    public StartupMetrics getStartupMetrics() {
+        return beanFactory.getStartupMetrics();
     }
 
 
@@ -53,6 +68,16 @@ public class AbstractApplicationContext implements ApplicationContext {
         return beanFactory.getBean(beanName);
     }
 
+    @Override
+    public List<Object> getBeans(String beanName, int count) throws Throwable {
+        return beanFactory.getBeans(beanName, count);
+    }
+
+    @Override
+    public boolean isSingleton(String beanName) throws Exception {
+        return beanFactory.isSingleton(beanName);
+    }
+
     @Override
     public <T> T getBean(Class<T> type) throws Throwable {
         return beanFactory.getBean(type);
@@ -1,17 +1,26 @@
 package com.study.spring.context;
 
+import com.study.spring.aop.AdvisorAutoProxyCreator;
+import com.study.spring.aop.advice.AsyncAdvice;
+import com.study.spring.aop.advisor.AspectJPointcutAdvisor;
 import com.study.spring.aop.beans.BeanReference;
 import com.study.spring.aop.beans.GenericBeanDefinition;
+import com.study.spring.aop.beans.BeanDefinition;
 import com.study.spring.aop.beans.PropertyValue;
+import com.study.spring.aop.beans.factory.BeanFactory;
 import com.study.spring.aop.beans.registry.BeanDefinitionRegistry;
+import com.study.spring.aop.exception.AopConfigException;
 import com.study.spring.context.annotation.*;
 import org.apache.commons.lang3.StringUtils;
+import org.springframework.util.ClassUtils;
 
 import javax.annotation.PostConstruct;
 import javax.annotation.PreDestroy;
 import java.io.File;
 import java.lang.reflect.*;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
@@ -20,13 +29,23 @@ import java.util.Set;
  * @ClassName ClassPathBeanDefinitionScanner
  * @Description v1: 实现扫描包获得Class
  *              v2：实现注解解析、bean定义注册
+ *              v3：解析 @Async，为异步方法注册异步通知和切面，需要时注册自动代理
  * @Author liqiang
  * @Date 2025/10/10 15:37
  */
 public class ClassPathBeanDefinitionScanner {
 
+    // @Async 使用的异步通知Bean名称，指定了执行器时再加上 "#执行器Bean名称"
+    private static final String ASYNC_ADVICE_BEAN_NAME = "asyncAdvice";
+
+    // 没有配置自动代理时，为 @Async 注册的自动代理Bean名称
+    private static final String AUTO_PROXY_CREATOR_BEAN_NAME = "advisorAutoProxyCreator";
+
     private BeanDefinitionRegistry registry;
 
+    // 是否注册过异步通知
+    private boolean asyncAdviceRegistered;
+
     //注意：当在开发时执行单元测试，测试类是另一个类目录，这里可能会导致类名截取不对。部署环境时没问题。
     private int classPathAbsLength = new File(ClassPathBeanDefinitionScanner.class.getResource("/").getPath()).getAbsolutePath().length();
 
@@ -56,6 +75,8 @@ public class ClassPathBeanDefinitionScanner {
                 //2 得到Class对象，并解析注解、注册Bean定义
                 this.readAndRegisterBeanDefinition(classFiles);
             }
+            //3 有异步方法但没有配置自动代理时，注册自动代理，异步通知才能生效
+            this.registerAutoProxyCreatorIfNecessary();
         }
     }
 
@@ -151,6 +172,9 @@ public class ClassPathBeanDefinitionScanner {
 
                     // 注册bean定义
                     this.registry.registerBeanDefinition(beanName, beanDefinition);
+
+                    // 处理@Async
+                    this.handleAsync(clazz, beanName);
                 }
             } catch (ClassNotFoundException e) {
                 throw new RuntimeException(e);
@@ -362,6 +386,121 @@ public class ClassPathBeanDefinitionScanner {
         this.registry.registerBeanDefinition(xbeanName, bd);
     }
 
+    /**
+     * 处理@Async：为每个异步方法注册一个切面，切点精确匹配该方法，通知为对应执行器的异步通知。
+     * 类上的注解作用于本类声明的返回 void 或 Future 的 public 方法，方法上的注解优先
+     *
+     * @param clazz    bean的类对象
+     * @param beanName bean名称
+     */
+    private void handleAsync(Class<?> clazz, String beanName) {
+        Async classAsync = clazz.getAnnotation(Async.class);
+        int index = 0;
+        for (Method method : clazz.getMethods()) {
+            if (Modifier.isStatic(method.getModifiers()) || method.isBridge()) {
+                continue;
+            }
+            Async async = method.getAnnotation(Async.class);
+            if (async == null) {
+                if (classAsync == null || method.getDeclaringClass() != clazz || !AsyncAdvice.isAsyncReturnType(method.getReturnType())) {
+                    continue;
+                }
+                async = classAsync;
+            } else if (!AsyncAdvice.isAsyncReturnType(method.getReturnType())) {
+                throw new AopConfigException("@Async 方法只能返回 void 或 Future：" + method);
+            }
+            GenericBeanDefinition advisor = new GenericBeanDefinition();
+            advisor.setBeanClass(AspectJPointcutAdvisor.class);
+            advisor.setConstructorArgumentValues(Arrays.asList(this.registerAsyncAdvice(async.value()), executionExpression(method)));
+            this.registry.registerBeanDefinition(beanName + "#asyncAdvisor#" + index++, advisor);
+        }
+    }
+
+    /**
+     * 注册指定执行器的异步通知，同一执行器只注册一个
+     *
+     * @param executorBeanName 执行器Bean名称，为空时使用默认执行器
+     * @return 异步通知的Bean名称
+     */
+    private String registerAsyncAdvice(String executorBeanName) {
+        String adviceBeanName = StringUtils.isBlank(executorBeanName) ? ASYNC_ADVICE_BEAN_NAME : ASYNC_ADVICE_BEAN_NAME + "#" + executorBeanName;
+        if (!this.registry.containsBeanDefinition(adviceBeanName)) {
+            GenericBeanDefinition bd = new GenericBeanDefinition();
+            bd.setBeanClass(AsyncAdvice.class);
+            if (StringUtils.isNotBlank(executorBeanName)) {
+                bd.setConstructorArgumentValues(Collections.singletonList(new BeanReference(executorBeanName)));
+            }
+            this.registry.registerBeanDefinition(adviceBeanName, bd);
+        }
+        this.asyncAdviceRegistered = true;
+        return adviceBeanName;
+    }
+
+    /**
+     * 只匹配这一个方法的切点表达式，如 execution(* com.study.Foo.bar(java.lang.String, int[]))
+     */
+    private static String executionExpression(Method method) {
+        StringBuilder expression = new StringBuilder("execution(* ").append(typeName(method.getDeclaringClass()))
+                .append('.').append(method.getName()).append('(');
+        Class<?>[] parameterTypes = method.getParameterTypes();
+        for (int i = 0; i < parameterTypes.length; i++) {
+            expression.append(i > 0 ? ", " : "").append(typeName(parameterTypes[i]));
+        }
+        return expression.append("))").toString();
+    }
+
+    /**
+     * 表达式中的类型名，内部类用 . 分隔
+     */
+    private static String typeName(Class<?> type) {
+        return ClassUtils.getQualifiedName(type).replace('$', '.');
+    }
+
+    /**
+     * 注册过异步通知、但注册表中没有自动代理时，注册一个自动代理。
+     * 名称已被其他Bean占用时加上序号
+     */
+    private void registerAutoProxyCreatorIfNecessary() {
+        if (!this.asyncAdviceRegistered || this.containsAutoProxyCreator()) {
+            return;
+        }
+        String beanName = AUTO_PROXY_CREATOR_BEAN_NAME;
+        for (int i = 1; this.registry.containsBeanDefinition(beanName); i++) {
+            beanName = AUTO_PROXY_CREATOR_BEAN_NAME + "#" + i;
+        }
+        GenericBeanDefinition bd = new GenericBeanDefinition();
+        bd.setBeanClass(AdvisorAutoProxyCreator.class);
+        this.registry.registerBeanDefinition(beanName, bd);
+    }
+
+    /**
+     * 注册表中是否已有自动代理：按类型判断，包括扫描前注册的、其他包扫描到的和 @Bean 方法返回的
+     */
+    private boolean containsAutoProxyCreator() {
+        for (String beanName : this.registry.getBeanDefinitionNames()) {
+            Class<?> type = this.getType(beanName);
+            if (type != null && AdvisorAutoProxyCreator.class.isAssignableFrom(type)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Bean的类型：注册表是 BeanFactory 时由它解析（包括工厂方法的返回值类型），否则取 beanClass；无法确定时返回 null
+     */
+    private Class<?> getType(String beanName) {
+        if (this.registry instanceof BeanFactory) {
+            try {
+                return ((BeanFactory) this.registry).getType(beanName);
+            } catch (NoSuchMethodException e) {
+                return null;
+            }
+        }
+        BeanDefinition bd = this.registry.getBeanDefinition(beanName);
+        return bd != null && StringUtils.isBlank(bd.getFactoryMethodName()) ? bd.getBeanClass() : null;
+    }
+
     /**
      * 处理类的属性依赖注入
      * 该方法扫描类中的所有字段，查找带有@Autowired注解的字段，并为其创建相应的Bean引用依赖
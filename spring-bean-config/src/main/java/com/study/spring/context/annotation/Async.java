@@ -0,0 +1,15 @@
+package com.study.spring.context.annotation;
+
+import java.lang.annotation.*;
+
+/**
+ * 方法交给执行器异步执行，只能用于返回 void 或 Future 的 public 方法。
+ * value 为执行器Bean的名称，为空时使用默认执行器；标注在类上时作用于类中声明的所有可以异步执行的 public 方法，
+ * 方法上的注解优先
+ */
+@Target({ElementType.TYPE, ElementType.METHOD})
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface Async {
+    String value() default "";
+}
@@ -0,0 +1,90 @@
+package com.study.spring.context;
+
+import com.study.spring.aop.AdvisorAutoProxyCreator;
+import com.study.spring.aop.advice.AsyncAdvice;
+import com.study.spring.aop.advisor.AspectJPointcutAdvisor;
+import com.study.spring.aop.beans.BeanDefinition;
+import com.study.spring.aop.beans.BeanReference;
+import com.study.spring.aop.beans.GenericBeanDefinition;
+import com.study.spring.aop.beans.factory.PreBuildBeanFactory;
+import com.study.spring.context.async.Mailer;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @ClassName ClassPathBeanDefinitionScannerTest
+ * @Description 扫描 @Async 测试：为每个异步方法生成精确匹配的切点表达式（内部类、数组参数）、按执行器注册异步通知；
+ *              注册表中没有自动代理时注册一个，已有（按类型判断）时不再注册；扫描后方法在指定的执行器中执行
+ * @Author liqiang
+ * @Date 2025/11/02 10:10
+ */
+public class ClassPathBeanDefinitionScannerTest {
+
+    private static final String PACKAGE = "com.study.spring.context.async";
+
+    private static final String MAILER = "com.study.spring.context.async.Mailer";
+
+    @Test
+    public void testAsyncAdvisorsRegistered() {
+        PreBuildBeanFactory bf = new PreBuildBeanFactory();
+        new ClassPathBeanDefinitionScanner(bf).scan(PACKAGE);
+
+        // 切点表达式 -> 通知Bean名称
+        Map<String, String> advisors = new HashMap<>();
+        for (String beanName : bf.getBeanDefinitionNames()) {
+            if (beanName.startsWith("mailer#asyncAdvisor#")) {
+                BeanDefinition bd = bf.getBeanDefinition(beanName);
+                Assert.assertEquals(AspectJPointcutAdvisor.class, bd.getBeanClass());
+                advisors.put((String) bd.getConstructorArgumentValues().get(1), (String) bd.getConstructorArgumentValues().get(0));
+            }
+        }
+        Map<String, String> expected = new HashMap<>();
+        expected.put("execution(* " + MAILER + ".send(" + MAILER + ".Message, java.lang.String[]))", "asyncAdvice#mailExecutor");
+        expected.put("execution(* " + MAILER + ".render(int[]))", "asyncAdvice");
+        Assert.assertEquals(expected, advisors);
+
+        BeanDefinition advice = bf.getBeanDefinition("asyncAdvice#mailExecutor");
+        Assert.assertEquals(AsyncAdvice.class, advice.getBeanClass());
+        Assert.assertEquals("mailExecutor", ((BeanReference) advice.getConstructorArgumentValues().get(0)).getBeanName());
+        Assert.assertTrue(bf.getBeanDefinition("asyncAdvice").getConstructorArgumentValues() == null
+                || bf.getBeanDefinition("asyncAdvice").getConstructorArgumentValues().isEmpty());
+
+        Assert.assertEquals(AdvisorAutoProxyCreator.class, bf.getBeanDefinition("advisorAutoProxyCreator").getBeanClass());
+    }
+
+    @Test
+    public void testExistingAutoProxyCreatorFoundByType() {
+        PreBuildBeanFactory bf = new PreBuildBeanFactory();
+        GenericBeanDefinition creator = new GenericBeanDefinition();
+        creator.setBeanClass(AdvisorAutoProxyCreator.class);
+        bf.registerBeanDefinition("myCreator", creator);
+
+        new ClassPathBeanDefinitionScanner(bf).scan(PACKAGE);
+        Assert.assertFalse(bf.containsBeanDefinition("advisorAutoProxyCreator"));
+    }
+
+    @Test
+    public void testAutoProxyCreatorNameTaken() {
+        PreBuildBeanFactory bf = new PreBuildBeanFactory();
+        GenericBeanDefinition other = new GenericBeanDefinition();
+        other.setBeanClass(Object.class);
+        bf.registerBeanDefinition("advisorAutoProxyCreator", other);
+
+        new ClassPathBeanDefinitionScanner(bf).scan(PACKAGE);
+        Assert.assertEquals(AdvisorAutoProxyCreator.class, bf.getBeanDefinition("advisorAutoProxyCreator#1").getBeanClass());
+    }
+
+    @Test
+    public void testAsyncMethodsRunOnExecutors() throws Throwable {
+        AnnotationApplicationContext context = new AnnotationApplicationContext(PACKAGE);
+        Mailer mailer = (Mailer) context.getBean("mailer");
+
+        Assert.assertTrue(mailer.send(new Mailer.Message(), new String[]{"a"}).get(5, TimeUnit.SECONDS).startsWith("mail-"));
+        Assert.assertTrue(mailer.render(new int[]{1}).get(5, TimeUnit.SECONDS).startsWith("ForkJoinPool.commonPool"));
+        Assert.assertEquals(Thread.currentThread().getName(), mailer.sync());
+    }
+}
@@ -0,0 +1,22 @@
+package com.study.spring.context.async;
+
+import com.study.spring.aop.advice.AsyncExecutors;
+import com.study.spring.context.annotation.Bean;
+import com.study.spring.context.annotation.Component;
+
+import java.util.concurrent.ExecutorService;
+
+/**
+ * @ClassName MailConfig
+ * @Description 扫描 @Async 的测试配置：提供 Mailer 使用的执行器Bean
+ * @Author liqiang
+ * @Date 2025/11/02 10:00
+ */
+@Component
+public class MailConfig {
+
+    @Bean(name = "mailExecutor")
+    public static ExecutorService mailExecutor() {
+        return AsyncExecutors.bounded("mail-", 1, 16);
+    }
+}
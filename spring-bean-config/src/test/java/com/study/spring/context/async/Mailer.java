@@ -0,0 +1,35 @@
+package com.study.spring.context.async;
+
+import com.study.spring.context.annotation.Async;
+import com.study.spring.context.annotation.Component;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
+
+/**
+ * @ClassName Mailer
+ * @Description 扫描 @Async 的测试Bean：类上指定执行器，方法上的注解使用默认执行器；参数有内部类和数组
+ * @Author liqiang
+ * @Date 2025/11/02 10:00
+ */
+@Component
+@Async("mailExecutor")
+public class Mailer {
+
+    public Future<String> send(Message message, String[] to) {
+        return CompletableFuture.completedFuture(Thread.currentThread().getName());
+    }
+
+    @Async
+    public CompletableFuture<String> render(int[] ids) {
+        return CompletableFuture.completedFuture(Thread.currentThread().getName());
+    }
+
+    // 返回类型不能异步执行，类上的注解不作用于它
+    public String sync() {
+        return Thread.currentThread().getName();
+    }
+
+    public static class Message {
+    }
+}
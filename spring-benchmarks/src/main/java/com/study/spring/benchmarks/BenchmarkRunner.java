@@ -0,0 +1,33 @@
+package com.study.spring.benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * @ClassName BenchmarkRunner
+ * @Description 运行基准测试，附带 GC 分析（每次操作的分配字节数、GC 次数），结果同时写入 target/jmh-result.json 便于升级前后对比。
+ *              参数为要运行的基准类/方法的正则，不给时运行全部。
+ * @Author liqiang
+ * @Date 2025/10/23 14:00
+ */
+public class BenchmarkRunner {
+
+    public static void main(String[] args) throws Exception {
+        OptionsBuilder builder = new OptionsBuilder();
+        if (args.length == 0) {
+            builder.include(BenchmarkRunner.class.getPackage().getName() + ".*");
+        }
+        for (String include : args) {
+            builder.include(include);
+        }
+        Options options = builder
+                .addProfiler(GCProfiler.class)
+                .resultFormat(ResultFormatType.JSON)
+                .result("target/jmh-result.json")
+                .build();
+        new Runner(options).run();
+    }
+}
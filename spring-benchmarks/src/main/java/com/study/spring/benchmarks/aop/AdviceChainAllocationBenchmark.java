@@ -0,0 +1,59 @@
+package com.study.spring.benchmarks.aop;
+
+import com.study.spring.aop.CglibDynamicAopProxy;
+import com.study.spring.aop.JdkDynamicAopProxy;
+import com.study.spring.aop.advisor.Advisor;
+import com.study.spring.aop.advisor.AspectJPointcutAdvisor;
+import com.study.spring.aop.beans.GenericBeanDefinition;
+import com.study.spring.aop.beans.factory.DefaultBeanFactory;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @ClassName AdviceChainAllocationBenchmark
+ * @Description 只有前置、后置返回通知的代理调用的分配量，配合 -prof gc 查看 gc.alloc.rate.norm。
+ *              预算：每次调用只有代理生成的参数数组（约 24 B/op），通知链本身不分配对象
+ * @Author liqiang
+ * @Date 2025/10/25 15:30
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AdviceChainAllocationBenchmark {
+
+    @Param({"cglib", "jdk"})
+    private String proxyType;
+
+    private GreetingService proxy;
+
+    @Setup
+    public void setup() {
+        DefaultBeanFactory beanFactory = new DefaultBeanFactory();
+        GenericBeanDefinition before = new GenericBeanDefinition();
+        before.setBeanClass(BenchmarkAdvices.CountingBeforeAdvice.class);
+        beanFactory.registerBeanDefinition("before", before);
+        GenericBeanDefinition afterReturning = new GenericBeanDefinition();
+        afterReturning.setBeanClass(BenchmarkAdvices.CountingAfterReturningAdvice.class);
+        beanFactory.registerBeanDefinition("afterReturning", afterReturning);
+        List<Advisor> advisors = Arrays.asList(new AspectJPointcutAdvisor("before", ProxyInvocationBenchmark.POINTCUT),
+                new AspectJPointcutAdvisor("afterReturning", ProxyInvocationBenchmark.POINTCUT));
+
+        DefaultGreetingService target = new DefaultGreetingService();
+        if ("jdk".equals(this.proxyType)) {
+            this.proxy = (GreetingService) new JdkDynamicAopProxy("greetingService", target, advisors, beanFactory).getProxy();
+        } else {
+            this.proxy = (GreetingService) new CglibDynamicAopProxy("greetingService", target, advisors, beanFactory).getProxy();
+        }
+    }
+
+    @Benchmark
+    public Object beforeAndAfterReturning() {
+        return this.proxy.greet("world");
+    }
+}
@@ -0,0 +1,78 @@
+package com.study.spring.benchmarks.aop;
+
+import com.study.spring.aop.advisor.Advisor;
+import com.study.spring.aop.advisor.AdvisorPreFilterIndex;
+import com.study.spring.aop.advisor.AspectJPointcutAdvisor;
+import com.study.spring.aop.advisor.PointcutAdvisor;
+import com.study.spring.aop.pointcut.Pointcut;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.util.ReflectionUtils;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @ClassName AdvisorMatchBenchmark
+ * @Description 判断一个Bean匹配哪些Advisor：逐个完整匹配所有Advisor（改动前）与先经预筛选索引（改动后）。
+ *              Advisor 中只有一个切中该Bean，其余分布在其他包中
+ * @Author liqiang
+ * @Date 2025/10/28 16:30
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AdvisorMatchBenchmark {
+
+    @Param({"50", "500"})
+    private int advisorCount;
+
+    private List<Advisor> advisors;
+
+    private AdvisorPreFilterIndex index;
+
+    private List<Method> methods;
+
+    @Setup
+    public void setup() {
+        this.advisors = new ArrayList<>();
+        for (int i = 0; i < this.advisorCount - 1; i++) {
+            this.advisors.add(new AspectJPointcutAdvisor("advice" + i, "execution(* com.study.bench.module" + i + "..*.handle*(..))"));
+        }
+        this.advisors.add(new AspectJPointcutAdvisor("greetingAdvice", ProxyInvocationBenchmark.POINTCUT));
+        this.index = new AdvisorPreFilterIndex(this.advisors);
+        this.methods = new ArrayList<>(Arrays.asList(ReflectionUtils.getAllDeclaredMethods(DefaultGreetingService.class)));
+        this.methods.addAll(Arrays.asList(GreetingService.class.getMethods()));
+    }
+
+    @Benchmark
+    public List<Advisor> matchAll() {
+        return match(this.advisors);
+    }
+
+    @Benchmark
+    public List<Advisor> matchPreFiltered() {
+        return match(this.index.getCandidateAdvisors(DefaultGreetingService.class, this.methods));
+    }
+
+    private List<Advisor> match(List<Advisor> candidates) {
+        List<Advisor> matched = new ArrayList<>();
+        for (Advisor advisor : candidates) {
+            Pointcut pointcut = ((PointcutAdvisor) advisor).getPointcut();
+            if (pointcut.matchClass(DefaultGreetingService.class)) {
+                for (Method method : this.methods) {
+                    if (pointcut.matchMethod(method, DefaultGreetingService.class)) {
+                        matched.add(advisor);
+                        break;
+                    }
+                }
+            }
+        }
+        return matched;
+    }
+}
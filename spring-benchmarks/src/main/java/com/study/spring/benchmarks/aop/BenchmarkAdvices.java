@@ -0,0 +1,44 @@
+package com.study.spring.benchmarks.aop;
+
+import com.study.spring.aop.advice.AfterReturningAdvice;
+import com.study.spring.aop.advice.MethodBeforeAdvice;
+import com.study.spring.aop.advice.MethodInterceptor;
+
+import java.lang.reflect.Method;
+
+/**
+ * @ClassName BenchmarkAdvices
+ * @Description 基准测试用的空通知：只计数，不输出，用来衡量通知链本身的开销
+ * @Author liqiang
+ * @Date 2025/10/23 15:05
+ */
+public final class BenchmarkAdvices {
+
+    private BenchmarkAdvices() {
+    }
+
+    public static class CountingBeforeAdvice implements MethodBeforeAdvice {
+        private long count;
+
+        @Override
+        public void before(Method method, Object[] args, Object target) {
+            this.count++;
+        }
+    }
+
+    public static class CountingAfterReturningAdvice implements AfterReturningAdvice {
+        private long count;
+
+        @Override
+        public void afterReturning(Object returnValue, Method method, Object[] args, Object target) {
+            this.count++;
+        }
+    }
+
+    public static class PassThroughInterceptor implements MethodInterceptor {
+        @Override
+        public Object invoke(Method method, Object[] args, Object target) throws Throwable {
+            return method.invoke(target, args);
+        }
+    }
+}
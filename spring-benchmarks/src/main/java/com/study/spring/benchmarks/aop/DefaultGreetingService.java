@@ -0,0 +1,15 @@
+package com.study.spring.benchmarks.aop;
+
+/**
+ * @ClassName DefaultGreetingService
+ * @Description 基准测试用的被代理对象
+ * @Author liqiang
+ * @Date 2025/10/23 15:00
+ */
+public class DefaultGreetingService implements GreetingService {
+
+    @Override
+    public String greet(String name) {
+        return name;
+    }
+}
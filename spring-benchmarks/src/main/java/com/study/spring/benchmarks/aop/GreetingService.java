@@ -0,0 +1,12 @@
+package com.study.spring.benchmarks.aop;
+
+/**
+ * @ClassName GreetingService
+ * @Description 基准测试用的被代理接口
+ * @Author liqiang
+ * @Date 2025/10/23 15:00
+ */
+public interface GreetingService {
+
+    String greet(String name);
+}
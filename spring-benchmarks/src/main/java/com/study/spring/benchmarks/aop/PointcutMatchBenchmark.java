@@ -0,0 +1,60 @@
+package com.study.spring.benchmarks.aop;
+
+import com.study.spring.aop.pointcut.AspectJExpressionPointcut;
+import org.aspectj.weaver.tools.PointcutExpression;
+import org.aspectj.weaver.tools.PointcutParser;
+import org.openjdk.jmh.annotations.*;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @ClassName PointcutMatchBenchmark
+ * @Description 切点匹配与解析：每次调用 matchesMethodExecution（改动前）与缓存的匹配结果（改动后）；
+ *              每次解析表达式（改动前）与共用已解析的表达式（改动后）
+ * @Author liqiang
+ * @Date 2025/10/28 11:00
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PointcutMatchBenchmark {
+
+    private final PointcutParser parser = PointcutParser.getPointcutParserSupportingAllPrimitivesAndUsingContextClassloaderForResolution();
+
+    private PointcutExpression rawExpression;
+
+    private AspectJExpressionPointcut pointcut;
+
+    private Method method;
+
+    @Setup
+    public void setup() throws Exception {
+        this.rawExpression = this.parser.parsePointcutExpression(ProxyInvocationBenchmark.POINTCUT);
+        this.pointcut = new AspectJExpressionPointcut(ProxyInvocationBenchmark.POINTCUT);
+        this.method = GreetingService.class.getMethod("greet", String.class);
+    }
+
+    @Benchmark
+    public boolean uncachedMatch() {
+        return this.rawExpression.matchesMethodExecution(this.method).alwaysMatches();
+    }
+
+    @Benchmark
+    public boolean cachedMatch() {
+        return this.pointcut.matchMethod(this.method, DefaultGreetingService.class);
+    }
+
+    @Benchmark
+    public Object parseExpression() {
+        return this.parser.parsePointcutExpression(ProxyInvocationBenchmark.POINTCUT);
+    }
+
+    @Benchmark
+    public Object sharedExpression() {
+        return new AspectJExpressionPointcut(ProxyInvocationBenchmark.POINTCUT);
+    }
+}
@@ -0,0 +1,45 @@
+package com.study.spring.benchmarks.aop;
+
+import com.study.spring.aop.CglibDynamicAopProxy;
+import com.study.spring.aop.advisor.Advisor;
+import com.study.spring.aop.advisor.AspectJPointcutAdvisor;
+import com.study.spring.aop.beans.GenericBeanDefinition;
+import com.study.spring.aop.beans.factory.DefaultBeanFactory;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @ClassName ProxyCreationBenchmark
+ * @Description 为已生成过代理类的目标类创建 CGLIB 代理对象的耗时，对应原型作用域的被增强Bean每次获取时的代理开销
+ * @Author liqiang
+ * @Date 2025/10/25 11:00
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ProxyCreationBenchmark {
+
+    private DefaultBeanFactory beanFactory;
+
+    private List<Advisor> advisors;
+
+    @Setup
+    public void setup() {
+        this.beanFactory = new DefaultBeanFactory();
+        GenericBeanDefinition bd = new GenericBeanDefinition();
+        bd.setBeanClass(BenchmarkAdvices.CountingBeforeAdvice.class);
+        this.beanFactory.registerBeanDefinition("advice", bd);
+        this.advisors = Collections.singletonList(new AspectJPointcutAdvisor("advice", ProxyInvocationBenchmark.POINTCUT));
+    }
+
+    @Benchmark
+    public Object cglibProxy() {
+        return new CglibDynamicAopProxy("greetingService", new DefaultGreetingService(), this.advisors, this.beanFactory).getProxy();
+    }
+}
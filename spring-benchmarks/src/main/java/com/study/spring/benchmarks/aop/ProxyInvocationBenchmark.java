@@ -0,0 +1,81 @@
+package com.study.spring.benchmarks.aop;
+
+import com.study.spring.aop.CglibDynamicAopProxy;
+import com.study.spring.aop.JavassistAopProxy;
+import com.study.spring.aop.JdkDynamicAopProxy;
+import com.study.spring.aop.advisor.Advisor;
+import com.study.spring.aop.advisor.AspectJPointcutAdvisor;
+import com.study.spring.aop.beans.GenericBeanDefinition;
+import com.study.spring.aop.beans.factory.DefaultBeanFactory;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @ClassName ProxyInvocationBenchmark
+ * @Description 通过 CGLIB、JDK、Javassist 代理调用方法，通知个数 0/1/3/10（前置、后置返回、环绕三种通知轮流），并与直接调用对比；
+ *              unadvised 调用切点不匹配的 hashCode
+ * @Author liqiang
+ * @Date 2025/10/23 15:10
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ProxyInvocationBenchmark {
+
+    static final String POINTCUT = "execution(* com.study.spring.benchmarks.aop.GreetingService.*(..))";
+
+    private static final Class<?>[] ADVICE_TYPES = {BenchmarkAdvices.CountingBeforeAdvice.class,
+            BenchmarkAdvices.CountingAfterReturningAdvice.class, BenchmarkAdvices.PassThroughInterceptor.class};
+
+    @Param({"cglib", "jdk", "javassist"})
+    private String proxyType;
+
+    @Param({"0", "1", "3", "10"})
+    private int advices;
+
+    private GreetingService target;
+
+    private GreetingService proxy;
+
+    @Setup
+    public void setup() {
+        DefaultBeanFactory beanFactory = new DefaultBeanFactory();
+        List<Advisor> advisors = new ArrayList<>();
+        for (int i = 0; i < this.advices; i++) {
+            GenericBeanDefinition bd = new GenericBeanDefinition();
+            bd.setBeanClass(ADVICE_TYPES[i % ADVICE_TYPES.length]);
+            beanFactory.registerBeanDefinition("advice" + i, bd);
+            advisors.add(new AspectJPointcutAdvisor("advice" + i, POINTCUT));
+        }
+
+        this.target = new DefaultGreetingService();
+        if ("jdk".equals(this.proxyType)) {
+            this.proxy = (GreetingService) new JdkDynamicAopProxy("greetingService", this.target, advisors, beanFactory).getProxy();
+        } else if ("javassist".equals(this.proxyType)) {
+            this.proxy = (GreetingService) new JavassistAopProxy("greetingService", this.target, advisors, beanFactory).getProxy();
+        } else {
+            this.proxy = (GreetingService) new CglibDynamicAopProxy("greetingService", this.target, advisors, beanFactory).getProxy();
+        }
+    }
+
+    @Benchmark
+    public Object direct() {
+        return this.target.greet("world");
+    }
+
+    @Benchmark
+    public Object proxied() {
+        return this.proxy.greet("world");
+    }
+
+    @Benchmark
+    public int unadvised() {
+        return this.proxy.hashCode();
+    }
+}
@@ -0,0 +1,82 @@
+package com.study.spring.benchmarks.aop;
+
+import com.study.spring.aop.AdviceChain;
+import com.study.spring.aop.MethodInvoker;
+import net.sf.cglib.proxy.Enhancer;
+import net.sf.cglib.proxy.MethodInterceptor;
+import net.sf.cglib.proxy.MethodProxy;
+import org.openjdk.jmh.annotations.*;
+
+import java.lang.reflect.Method;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @ClassName TerminalDispatchBenchmark
+ * @Description 通知链末端调用目标方法的方式对比：反射 Method.invoke（改动前）与 CGLIB MethodProxy.invoke（改动后），
+ *              分别测单独的末端调用和经过一个前置通知的完整通知链
+ * @Author liqiang
+ * @Date 2025/10/24 16:40
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TerminalDispatchBenchmark {
+
+    private static final String ARG = "world";
+
+    private final DefaultGreetingService target = new DefaultGreetingService();
+
+    private final Object[] args = {ARG};
+
+    private Method method;
+
+    private MethodProxy methodProxy;
+
+    private AdviceChain reflectiveChain;
+
+    private AdviceChain methodProxyChain;
+
+    @Setup
+    public void setup() throws Exception {
+        this.method = GreetingService.class.getMethod("greet", String.class);
+        // 借助一个 CGLIB 代理拿到 greet 方法的 MethodProxy
+        MethodProxy[] holder = new MethodProxy[1];
+        Enhancer enhancer = new Enhancer();
+        enhancer.setSuperclass(DefaultGreetingService.class);
+        enhancer.setCallback((MethodInterceptor) (obj, m, a, mp) -> {
+            holder[0] = mp;
+            return null;
+        });
+        ((GreetingService) enhancer.create()).greet(ARG);
+        this.methodProxy = holder[0];
+
+        List<Object> advices = Collections.singletonList(new BenchmarkAdvices.CountingBeforeAdvice());
+        this.reflectiveChain = AdviceChain.of(advices, MethodInvoker.forMethod(this.method, null));
+        this.methodProxyChain = AdviceChain.of(advices, MethodInvoker.forMethod(this.method, this.methodProxy));
+    }
+
+    @Benchmark
+    public Object reflectiveTerminal() throws Throwable {
+        return this.method.invoke(this.target, this.args);
+    }
+
+    @Benchmark
+    public Object methodProxyTerminal() throws Throwable {
+        return this.methodProxy.invoke(this.target, this.args);
+    }
+
+    @Benchmark
+    public Object reflectiveChain() throws Throwable {
+        return this.reflectiveChain.proceed(0, null, this.target, this.method, this.args);
+    }
+
+    @Benchmark
+    public Object methodProxyChain() throws Throwable {
+        return this.methodProxyChain.proceed(0, null, this.target, this.method, this.args);
+    }
+}
@@ -0,0 +1,48 @@
+package com.study.spring.benchmarks.beans;
+
+import com.study.spring.aop.beans.BeanReference;
+import com.study.spring.aop.beans.GenericBeanDefinition;
+import com.study.spring.aop.beans.PropertyValue;
+import com.study.spring.aop.beans.factory.DefaultBeanFactory;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @ClassName CircularDependencyBenchmark
+ * @Description 属性循环依赖的解析：每次调用都在新的 BeanFactory 中创建一个由 size 个单例组成的依赖环
+ * @Author liqiang
+ * @Date 2025/10/23 14:30
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CircularDependencyBenchmark {
+
+    @Param({"2", "16"})
+    private int size;
+
+    private DefaultBeanFactory beanFactory;
+
+    @Setup(Level.Invocation)
+    public void setup() {
+        this.beanFactory = new DefaultBeanFactory();
+        for (int i = 0; i < this.size; i++) {
+            GenericBeanDefinition bd = new GenericBeanDefinition();
+            bd.setBeanClass(CycleBean.class);
+            bd.setPropertyValues(new ArrayList<>(Collections.singletonList(
+                    new PropertyValue("other", new BeanReference("cycle" + ((i + 1) % this.size))))));
+            this.beanFactory.registerBeanDefinition("cycle" + i, bd);
+        }
+    }
+
+    @Benchmark
+    public Object resolveCycle() throws Throwable {
+        return this.beanFactory.getBean("cycle0");
+    }
+}
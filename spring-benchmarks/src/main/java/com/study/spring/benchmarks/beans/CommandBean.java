@@ -0,0 +1,37 @@
+package com.study.spring.benchmarks.beans;
+
+/**
+ * @ClassName CommandBean
+ * @Description 基准测试用的原型Bean：构造参数 + 属性依赖
+ * @Author liqiang
+ * @Date 2025/10/23 14:05
+ */
+public class CommandBean {
+
+    private final String name;
+
+    private final int priority;
+
+    private ServiceBean service;
+
+    public CommandBean(String name, int priority) {
+        this.name = name;
+        this.priority = priority;
+    }
+
+    public static CommandBean of(String name, int priority) {
+        return new CommandBean(name, priority);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getPriority() {
+        return priority;
+    }
+
+    public ServiceBean getService() {
+        return service;
+    }
+}
@@ -0,0 +1,102 @@
+package com.study.spring.benchmarks.beans;
+
+import com.study.spring.aop.beans.GenericBeanDefinition;
+import com.study.spring.aop.beans.factory.DefaultBeanFactory;
+import com.study.spring.aop.beans.instantiation.JavassistInstantiationStrategy;
+import com.study.spring.aop.beans.instantiation.LambdaMetafactoryInstantiationStrategy;
+import com.study.spring.aop.beans.instantiation.ReflectiveInstantiationStrategy;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @ClassName CreationBenchmark
+ * @Description 原型Bean的创建：构造方法、静态工厂方法、工厂Bean方法，分别使用三种实例化策略，并与直接 new 对比
+ * @Author liqiang
+ * @Date 2025/10/23 14:20
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CreationBenchmark {
+
+    @Param({"reflective", "javassist", "lambda"})
+    private String strategy;
+
+    private DefaultBeanFactory beanFactory;
+
+    @Setup
+    public void setup() {
+        this.beanFactory = new DefaultBeanFactory();
+        switch (this.strategy) {
+            case "javassist":
+                this.beanFactory.setInstantiationStrategy(new JavassistInstantiationStrategy());
+                break;
+            case "lambda":
+                this.beanFactory.setInstantiationStrategy(new LambdaMetafactoryInstantiationStrategy());
+                break;
+            default:
+                this.beanFactory.setInstantiationStrategy(new ReflectiveInstantiationStrategy());
+        }
+
+        GenericBeanDefinition bd = new GenericBeanDefinition();
+        bd.setBeanClass(CommandBean.class);
+        bd.setScope(GenericBeanDefinition.SCOPE_PROTOTYPE);
+        bd.setConstructorArgumentValues(args());
+        this.beanFactory.registerBeanDefinition("constructorCommand", bd);
+
+        bd = new GenericBeanDefinition();
+        bd.setBeanClass(CommandBean.class);
+        bd.setScope(GenericBeanDefinition.SCOPE_PROTOTYPE);
+        bd.setFactoryMethodName("of");
+        bd.setConstructorArgumentValues(args());
+        this.beanFactory.registerBeanDefinition("staticFactoryCommand", bd);
+
+        bd = new GenericBeanDefinition();
+        bd.setBeanClass(ServiceBean.class);
+        this.beanFactory.registerBeanDefinition("service", bd);
+
+        bd = new GenericBeanDefinition();
+        bd.setFactoryBeanName("service");
+        bd.setFactoryMethodName("createCommand");
+        bd.setScope(GenericBeanDefinition.SCOPE_PROTOTYPE);
+        bd.setConstructorArgumentValues(args());
+        this.beanFactory.registerBeanDefinition("factoryBeanCommand", bd);
+    }
+
+    private static List<Object> args() {
+        return new ArrayList<>(Arrays.asList("command", 1));
+    }
+
+    @Benchmark
+    public Object rawNew() {
+        return new CommandBean("command", 1);
+    }
+
+    @Benchmark
+    public Object constructor() throws Throwable {
+        return this.beanFactory.getBean("constructorCommand");
+    }
+
+    @Benchmark
+    public Object staticFactoryMethod() throws Throwable {
+        return this.beanFactory.getBean("staticFactoryCommand");
+    }
+
+    @Benchmark
+    public Object factoryBeanMethod() throws Throwable {
+        return this.beanFactory.getBean("factoryBeanCommand");
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(100)
+    public Object batchOf100() throws Throwable {
+        return this.beanFactory.getBeans("constructorCommand", 100);
+    }
+}
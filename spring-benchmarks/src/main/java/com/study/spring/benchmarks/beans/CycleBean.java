@@ -0,0 +1,16 @@
+package com.study.spring.benchmarks.beans;
+
+/**
+ * @ClassName CycleBean
+ * @Description 基准测试用的属性循环依赖Bean
+ * @Author liqiang
+ * @Date 2025/10/23 14:05
+ */
+public class CycleBean {
+
+    private CycleBean other;
+
+    public CycleBean getOther() {
+        return other;
+    }
+}
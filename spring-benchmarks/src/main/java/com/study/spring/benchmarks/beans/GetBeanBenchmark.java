@@ -0,0 +1,74 @@
+package com.study.spring.benchmarks.beans;
+
+import com.study.spring.aop.beans.BeanReference;
+import com.study.spring.aop.beans.GenericBeanDefinition;
+import com.study.spring.aop.beans.PropertyValue;
+import com.study.spring.aop.beans.factory.DefaultBeanFactory;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @ClassName GetBeanBenchmark
+ * @Description 按名称、按类型获取单例和原型Bean
+ * @Author liqiang
+ * @Date 2025/10/23 14:10
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GetBeanBenchmark {
+
+    private DefaultBeanFactory beanFactory;
+
+    @Setup
+    public void setup() throws Throwable {
+        this.beanFactory = new DefaultBeanFactory();
+
+        GenericBeanDefinition bd = new GenericBeanDefinition();
+        bd.setBeanClass(ServiceBean.class);
+        this.beanFactory.registerBeanDefinition("service", bd);
+        this.beanFactory.registerAlias("service", "legacyService");
+
+        bd = new GenericBeanDefinition();
+        bd.setBeanClass(CommandBean.class);
+        bd.setScope(GenericBeanDefinition.SCOPE_PROTOTYPE);
+        bd.setConstructorArgumentValues(new ArrayList<>(Arrays.asList("command", 1)));
+        bd.setPropertyValues(new ArrayList<>(Collections.singletonList(new PropertyValue("service", new BeanReference("service")))));
+        this.beanFactory.registerBeanDefinition("command", bd);
+
+        this.beanFactory.registerTypeMap();
+        this.beanFactory.getBean("service");
+    }
+
+    @Benchmark
+    public Object singletonByName() throws Throwable {
+        return this.beanFactory.getBean("service");
+    }
+
+    @Benchmark
+    public Object singletonByAlias() throws Throwable {
+        return this.beanFactory.getBean("legacyService");
+    }
+
+    @Benchmark
+    public Object singletonByType() throws Throwable {
+        return this.beanFactory.getBean(ServiceBean.class);
+    }
+
+    @Benchmark
+    public Object prototypeByName() throws Throwable {
+        return this.beanFactory.getBean("command");
+    }
+
+    @Benchmark
+    public Object prototypeByType() throws Throwable {
+        return this.beanFactory.getBean(CommandBean.class);
+    }
+}
@@ -0,0 +1,14 @@
+package com.study.spring.benchmarks.beans;
+
+/**
+ * @ClassName ServiceBean
+ * @Description 基准测试用的单例Bean，同时作为工厂Bean
+ * @Author liqiang
+ * @Date 2025/10/23 14:05
+ */
+public class ServiceBean {
+
+    public CommandBean createCommand(String name, int priority) {
+        return new CommandBean(name, priority);
+    }
+}
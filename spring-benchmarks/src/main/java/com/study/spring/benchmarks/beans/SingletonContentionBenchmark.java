@@ -0,0 +1,85 @@
+package com.study.spring.benchmarks.beans;
+
+import com.study.spring.aop.beans.GenericBeanDefinition;
+import com.study.spring.aop.beans.factory.DefaultBeanFactory;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @ClassName SingletonContentionBenchmark
+ * @Description 单例创建锁竞争：一个慢初始化的单例正在创建时，32个线程并发 getBean 的吞吐量。
+ *              每次迭代使用新的容器，一半单例提前创建好，另一半在慢Bean初始化期间才第一次创建；
+ *              按Bean加锁后，慢Bean创建期间其他单例的读取/创建不被阻塞。
+ * @Author liqiang
+ * @Date 2025/10/20 11:02
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(32)
+public class SingletonContentionBenchmark {
+
+    private static final int BEANS = 256;
+
+    private DefaultBeanFactory beanFactory;
+
+    private Thread slowCreator;
+
+    @Setup(Level.Iteration)
+    public void setup() throws Throwable {
+        this.beanFactory = new DefaultBeanFactory();
+
+        GenericBeanDefinition bd = new GenericBeanDefinition();
+        bd.setBeanClass(SlowInitBean.class);
+        bd.setInitMethodName("init");
+        this.beanFactory.registerBeanDefinition("slowBean", bd);
+        for (int i = 0; i < BEANS; i++) {
+            bd = new GenericBeanDefinition();
+            bd.setBeanClass(ServiceBean.class);
+            this.beanFactory.registerBeanDefinition("fastBean" + i, bd);
+        }
+        for (int i = 0; i < BEANS / 2; i++) {
+            this.beanFactory.getBean("fastBean" + i);
+        }
+
+        SlowInitBean.started = new CountDownLatch(1);
+        SlowInitBean.release = new CountDownLatch(1);
+        DefaultBeanFactory bf = this.beanFactory;
+        this.slowCreator = new Thread(() -> {
+            try {
+                bf.getBean("slowBean");
+            } catch (Throwable e) {
+                throw new IllegalStateException(e);
+            }
+        }, "slow-bean-creator");
+        this.slowCreator.start();
+        SlowInitBean.started.await();
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDown() throws Throwable {
+        SlowInitBean.release.countDown();
+        this.slowCreator.join();
+        this.beanFactory.close();
+    }
+
+    /**
+     * 每个线程从随机的Bean开始轮流获取
+     */
+    @State(Scope.Thread)
+    public static class Cursor {
+
+        private int next = ThreadLocalRandom.current().nextInt(BEANS);
+    }
+
+    @Benchmark
+    public Object getBeanWhileSlowSingletonBuilds(Cursor cursor) throws Throwable {
+        return this.beanFactory.getBean("fastBean" + (cursor.next++ & (BEANS - 1)));
+    }
+}
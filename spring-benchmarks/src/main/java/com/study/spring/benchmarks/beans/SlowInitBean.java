@@ -0,0 +1,23 @@
+package com.study.spring.benchmarks.beans;
+
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * @ClassName SlowInitBean
+ * @Description 基准测试用的慢初始化单例：初始化方法一直阻塞到 release 被放开，期间持有它的单例创建锁
+ * @Author liqiang
+ * @Date 2025/10/20 11:02
+ */
+public class SlowInitBean {
+
+    // 初始化开始时计数
+    static volatile CountDownLatch started;
+
+    // 放开后初始化结束
+    static volatile CountDownLatch release;
+
+    public void init() throws InterruptedException {
+        started.countDown();
+        release.await();
+    }
+}
@@ -0,0 +1,28 @@
+package com.study.spring.benchmarks.context;
+
+import com.study.spring.context.AnnotationApplicationContext;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @ClassName ContextRefreshBenchmark
+ * @Description AnnotationApplicationContext 完整刷新：扫描 synthetic 包、注册Bean定义、预实例化单例
+ * @Author liqiang
+ * @Date 2025/10/23 15:30
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ContextRefreshBenchmark {
+
+    static final String SYNTHETIC_PACKAGE = ContextRefreshBenchmark.class.getPackage().getName() + ".synthetic";
+
+    @Benchmark
+    public Object refresh() throws Throwable {
+        return new AnnotationApplicationContext(SYNTHETIC_PACKAGE);
+    }
+}
@@ -0,0 +1,24 @@
+package com.study.spring.benchmarks.context.synthetic;
+
+import com.study.spring.context.annotation.Autowired;
+import com.study.spring.context.annotation.Component;
+
+/**
+ * @ClassName Controller00
+ * @Description 容器刷新基准测试用的合成组件：构造方法注入
+ * @Author liqiang
+ * @Date 2025/10/23 15:40
+ */
+@Component
+public class Controller00 {
+
+    private final Service00 first;
+
+    private final Service01 second;
+
+    @Autowired
+    public Controller00(Service00 first, Service01 second) {
+        this.first = first;
+        this.second = second;
+    }
+}
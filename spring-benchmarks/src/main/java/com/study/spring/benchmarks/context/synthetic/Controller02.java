@@ -0,0 +1,24 @@
+package com.study.spring.benchmarks.context.synthetic;
+
+import com.study.spring.context.annotation.Autowired;
+import com.study.spring.context.annotation.Component;
+
+/**
+ * @ClassName Controller02
+ * @Description 容器刷新基准测试用的合成组件：构造方法注入
+ * @Author liqiang
+ * @Date 2025/10/23 15:40
+ */
+@Component
+public class Controller02 {
+
+    private final Service06 first;
+
+    private final Service07 second;
+
+    @Autowired
+    public Controller02(Service06 first, Service07 second) {
+        this.first = first;
+        this.second = second;
+    }
+}
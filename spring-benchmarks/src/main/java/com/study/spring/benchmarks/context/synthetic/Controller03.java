@@ -0,0 +1,24 @@
+package com.study.spring.benchmarks.context.synthetic;
+
+import com.study.spring.context.annotation.Autowired;
+import com.study.spring.context.annotation.Component;
+
+/**
+ * @ClassName Controller03
+ * @Description 容器刷新基准测试用的合成组件：构造方法注入
+ * @Author liqiang
+ * @Date 2025/10/23 15:40
+ */
+@Component
+public class Controller03 {
+
+    private final Service09 first;
+
+    private final Service10 second;
+
+    @Autowired
+    public Controller03(Service09 first, Service10 second) {
+        this.first = first;
+        this.second = second;
+    }
+}
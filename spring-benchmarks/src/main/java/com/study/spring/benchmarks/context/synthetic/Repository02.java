@@ -0,0 +1,22 @@
+package com.study.spring.benchmarks.context.synthetic;
+
+import com.study.spring.context.annotation.Component;
+
+import javax.annotation.PostConstruct;
+
+/**
+ * @ClassName Repository02
+ * @Description 容器刷新基准测试用的合成组件：带初始化方法的仓储
+ * @Author liqiang
+ * @Date 2025/10/23 15:40
+ */
+@Component
+public class Repository02 {
+
+    private boolean initialized;
+
+    @PostConstruct
+    public void init() {
+        this.initialized = true;
+    }
+}
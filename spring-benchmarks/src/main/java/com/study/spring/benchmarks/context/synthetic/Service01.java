@@ -0,0 +1,17 @@
+package com.study.spring.benchmarks.context.synthetic;
+
+import com.study.spring.context.annotation.Autowired;
+import com.study.spring.context.annotation.Component;
+
+/**
+ * @ClassName Service01
+ * @Description 容器刷新基准测试用的合成组件：按类型属性注入
+ * @Author liqiang
+ * @Date 2025/10/23 15:40
+ */
+@Component
+public class Service01 {
+
+    @Autowired
+    private Repository01 repository;
+}
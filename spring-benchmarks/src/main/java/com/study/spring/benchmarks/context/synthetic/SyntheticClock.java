@@ -0,0 +1,16 @@
+package com.study.spring.benchmarks.context.synthetic;
+
+/**
+ * @ClassName SyntheticClock
+ * @Description 容器刷新基准测试用的合成Bean：由 SyntheticConfig 的工厂方法创建
+ * @Author liqiang
+ * @Date 2025/10/23 15:40
+ */
+public class SyntheticClock {
+
+    private final long createdAt = System.nanoTime();
+
+    public long getCreatedAt() {
+        return createdAt;
+    }
+}
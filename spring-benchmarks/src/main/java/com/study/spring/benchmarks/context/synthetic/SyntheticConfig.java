@@ -0,0 +1,19 @@
+package com.study.spring.benchmarks.context.synthetic;
+
+import com.study.spring.context.annotation.Bean;
+import com.study.spring.context.annotation.Component;
+
+/**
+ * @ClassName SyntheticConfig
+ * @Description 容器刷新基准测试用的合成配置：工厂方法定义Bean
+ * @Author liqiang
+ * @Date 2025/10/23 15:40
+ */
+@Component
+public class SyntheticConfig {
+
+    @Bean
+    public SyntheticClock syntheticClock() {
+        return new SyntheticClock();
+    }
+}